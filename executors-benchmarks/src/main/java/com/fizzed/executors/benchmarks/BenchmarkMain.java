@@ -0,0 +1,55 @@
+/*
+ * Copyright 2025 Fizzed, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fizzed.executors.benchmarks;
+
+import com.fizzed.executors.impl.WorkerRunnableBenchmark;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the baseline matrix: ProcessorServiceBenchmark with 1/4/16/64 producers
+ * (each against 1/4/16/64 workers), then WorkerRunnableBenchmark once.  Any
+ * arguments are passed straight through to the standard JMH command line
+ * instead (e.g. java -jar benchmarks.jar ProcessorServiceBenchmark -t 8).
+ */
+public class BenchmarkMain {
+
+    static public final int[] PRODUCERS = { 1, 4, 16, 64 };
+
+    static public void main(String[] args) throws Exception {
+        if (args.length > 0) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+
+        for (int producers : PRODUCERS) {
+            final Options options = new OptionsBuilder()
+                .include(ProcessorServiceBenchmark.class.getName())
+                .threads(producers)
+                .build();
+
+            new Runner(options).run();
+        }
+
+        final Options options = new OptionsBuilder()
+            .include(WorkerRunnableBenchmark.class.getName())
+            .build();
+
+        new Runner(options).run();
+    }
+
+}
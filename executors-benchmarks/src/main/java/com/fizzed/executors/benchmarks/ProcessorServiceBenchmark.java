@@ -0,0 +1,145 @@
+/*
+ * Copyright 2025 Fizzed, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fizzed.executors.benchmarks;
+
+import com.fizzed.executors.core.ExecuteStopException;
+import com.fizzed.executors.core.Processor;
+import com.fizzed.executors.core.ProcessorService;
+import com.fizzed.executors.core.TaskQueues;
+import com.fizzed.executors.core.WaitStrategy;
+import com.fizzed.executors.core.WorkerContext;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures a task from ProcessorService.submit() through ProcessorWorker.execute()
+ * with a processor that does no work, so what remains is the overhead of the
+ * queue plus the idle/running state transitions.  The number of producers is
+ * the number of benchmark threads (see BenchmarkMain, or pass -t to JMH).
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ProcessorServiceBenchmark {
+
+    static public final int BATCH_SIZE = 1000;
+    // big enough for a full batch from each of 64 producers
+    static public final int QUEUE_CAPACITY = 64 * 1024;
+
+    static public class NoopProcessor implements Processor<CountDownLatch> {
+        @Override
+        public void execute(WorkerContext context, CountDownLatch task) throws ExecuteStopException, InterruptedException {
+            task.countDown();
+        }
+    }
+
+    static public class NoopProcessorService extends ProcessorService<CountDownLatch,NoopProcessor> {
+
+        public NoopProcessorService(BlockingQueue<CountDownLatch> taskQueue) {
+            super("Benchmark Processor Service", taskQueue);
+        }
+
+        @Override
+        protected NoopProcessor newProcessor() {
+            return new NoopProcessor();
+        }
+
+    }
+
+    @Param({ "1", "4", "16", "64" })
+    public int workers;
+
+    @Param({ "linked", "bounded", "ring" })
+    public String queue;
+
+    private NoopProcessorService service;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        this.service = new NoopProcessorService(newTaskQueue(this.queue));
+        this.service.setMinPoolSize(this.workers);
+        this.service.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() {
+        this.service.stop();
+    }
+
+    static BlockingQueue<CountDownLatch> newTaskQueue(String type) {
+        switch (type) {
+            case "linked":
+                return TaskQueues.linked();
+            case "bounded":
+                return TaskQueues.bounded(QUEUE_CAPACITY);
+            case "ring":
+                return TaskQueues.ring(QUEUE_CAPACITY, WaitStrategy.PARK);
+            default:
+                throw new IllegalArgumentException("Unsupported queue " + type);
+        }
+    }
+
+    /**
+     * Tasks per second, end-to-end.  Each invocation submits a batch of tasks
+     * and waits for all of them to be processed, so the queue can never grow
+     * without bound and the score reflects what the workers actually kept up with.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void throughput() throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(BATCH_SIZE);
+
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            this.service.submit(latch);
+        }
+
+        latch.await();
+    }
+
+    /**
+     * Latency of a single task from submit() until the processor has run it,
+     * reported as percentiles.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void latency() throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(1);
+
+        this.service.submit(latch);
+
+        latch.await();
+    }
+
+}
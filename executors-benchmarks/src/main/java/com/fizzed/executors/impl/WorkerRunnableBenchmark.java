@@ -0,0 +1,138 @@
+/*
+ * Copyright 2025 Fizzed, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fizzed.executors.impl;
+
+import com.fizzed.executors.core.ExecuteStopException;
+import com.fizzed.executors.core.Worker;
+import com.fizzed.executors.core.WorkerContext;
+import com.fizzed.executors.core.WorkerState;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Per-iteration overhead of WorkerRunnableImpl.  Lives in the impl package so
+ * it can drive the protected idle() and running() transitions directly.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class WorkerRunnableBenchmark {
+
+    static public final int ITERATIONS = 1000;
+
+    /**
+     * Worker that only flips the state (like ProcessorWorker does per task) and
+     * asks to stop itself after a fixed number of executions.
+     */
+    static public class CountingWorker implements Worker {
+
+        private int remaining;
+
+        @Override
+        public void execute(WorkerContext context) throws ExecuteStopException, InterruptedException {
+            if (--this.remaining < 0) {
+                throw new ExecuteStopException("Done");
+            }
+            context.running();
+            context.idle();
+        }
+
+    }
+
+    @State(Scope.Thread)
+    static public class RunState {
+
+        CountingWorker worker;
+
+        @Setup
+        public void setup() {
+            this.worker = new CountingWorker();
+        }
+
+    }
+
+    @State(Scope.Group)
+    static public class TransitionState {
+
+        WorkerRunnableImpl<CountingWorker> runnable;
+
+        @Setup
+        public void setup() {
+            this.runnable = new WorkerRunnableImpl<>(1, "benchmark-1", new CountingWorker());
+        }
+
+    }
+
+    /**
+     * Full run() loop: worker.execute(), the execute delay check and the state
+     * transitions, per iteration.
+     */
+    @Benchmark
+    @OperationsPerInvocation(ITERATIONS)
+    public WorkerState run(RunState state) {
+        state.worker.remaining = ITERATIONS;
+
+        final WorkerRunnableImpl<CountingWorker> runnable = new WorkerRunnableImpl<>(1, "benchmark-1", state.worker);
+
+        runnable.run();
+
+        return runnable.getState();
+    }
+
+    /**
+     * A single running() then idle() pair, uncontended.
+     */
+    @Benchmark
+    @Group("transitions")
+    public void transitions(TransitionState state) throws ExecuteStopException, InterruptedException {
+        state.runnable.running("Execute");
+        state.runnable.idle(null, "Idle");
+    }
+
+    /**
+     * Same pair, while another thread polls the state the way a monitoring
+     * thread would (e.g. WorkerService.getRunningCount()).
+     */
+    @Benchmark
+    @Group("monitored")
+    @GroupThreads(1)
+    public void monitoredTransitions(TransitionState state) throws ExecuteStopException, InterruptedException {
+        state.runnable.running("Execute");
+        state.runnable.idle(null, "Idle");
+    }
+
+    @Benchmark
+    @Group("monitored")
+    @GroupThreads(1)
+    public WorkerState monitoredGetState(TransitionState state) {
+        return state.runnable.getState();
+    }
+
+}
@@ -0,0 +1,485 @@
+/*
+ * Copyright 2025 Fizzed, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fizzed.executors.core;
+
+import com.fizzed.crux.util.TimeDuration;
+import com.fizzed.executors.impl.BatchProcessorWorker;
+import com.fizzed.executors.impl.CallerWorkerContext;
+import com.fizzed.executors.impl.ProcessorWorker;
+import com.fizzed.executors.impl.TimingWheel;
+import com.fizzed.executors.internal.RejectionHelper;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What ProcessorService and PartitionedProcessorService share: one or more
+ * task queues that workers take from, and how tasks get into them (rejection
+ * policies, delayed submits, draining on stop), task interceptors and task
+ * metrics.  Subclasses decide which queue a task is submitted to and which
+ * queue each worker takes from.
+ */
+public abstract class AbstractProcessorService<T,P extends Processor<T>> extends WorkerService<ProcessorWorker<T>> {
+    
+    static private final TimeDuration TIMER_TICK = TimeDuration.millis(1);
+    static private final long DRAIN_POLL_MILLIS = 5L;
+    
+    private final BlockingQueue<T>[] taskQueues;
+    // per queue, tasks taken by a worker but never run (e.g. a stop came first), so run first next start
+    private final Queue<T>[] pendings;
+    private final TimingWheel<T> timer;
+    // for CALLER_RUNS, created on demand and reused (though never by two callers at once)
+    private final Queue<P> callerProcessors;
+    private int batchSize;
+    private TimeDuration batchLinger;
+    private RejectionPolicy rejectionPolicy;
+    private TimeDuration submitTimeout;
+    private TimeDuration drainTimeout;
+    private volatile boolean draining;
+    private TaskInterceptor<T>[] taskInterceptors;
+    // whether any task was timestamped (so queue wait and total are recorded)
+    private volatile boolean timestamped;
+    private volatile LatencySnapshot retiredQueueWait;
+    private volatile LatencySnapshot retiredTotal;
+    
+    /**
+     * @param name the name of the service
+     * @param taskQueues the queues tasks are submitted to and workers take
+     *      from (at least one)
+     */
+    @SuppressWarnings("unchecked")
+    protected AbstractProcessorService(
+            String name,
+            BlockingQueue<T>[] taskQueues) {
+        
+        super(name);
+        
+        if (taskQueues == null || taskQueues.length < 1) {
+            throw new IllegalArgumentException("taskQueues must have at least one queue");
+        }
+        
+        this.taskQueues = taskQueues;
+        this.pendings = new Queue[taskQueues.length];
+        for (int i = 0; i < taskQueues.length; i++) {
+            if (taskQueues[i] == null) {
+                throw new NullPointerException("taskQueue was null");
+            }
+            this.pendings[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.callerProcessors = new ConcurrentLinkedQueue<>();
+        this.timer = new TimingWheel<>(name + "-timer", TIMER_TICK, this::submitDue);
+        this.batchSize = 100;
+        this.batchLinger = null;
+        this.rejectionPolicy = RejectionPolicy.REJECT;
+        this.submitTimeout = null;
+        this.drainTimeout = null;
+        this.draining = false;
+        this.taskInterceptors = null;
+        this.timestamped = false;
+        this.retiredQueueWait = LatencySnapshot.EMPTY;
+        this.retiredTotal = LatencySnapshot.EMPTY;
+    }
+    
+    protected int getTaskQueueCount() {
+        return this.taskQueues.length;
+    }
+    
+    protected BlockingQueue<T> getTaskQueue(int queue) {
+        return this.taskQueues[queue];
+    }
+    
+    /**
+     * Number of tasks currently waiting across all queues (including any
+     * taken by a worker that stopped before running them).
+     */
+    public int getQueueSize() {
+        int size = 0;
+        for (int i = 0; i < this.taskQueues.length; i++) {
+            size += this.getQueueSize(i);
+        }
+        return size;
+    }
+    
+    protected int getQueueSize(int queue) {
+        return this.taskQueues[queue].size() + this.pendings[queue].size();
+    }
+    
+    /**
+     * Snapshot of the queue and how long tasks spend waiting in it and being
+     * processed, across all workers (including retired ones).
+     */
+    public TaskMetrics getTaskMetrics() {
+        LatencySnapshot queueWait = this.retiredQueueWait;
+        LatencySnapshot total = this.retiredTotal;
+        for (WorkerRunnable<ProcessorWorker<T>> runnable : this.getRunnables()) {
+            queueWait = queueWait.merge(runnable.getWorker().getQueueWait().snapshot());
+            total = total.merge(runnable.getWorker().getTotal().snapshot());
+        }
+        
+        return new TaskMetrics(this.getQueueSize(), this.timer.getPending(), this.timestamped, queueWait,
+            this.getMetrics().getExecuteLatency(), total);
+    }
+    
+    @Override
+    protected void retired(WorkerRunnable<ProcessorWorker<T>> runnable) {
+        this.retiredQueueWait = this.retiredQueueWait.merge(runnable.getWorker().getQueueWait().snapshot());
+        this.retiredTotal = this.retiredTotal.merge(runnable.getWorker().getTotal().snapshot());
+    }
+    
+    /**
+     * Number of tasks submitted with a delay that are not yet due.
+     */
+    public int getDelayedSize() {
+        return this.timer.getPending();
+    }
+    
+    @Override
+    protected int getBacklog() {
+        return this.getQueueSize();
+    }
+    
+    /**
+     * How long the task at the head of a queue has waited, the longest across
+     * queues.  Unlike the queue wait in the task metrics (recorded once a
+     * worker takes a task), this also grows while every worker is stuck.  The
+     * head of a priority queue is its most urgent task rather than its oldest,
+     * so there this may understate the wait.  Only known if tasks are
+     * TimestampedTasks.
+     */
+    @Override
+    protected long getQueueWaitNanos() {
+        if (!this.timestamped) {
+            return -1L;
+        }
+        
+        final long now = System.nanoTime();
+        long waitNanos = 0L;
+        for (int i = 0; i < this.taskQueues.length; i++) {
+            waitNanos = Math.max(waitNanos, queuedNanos(this.pendings[i].peek(), now));
+            waitNanos = Math.max(waitNanos, queuedNanos(this.taskQueues[i].peek(), now));
+        }
+        return waitNanos;
+    }
+    
+    static private long queuedNanos(Object task, long now) {
+        if (task instanceof TimestampedTask) {
+            return now - ((TimestampedTask)task).getQueuedNanos();
+        }
+        return 0L;
+    }
+    
+    /**
+     * Max number of tasks handed to a BatchProcessor at once (ignored for a
+     * regular Processor).
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+    
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+    
+    /**
+     * How long a BatchProcessor worker will wait for more tasks to fill up a
+     * partial batch before executing it.  Null (default) executes whatever was
+     * already queued right away.
+     */
+    public TimeDuration getBatchLinger() {
+        return batchLinger;
+    }
+    
+    public void setBatchLinger(TimeDuration batchLinger) {
+        this.batchLinger = batchLinger;
+    }
+    
+    /**
+     * What submit() does when the task queue is full (default REJECT).
+     */
+    public RejectionPolicy getRejectionPolicy() {
+        return rejectionPolicy;
+    }
+    
+    public void setRejectionPolicy(RejectionPolicy rejectionPolicy) {
+        this.rejectionPolicy = rejectionPolicy;
+    }
+    
+    /**
+     * How long submit() waits for space with the BLOCK rejection policy.  Null
+     * (default) waits forever.
+     */
+    public TimeDuration getSubmitTimeout() {
+        return submitTimeout;
+    }
+    
+    public void setSubmitTimeout(TimeDuration submitTimeout) {
+        this.submitTimeout = submitTimeout;
+    }
+    
+    public TimeDuration getDrainTimeout() {
+        return drainTimeout;
+    }
+    
+    /**
+     * If set, stop() first drains the queue for up to this long (see drain)
+     * and hands whatever is left to onLeftover.  Null (the default) stops
+     * right away, leaving queued tasks in the queue.
+     */
+    public void setDrainTimeout(TimeDuration drainTimeout) {
+        this.drainTimeout = drainTimeout;
+    }
+    
+    public boolean isDraining() {
+        return draining;
+    }
+    
+    /**
+     * Adds an interceptor of both the workers and the tasks they process.
+     * 
+     * @see WorkerService#addInterceptor(com.fizzed.executors.core.WorkerInterceptor) 
+     */
+    @SuppressWarnings("unchecked")
+    public void addInterceptor(TaskInterceptor<T> interceptor) {
+        super.addInterceptor(interceptor);
+        
+        final TaskInterceptor<T>[] _taskInterceptors = this.taskInterceptors != null
+            ? Arrays.copyOf(this.taskInterceptors, this.taskInterceptors.length + 1)
+            : new TaskInterceptor[1];
+        _taskInterceptors[_taskInterceptors.length - 1] = interceptor;
+        this.taskInterceptors = _taskInterceptors;
+    }
+    
+    abstract protected P newProcessor();
+    
+    /**
+     * Creates a worker that takes tasks from a queue.
+     */
+    protected ProcessorWorker<T> newWorker(int queue) {
+        final BlockingQueue<T> taskQueue = this.taskQueues[queue];
+        final Queue<T> pending = this.pendings[queue];
+        final Processor processor = this.newProcessor();
+        
+        final ProcessorWorker<T> worker;
+        if (processor instanceof BatchProcessor) {
+            worker = new BatchProcessorWorker<>(taskQueue, pending, (BatchProcessor)processor, this.batchSize, this.batchLinger);
+        } else {
+            worker = new ProcessorWorker<>(taskQueue, pending, processor);
+        }
+        
+        worker.setInterceptors(this.taskInterceptors);
+        
+        return worker;
+    }
+    
+    /**
+     * Called with a task the DROP_OLDEST rejection policy discarded.
+     */
+    protected void onDropped(T task) {
+        // do nothing by default
+    }
+    
+    /**
+     * Submits a task to a queue, applying the rejection policy if it is full.
+     */
+    protected SubmitResult submitTo(int queue, T task) {
+        // tasks submitted while stopped simply wait for the next start, but
+        // once drained (or draining) nothing would ever process them
+        if (this.draining) {
+            throw new RejectedExecutionException(this.getName() + ": draining, not accepting tasks");
+        }
+        
+        this.stamp(task);
+        
+        final BlockingQueue<T> taskQueue = this.taskQueues[queue];
+        
+        // push the task onto the tail of the queue
+        if (taskQueue.offer(task)) {
+            this.ensureWorker();
+            return SubmitResult.QUEUED;
+        }
+        
+        return RejectionHelper.rejected(this.getName(), taskQueue, task,
+            this.rejectionPolicy, this.submitTimeout, this::onDropped, this::runOnCaller);
+    }
+    
+    /**
+     * Submits a task to a queue once a delay is up (to a 1ms resolution).
+     * Until then the task is held by a timing wheel, not the task queue, so
+     * any number of delayed tasks is cheap.  Once due, the task is queued
+     * if there is room, otherwise it goes to onDelayedRejected (which logs
+     * and discards it).  The rejection policy does not apply, since blocking
+     * or running the task on the timer thread would hold up every other
+     * delayed task.
+     */
+    protected SubmitResult submitTo(int queue, T task, TimeDuration delay) {
+        if (delay == null || delay.asNanos() <= 0L) {
+            return this.submitTo(queue, task);
+        }
+        
+        this.timer.schedule(task, queue, delay.asNanos(), TimeUnit.NANOSECONDS);
+        return SubmitResult.SCHEDULED;
+    }
+    
+    /**
+     * Stamps a TimestampedTask with when it was queued (other tasks get no
+     * queue wait or total metrics).
+     */
+    protected void stamp(T task) {
+        if (task instanceof TimestampedTask) {
+            ((TimestampedTask)task).setQueuedNanos(System.nanoTime());
+            if (!this.timestamped) {
+                this.timestamped = true;
+            }
+        }
+    }
+    
+    private void runOnCaller(T task) {
+        // rejections happen under load, so don't create a processor per task
+        P processor = this.callerProcessors.poll();
+        if (processor == null) {
+            processor = this.newProcessor();
+        }
+        try {
+            final CallerWorkerContext context = new CallerWorkerContext(this.getName() + "-caller", this.getRateLimiter());
+            context.acquirePermits(1);
+            processor.execute(context, task);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException(this.getName() + ": interrupted running task on caller", e);
+        } catch (ExecuteStopException e) {
+            throw new RejectedExecutionException(this.getName() + ": task stopped running on caller", e);
+        } finally {
+            this.callerProcessors.offer(processor);
+        }
+    }
+    
+    @Override
+    public void start() {
+        this.draining = false;
+        super.start();
+    }
+    
+    @Override
+    public void stop() {
+        if (this.drainTimeout == null || !this.isStarted()) {
+            super.stop();
+            return;
+        }
+        
+        final List<T> leftover = new ArrayList<>();
+        this.drainTo(leftover, this.drainTimeout);
+        
+        if (!leftover.isEmpty()) {
+            this.onLeftover(leftover);
+        }
+    }
+    
+    /**
+     * Called by stop() with the tasks a drain didn't get to (if there is a
+     * drain timeout).  By default logs a warning and discards them.
+     */
+    protected void onLeftover(List<T> tasks) {
+        log.warn("{}: {} task(s) left in queue after drain (will be discarded)", this.getName(), tasks.size());
+    }
+    
+    /**
+     * Stops the service after letting its workers drain the queue.
+     * 
+     * @see #drainTo(java.util.Collection, com.fizzed.crux.util.TimeDuration) 
+     */
+    public List<T> drain(TimeDuration timeout) {
+        final List<T> leftover = new ArrayList<>();
+        this.drainTo(leftover, timeout);
+        return leftover;
+    }
+    
+    /**
+     * Stops accepting submits (they are rejected until the next start), lets
+     * every worker keep processing until the queue is empty or the timeout is
+     * up, then stops the service (running tasks finish as with any stop) and
+     * moves whatever is still queued to the collection, so it can be handed
+     * off elsewhere (queue by queue, any task a worker took but never ran
+     * first, in the order it was queued).  Delayed tasks not yet due stay with
+     * the timer, and are queued for the next start once due.
+     * 
+     * @param leftovers where the tasks still queued go
+     * @param timeout the max time to wait for the queue to empty (null or
+     *      zero to not wait)
+     * @return the number of leftover tasks
+     */
+    public int drainTo(Collection<? super T> leftovers, TimeDuration timeout) {
+        this.draining = true;
+        
+        if (this.isStarted()) {
+            final long deadline = System.nanoTime() + (timeout != null ? timeout.asNanos() : 0L);
+            
+            log.info("{}: draining {} queued task(s)...", this.getName(), this.getQueueSize());
+            
+            while (this.getQueueSize() > 0 && deadline - System.nanoTime() > 0L) {
+                try {
+                    TimeUnit.MILLISECONDS.sleep(DRAIN_POLL_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            
+            super.stop();
+        }
+        
+        int count = 0;
+        for (int i = 0; i < this.taskQueues.length; i++) {
+            // any task a worker took just as it stopped goes first, it was queued first
+            T task;
+            while ((task = this.pendings[i].poll()) != null) {
+                leftovers.add(task);
+                count++;
+            }
+            count += this.taskQueues[i].drainTo(leftovers);
+        }
+        
+        return count;
+    }
+    
+    /**
+     * Called with a delayed task that was rejected once it was due.
+     */
+    protected void onDelayedRejected(T task, RejectedExecutionException e) {
+        log.warn("{}: delayed task rejected (will be discarded): {}", this.getName(), e.getMessage());
+    }
+    
+    private void submitDue(T task, int queue) {
+        // on the timer thread, so never block (or run the task) here, and if
+        // due while draining (or drained) keep it for the next start
+        this.stamp(task);
+        
+        if (!this.taskQueues[queue].offer(task)) {
+            this.onDelayedRejected(task, new RejectedExecutionException(this.getName() + ": task queue full"));
+            return;
+        }
+        
+        if (!this.draining) {
+            this.ensureWorker();
+        }
+    }
+
+}
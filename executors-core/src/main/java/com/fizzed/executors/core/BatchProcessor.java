@@ -0,0 +1,35 @@
+/*
+ * Copyright 2025 Fizzed, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fizzed.executors.core;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A processor that is handed up to ProcessorService.getBatchSize() tasks at a
+ * time (e.g. for bulk writes).  The list is reused by the worker once execute
+ * returns, so do not hold onto it.
+ */
+public interface BatchProcessor<T> extends Processor<T> {
+
+    void execute(WorkerContext context, List<T> tasks) throws ExecuteStopException, InterruptedException;
+
+    @Override
+    default void execute(WorkerContext context, T task) throws ExecuteStopException, InterruptedException {
+        this.execute(context, Collections.singletonList(task));
+    }
+
+}
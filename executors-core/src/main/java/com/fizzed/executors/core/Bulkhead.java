@@ -0,0 +1,99 @@
+/*
+ * Copyright 2019 Fizzed, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fizzed.executors.core;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A named pool of permits that caps how many workers, across any number of
+ * services sharing it (see WorkerService.setBulkhead), are RUNNING at once
+ * (e.g. at most 16 concurrently hitting the reporting database, whatever the
+ * pool sizes of the five services that do).  A worker takes a permit as it
+ * goes RUNNING and gives it back as it goes IDLE (or stops), and waits for one
+ * while still IDLE, so excess workers queue here cheaply rather than pile up
+ * blocked inside e.g. a connection pool.  Permits are handed out in order of
+ * arrival, so a busy service can't starve the others.
+ */
+public class Bulkhead {
+
+    private final String name;
+    private final int permits;
+    private final Semaphore semaphore;
+
+    public Bulkhead(
+            String name,
+            int permits) {
+        
+        if (name == null) {
+            throw new NullPointerException("name was null");
+        }
+        if (permits < 1) {
+            throw new IllegalArgumentException("permits must be >= 1");
+        }
+        
+        this.name = name;
+        this.permits = permits;
+        this.semaphore = new Semaphore(permits, true);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * The total number of permits.
+     */
+    public int getPermits() {
+        return permits;
+    }
+    
+    /**
+     * The number of permits not currently held.
+     */
+    public int getAvailablePermits() {
+        return this.semaphore.availablePermits();
+    }
+    
+    /**
+     * An estimate of the number of workers waiting for a permit.
+     */
+    public int getWaiting() {
+        return this.semaphore.getQueueLength();
+    }
+    
+    /**
+     * Takes a permit if one is free and nobody is already waiting for one (so
+     * it never barges ahead of a waiting worker).
+     */
+    public boolean tryAcquire() throws InterruptedException {
+        return this.semaphore.tryAcquire(0L, TimeUnit.NANOSECONDS);
+    }
+    
+    public void acquire() throws InterruptedException {
+        this.semaphore.acquire();
+    }
+    
+    public void release() {
+        this.semaphore.release();
+    }
+
+    @Override
+    public String toString() {
+        return this.name + " (" + this.getAvailablePermits() + "/" + this.permits + " available)";
+    }
+    
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2019 Fizzed, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fizzed.executors.core;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BinaryOperator;
+
+/**
+ * A task as queued by a CoalescingProcessorService.  Until a worker takes it,
+ * tasks submitted with the same key are merged into it rather than queued.
+ */
+public class CoalescedTask<K,T> implements TimestampedTask {
+
+    static private final Object TAKEN = new Object();
+    
+    private final K key;
+    // the merged task until taken, then TAKEN
+    private final AtomicReference<Object> pending;
+    private volatile T task;
+    private long queuedNanos;
+
+    public CoalescedTask(K key, T task) {
+        this.key = key;
+        this.pending = new AtomicReference<>(task);
+        this.task = task;
+    }
+
+    public K getKey() {
+        return key;
+    }
+
+    /**
+     * The task with everything merged into it so far.
+     */
+    @SuppressWarnings("unchecked")
+    public T getTask() {
+        final Object p = this.pending.get();
+        return p != TAKEN ? (T)p : this.task;
+    }
+
+    public boolean isTaken() {
+        return this.pending.get() == TAKEN;
+    }
+    
+    /**
+     * Merges a task into this one, unless already taken.
+     * 
+     * @return true if merged, false if already taken (so the task needs to be
+     *      queued on its own)
+     */
+    @SuppressWarnings("unchecked")
+    public boolean merge(T task, BinaryOperator<T> merge) {
+        for (;;) {
+            final Object p = this.pending.get();
+            if (p == TAKEN) {
+                return false;
+            }
+            if (this.pending.compareAndSet(p, merge.apply((T)p, task))) {
+                return true;
+            }
+        }
+    }
+    
+    /**
+     * Takes the merged task, after which nothing more can be merged into it.
+     */
+    @SuppressWarnings("unchecked")
+    public T take() {
+        final Object p = this.pending.getAndSet(TAKEN);
+        if (p != TAKEN) {
+            this.task = (T)p;
+        }
+        return this.task;
+    }
+    
+    @Override
+    public long getQueuedNanos() {
+        return queuedNanos;
+    }
+
+    @Override
+    public void setQueuedNanos(long queuedNanos) {
+        this.queuedNanos = queuedNanos;
+    }
+    
+}
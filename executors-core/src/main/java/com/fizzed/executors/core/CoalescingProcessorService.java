@@ -0,0 +1,187 @@
+/*
+ * Copyright 2019 Fizzed, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fizzed.executors.core;
+
+import com.fizzed.crux.util.TimeDuration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BinaryOperator;
+import org.slf4j.Logger;
+
+/**
+ * A processor service where every task is submitted with a key, and a task
+ * submitted while another with the same key is still queued (not yet taken
+ * by a worker) is merged into it instead of queued again, so a burst of e.g.
+ * reindex requests for the same entity costs one run.  By default the latest
+ * task wins, or set a merge function.  Queued tasks are indexed by key in a
+ * concurrent map, so the check is O(1), and merging is a CAS on the queued
+ * task, so submitters never lock.
+ * 
+ * A task that arrives once a worker has taken the queued one is queued anew,
+ * so nothing submitted is ever skipped, but tasks with the same key may be
+ * processed in parallel by different workers (see PartitionedProcessorService
+ * for one at a time).  Tasks are only merged into a task that made it into
+ * the queue (not one still waiting for space, which may yet time out or be
+ * rejected), so while the queue is full tasks with the same key queue on
+ * their own.  A task merged into one that DROP_OLDEST later drops is dropped
+ * with it (onDropped gets the merged task).
+ */
+public abstract class CoalescingProcessorService<K,T,P extends Processor<T>>
+        extends ProcessorService<CoalescedTask<K,T>,Processor<CoalescedTask<K,T>>> {
+
+    private final ConcurrentMap<K,CoalescedTask<K,T>> queued;
+    private final LongAdder coalesced;
+    private BinaryOperator<T> merge;
+    
+    public CoalescingProcessorService(
+            String name) {
+        
+        this(name, TaskQueues.linked());
+    }
+    
+    public CoalescingProcessorService(
+            String name,
+            BlockingQueue<CoalescedTask<K,T>> taskQueue) {
+        
+        super(name, taskQueue);
+        this.queued = new ConcurrentHashMap<>();
+        this.coalesced = new LongAdder();
+        this.merge = (existing, latest) -> latest;
+    }
+
+    public BinaryOperator<T> getMerge() {
+        return merge;
+    }
+
+    /**
+     * Merges a task into the one already queued for the same key (called with
+     * the queued task and the new one, and may be called more than once if
+     * submitters race, so it should have no side effects).  Defaults to the
+     * latest task winning.
+     */
+    public void setMerge(BinaryOperator<T> merge) {
+        if (merge == null) {
+            throw new NullPointerException("merge was null");
+        }
+        this.merge = merge;
+    }
+    
+    /**
+     * Number of tasks merged into a queued task rather than queued.
+     */
+    public long getCoalescedCount() {
+        return this.coalesced.sum();
+    }
+    
+    abstract protected P newCoalescingProcessor();
+
+    @Override
+    protected Processor<CoalescedTask<K,T>> newProcessor() {
+        final P processor = this.newCoalescingProcessor();
+        
+        return new Processor<CoalescedTask<K,T>>() {
+            @Override
+            public Logger getLogger() {
+                return processor.getLogger();
+            }
+
+            @Override
+            public void execute(WorkerContext context, CoalescedTask<K,T> coalesced) throws ExecuteStopException, InterruptedException {
+                processor.execute(context, taken(coalesced));
+            }
+        };
+    }
+    
+    private T taken(CoalescedTask<K,T> coalesced) {
+        // out of the index first, so anything merged in the meantime is still taken below
+        this.queued.remove(coalesced.getKey(), coalesced);
+        return coalesced.take();
+    }
+    
+    /**
+     * Submits a task to be processed by a worker, or merges it into the task
+     * already queued for the same key.
+     * 
+     * @param key the key
+     * @param task the task
+     * @return COALESCED if merged, otherwise whether the task was queued or,
+     *      if the queue was full, what the rejection policy did with it
+     * @throws RejectedExecutionException if the queue was full and the
+     *      rejection policy is REJECT (or the submitting thread was
+     *      interrupted)
+     */
+    public SubmitResult submit(K key, T task) {
+        if (key == null) {
+            throw new NullPointerException("key was null");
+        }
+        
+        for (;;) {
+            final CoalescedTask<K,T> existing = this.queued.get(key);
+            
+            if (existing != null) {
+                if (existing.merge(task, this.merge)) {
+                    this.coalesced.increment();
+                    return SubmitResult.COALESCED;
+                }
+                // taken just now, so help clear it out of the way and try again
+                this.queued.remove(key, existing);
+                continue;
+            }
+            
+            // only indexed once queued, so nothing is merged into a task that
+            // then times out or is rejected (and would be lost with it)
+            final CoalescedTask<K,T> coalesced = new CoalescedTask<>(key, task);
+            final SubmitResult result = this.submit(coalesced);
+            
+            if (result == SubmitResult.QUEUED || result == SubmitResult.QUEUED_DROPPED) {
+                // if another submitter indexed theirs first, ours just isn't merged into
+                // (and if a worker already took ours, the next submit clears it out)
+                this.queued.putIfAbsent(key, coalesced);
+            }
+            
+            return result;
+        }
+    }
+
+    @Override
+    protected void onDropped(CoalescedTask<K,T> task) {
+        this.taken(task);
+    }
+
+    /**
+     * Same as a ProcessorService, but leftover tasks are taken (so nothing
+     * more is merged into them) and a later submit queues anew.
+     */
+    @Override
+    public int drainTo(Collection<? super CoalescedTask<K,T>> leftovers, TimeDuration timeout) {
+        final List<CoalescedTask<K,T>> drained = new ArrayList<>();
+        final int count = super.drainTo(drained, timeout);
+        
+        for (CoalescedTask<K,T> coalesced : drained) {
+            this.taken(coalesced);
+        }
+        
+        leftovers.addAll(drained);
+        return count;
+    }
+    
+}
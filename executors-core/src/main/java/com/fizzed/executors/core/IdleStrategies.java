@@ -0,0 +1,105 @@
+/*
+ * Copyright 2019 Fizzed, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fizzed.executors.core;
+
+import com.fizzed.crux.util.TimeDuration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Idle strategies for polling workers (see WorkerService.setIdleStrategy).
+ */
+public class IdleStrategies {
+    
+    /**
+     * Polls again right away.  Lowest latency, but burns a whole cpu while
+     * there is no work.
+     */
+    static public IdleStrategy busySpin() {
+        return (context, idleIterations) -> context.idle("Idle (spin)");
+    }
+    
+    /**
+     * Spins a number of times, then yields the cpu to other threads between
+     * polls.
+     */
+    static public IdleStrategy spinThenYield(int spins) {
+        return (context, idleIterations) -> {
+            if (idleIterations <= spins) {
+                context.idle("Idle (spin)");
+            } else {
+                context.idle("Idle (yield)");
+                Thread.yield();
+            }
+        };
+    }
+    
+    /**
+     * Sleeps the same delay between every poll (what an execute delay does).
+     */
+    static public IdleStrategy fixed(TimeDuration delay) {
+        return (context, idleIterations) -> context.idle(delay, "Idle (sleep)");
+    }
+    
+    /**
+     * Sleeps between polls, doubling the delay from min to max the longer no
+     * work is found, and back to min as soon as some is.  Polls often right
+     * after work was found (when more is likely) without hammering whatever
+     * is polled once it runs dry.
+     */
+    static public IdleStrategy backoff(TimeDuration min, TimeDuration max) {
+        return backoff(0, 0, min, max);
+    }
+    
+    /**
+     * Spins, then yields, then sleeps with an exponential backoff from min to
+     * max.
+     * 
+     * @param spins how many idle iterations to spin for first
+     * @param yields how many idle iterations to then yield for
+     * @param min the first sleep
+     * @param max the longest sleep
+     */
+    static public IdleStrategy backoff(int spins, int yields, TimeDuration min, TimeDuration max) {
+        if (spins < 0 || yields < 0) {
+            throw new IllegalArgumentException("spins and yields must be >= 0");
+        }
+        if (min == null || max == null || min.asNanos() <= 0L || min.gt(max)) {
+            throw new IllegalArgumentException("min must be > 0 and <= max");
+        }
+        
+        // precomputed, so backing off never allocates
+        final List<TimeDuration> delays = new ArrayList<>();
+        for (long nanos = min.asNanos(); nanos < max.asNanos(); nanos *= 2L) {
+            delays.add(TimeDuration.nanos(nanos));
+        }
+        delays.add(max);
+        final TimeDuration[] sleeps = delays.toArray(new TimeDuration[0]);
+        
+        return (context, idleIterations) -> {
+            if (idleIterations <= spins) {
+                context.idle("Idle (spin)");
+            } else if (idleIterations <= spins + yields) {
+                context.idle("Idle (yield)");
+                Thread.yield();
+            } else {
+                final int step = idleIterations - spins - yields - 1;
+                context.idle(sleeps[Math.min(step, sleeps.length - 1)], "Idle (backoff)");
+            }
+        };
+    }
+    
+}
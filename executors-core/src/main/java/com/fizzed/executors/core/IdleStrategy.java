@@ -0,0 +1,35 @@
+/*
+ * Copyright 2019 Fizzed, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fizzed.executors.core;
+
+/**
+ * How a polling worker idles between iterations that found no work (see
+ * WorkerContext.reportWork).  An iteration that found work is followed
+ * right away by the next one, which also resets the strategy to its fastest.
+ */
+public interface IdleStrategy {
+    
+    /**
+     * Idles after an iteration that found no work.  Must idle through the
+     * context (e.g. context.idle(duration)) so a stop is noticed.
+     * 
+     * @param context the context of the worker
+     * @param idleIterations how many iterations in a row found no work (1 for
+     *      the first)
+     */
+    void idle(WorkerContext context, int idleIterations) throws ExecuteStopException, InterruptedException;
+    
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright 2019 Fizzed, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fizzed.executors.core;
+
+import com.fizzed.executors.impl.ProcessorWorker;
+import com.fizzed.executors.impl.TaskJournal;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+
+/**
+ * A processor service whose tasks survive a restart (or crash): every task is
+ * appended to a TaskJournal before it is queued and acknowledged once the
+ * processor is done with it (returned or threw), so tasks still queued (or
+ * interrupted mid-way) when the process goes away are replayed the next time
+ * the service starts.  That makes processing at-least-once, so processors
+ * should be idempotent.
+ * 
+ * Submit with submitDurable (the only way in, so every queued task is
+ * journaled), which by default returns once the task is on disk.  Syncs are group commits, so many concurrent submitters share each
+ * fsync.  The journal is owned by the caller (close it after stopping).
+ */
+public abstract class JournaledProcessorService<T,P extends Processor<T>>
+        extends AbstractProcessorService<JournaledTask<T>,Processor<JournaledTask<T>>> {
+
+    private final TaskJournal journal;
+    private final TaskSerializer<T> serializer;
+    private final List<TaskJournal.Entry> replays;
+    private boolean syncOnSubmit;
+    
+    public JournaledProcessorService(
+            String name,
+            TaskJournal journal,
+            TaskSerializer<T> serializer) {
+        
+        this(name, TaskQueues.linked(), journal, serializer);
+    }
+    
+    @SuppressWarnings("unchecked")
+    public JournaledProcessorService(
+            String name,
+            BlockingQueue<JournaledTask<T>> taskQueue,
+            TaskJournal journal,
+            TaskSerializer<T> serializer) {
+        
+        super(name, new BlockingQueue[] { taskQueue });
+        
+        if (journal == null) {
+            throw new NullPointerException("journal was null");
+        }
+        if (serializer == null) {
+            throw new NullPointerException("serializer was null");
+        }
+        
+        this.journal = journal;
+        this.serializer = serializer;
+        this.replays = new ArrayList<>(journal.getRecovered());
+        this.syncOnSubmit = true;
+    }
+
+    public TaskJournal getJournal() {
+        return journal;
+    }
+
+    public boolean isSyncOnSubmit() {
+        return syncOnSubmit;
+    }
+
+    /**
+     * Whether submitDurable waits for the task to be on disk (the default).
+     * If not, the task is synced within about the time of an fsync, but may
+     * be lost if the machine (not just the process) goes down before then.
+     */
+    public void setSyncOnSubmit(boolean syncOnSubmit) {
+        this.syncOnSubmit = syncOnSubmit;
+    }
+    
+    abstract protected P newJournaledProcessor();
+
+    @Override
+    protected Processor<JournaledTask<T>> newProcessor() {
+        final P processor = this.newJournaledProcessor();
+        
+        return new Processor<JournaledTask<T>>() {
+            @Override
+            public Logger getLogger() {
+                return processor.getLogger();
+            }
+
+            @Override
+            public void execute(WorkerContext context, JournaledTask<T> journaled) throws ExecuteStopException, InterruptedException {
+                try {
+                    processor.execute(context, journaled.getTask());
+                } catch (ExecuteStopException | InterruptedException e) {
+                    // never finished, so leave it to be replayed
+                    throw e;
+                } catch (Throwable t) {
+                    // finished (badly), and replaying it wouldn't help
+                    journal.acknowledge(journaled.getId());
+                    throw t;
+                }
+                
+                journal.acknowledge(journaled.getId());
+            }
+        };
+    }
+
+    /**
+     * Starts the workers and then queues any tasks recovered from the journal
+     * (on the first start only), waiting for queue space if need be.  Tasks
+     * are deserialized in parallel and queued in the order they were
+     * originally submitted.
+     */
+    @Override
+    public void start() {
+        super.start();
+        
+        if (this.replays.isEmpty()) {
+            return;
+        }
+        
+        final List<JournaledTask<T>> tasks = this.replays.parallelStream()
+            .map(this::deserialize)
+            .collect(Collectors.toList());
+        
+        log.info("{}: replaying {} task(s) from journal", this.getName(), tasks.size());
+        
+        final BlockingQueue<JournaledTask<T>> taskQueue = this.getTaskQueue(0);
+        int replayed = 0;
+        try {
+            for (JournaledTask<T> task : tasks) {
+                if (task != null) {
+                    this.stamp(task);
+                    taskQueue.put(task);
+                }
+                replayed++;
+            }
+        } catch (InterruptedException e) {
+            // the rest are replayed on the next start
+            Thread.currentThread().interrupt();
+        } finally {
+            this.replays.subList(0, replayed).clear();
+        }
+    }
+    
+    private JournaledTask<T> deserialize(TaskJournal.Entry entry) {
+        try {
+            return new JournaledTask<>(entry.getId(), this.serializer.deserialize(entry.getPayload()));
+        } catch (IOException | RuntimeException e) {
+            this.onReplayFailed(entry, e);
+            return null;
+        }
+    }
+    
+    /**
+     * Called with a recovered task that could not be deserialized.  By default
+     * logs an error and acknowledges it, so it is not tried again.
+     */
+    protected void onReplayFailed(TaskJournal.Entry entry, Exception e) {
+        log.error("{}: unable to deserialize journaled task {} (will be discarded)", this.getName(), entry.getId(), e);
+        this.journal.acknowledge(entry.getId());
+    }
+    
+    /**
+     * Appends a task to the journal and then submits it to be processed by a
+     * worker.  A task that ends up not being queued (rejected, or BLOCK timed
+     * out) is acknowledged right away, so it won't be replayed.
+     * 
+     * @param task the task
+     * @return whether the task was queued or, if the queue was full, what the
+     *      rejection policy did with it
+     * @throws UncheckedIOException if the task could not be serialized
+     * @throws RejectedExecutionException if the queue was full and the
+     *      rejection policy is REJECT (or the submitting thread was
+     *      interrupted)
+     */
+    public SubmitResult submitDurable(T task) {
+        final byte[] bytes;
+        try {
+            bytes = this.serializer.serialize(task);
+        } catch (IOException e) {
+            throw new UncheckedIOException(this.getName() + ": unable to serialize task", e);
+        }
+        
+        final long id = this.journal.append(bytes);
+        
+        if (this.syncOnSubmit) {
+            try {
+                this.journal.awaitSynced(id);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                this.journal.acknowledge(id);
+                throw new RejectedExecutionException(this.getName() + ": interrupted waiting for journal sync", e);
+            }
+        }
+        
+        final SubmitResult result;
+        try {
+            result = this.submitTo(0, new JournaledTask<>(id, task));
+        } catch (RejectedExecutionException e) {
+            this.journal.acknowledge(id);
+            throw e;
+        }
+        
+        if (result == SubmitResult.TIMED_OUT) {
+            this.journal.acknowledge(id);
+        }
+        
+        return result;
+    }
+
+    @Override
+    protected ProcessorWorker<JournaledTask<T>> newWorker() {
+        return this.newWorker(0);
+    }
+
+    @Override
+    protected void onDropped(JournaledTask<T> task) {
+        this.journal.acknowledge(task.getId());
+    }
+    
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2019 Fizzed, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fizzed.executors.core;
+
+/**
+ * A task as queued by a JournaledProcessorService, along with the id of its
+ * record in the journal (acknowledged once the task has been processed).
+ */
+public class JournaledTask<T> implements TimestampedTask {
+
+    private final long id;
+    private final T task;
+    private long queuedNanos;
+
+    public JournaledTask(long id, T task) {
+        this.id = id;
+        this.task = task;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public T getTask() {
+        return task;
+    }
+
+    @Override
+    public long getQueuedNanos() {
+        return queuedNanos;
+    }
+
+    @Override
+    public void setQueuedNanos(long queuedNanos) {
+        this.queuedNanos = queuedNanos;
+    }
+    
+}
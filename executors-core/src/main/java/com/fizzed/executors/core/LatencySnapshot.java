@@ -0,0 +1,115 @@
+/*
+ * Copyright 2025 Fizzed, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fizzed.executors.core;
+
+import com.fizzed.crux.util.TimeDuration;
+import static com.fizzed.executors.impl.LatencyRecorder.bucketHighestValue;
+
+/**
+ * Immutable copy of a latency histogram (values in nanoseconds).  Snapshots of
+ * the same kind of histogram can be merged (e.g. across all the workers of a
+ * service).
+ */
+public class LatencySnapshot {
+    
+    static public final LatencySnapshot EMPTY = new LatencySnapshot(new long[0], 0L, 0L, 0L, 0L);
+    
+    private final long[] buckets;
+    private final long count;
+    private final long sum;
+    private final long min;
+    private final long max;
+
+    public LatencySnapshot(long[] buckets, long count, long sum, long min, long max) {
+        this.buckets = buckets;
+        this.count = count;
+        this.sum = sum;
+        this.min = min;
+        this.max = max;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getMin() {
+        return min;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return this.count > 0 ? (double)this.sum / this.count : 0.0d;
+    }
+    
+    /**
+     * The value (nanos) at or below which the percentage of values fall.
+     * 
+     * @param percentile from 0.0 to 100.0 (e.g. 99.9)
+     */
+    public long getPercentile(double percentile) {
+        long total = 0L;
+        for (long c : this.buckets) {
+            total += c;
+        }
+        if (total == 0L) {
+            return 0L;
+        }
+        
+        final double p = Math.min(100.0d, Math.max(0.0d, percentile));
+        final long target = Math.max(1L, (long)Math.ceil(p / 100.0d * total));
+        
+        long seen = 0L;
+        for (int i = 0; i < this.buckets.length; i++) {
+            seen += this.buckets[i];
+            if (seen >= target) {
+                return Math.min(bucketHighestValue(i), this.max);
+            }
+        }
+        return this.max;
+    }
+    
+    public LatencySnapshot merge(LatencySnapshot other) {
+        if (other.count == 0L) {
+            return this;
+        }
+        if (this.count == 0L) {
+            return other;
+        }
+        
+        final long[] merged = new long[Math.max(this.buckets.length, other.buckets.length)];
+        for (int i = 0; i < merged.length; i++) {
+            merged[i] = (i < this.buckets.length ? this.buckets[i] : 0L)
+                + (i < other.buckets.length ? other.buckets[i] : 0L);
+        }
+        
+        return new LatencySnapshot(merged, this.count + other.count, this.sum + other.sum,
+            Math.min(this.min, other.min), Math.max(this.max, other.max));
+    }
+
+    @Override
+    public String toString() {
+        return "count=" + this.count
+            + ", mean=" + TimeDuration.nanos((long)this.getMean())
+            + ", p50=" + TimeDuration.nanos(this.getPercentile(50.0d))
+            + ", p99=" + TimeDuration.nanos(this.getPercentile(99.0d))
+            + ", p999=" + TimeDuration.nanos(this.getPercentile(99.9d))
+            + ", max=" + TimeDuration.nanos(this.max);
+    }
+    
+}
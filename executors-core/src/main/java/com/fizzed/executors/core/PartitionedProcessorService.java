@@ -0,0 +1,203 @@
+/*
+ * Copyright 2019 Fizzed, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fizzed.executors.core;
+
+import com.fizzed.crux.util.TimeDuration;
+import com.fizzed.executors.impl.ProcessorWorker;
+import java.time.Instant;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * A processor service where every task is submitted with a key.  Keys are
+ * hashed onto a fixed number of partitions, each with its own queue and
+ * exactly one worker, so tasks with the same key are processed one at a time
+ * in the order they were submitted, while tasks with different keys are
+ * processed in parallel (up to the number of partitions).  Producers and
+ * workers are also spread over many queues rather than all contending on one.
+ * 
+ * The pool size is always the number of partitions (it is never elastic). A
+ * slow key holds up the other keys that share its partition.  A batch only
+ * ever holds tasks from one partition, and a drain's leftovers are in
+ * partition order (so still in order per key).
+ */
+public abstract class PartitionedProcessorService<K,T,P extends Processor<T>> extends AbstractProcessorService<T,P> {
+
+    private int nextPartition;
+    
+    public PartitionedProcessorService(
+            String name,
+            int partitions) {
+        
+        this(name, partitions, TaskQueues::linked);
+    }
+    
+    /**
+     * @param name the name of the service
+     * @param partitions the number of partitions (and workers)
+     * @param queueCapacity the max number of queued tasks per partition, after
+     *      which the rejection policy kicks in
+     */
+    public PartitionedProcessorService(
+            String name,
+            int partitions,
+            int queueCapacity) {
+        
+        this(name, partitions, () -> TaskQueues.bounded(queueCapacity));
+    }
+    
+    /**
+     * @param name the name of the service
+     * @param partitions the number of partitions (and workers)
+     * @param taskQueueFactory creates the queue of each partition (see
+     *      TaskQueues for the common choices)
+     */
+    public PartitionedProcessorService(
+            String name,
+            int partitions,
+            Supplier<BlockingQueue<T>> taskQueueFactory) {
+        
+        super(name, newTaskQueues(partitions, taskQueueFactory));
+        
+        this.nextPartition = 0;
+        
+        super.setMinPoolSize(partitions);
+    }
+    
+    @SuppressWarnings("unchecked")
+    static private <T> BlockingQueue<T>[] newTaskQueues(int partitions, Supplier<BlockingQueue<T>> taskQueueFactory) {
+        if (partitions < 1) {
+            throw new IllegalArgumentException("partitions must be >= 1");
+        }
+        if (taskQueueFactory == null) {
+            throw new NullPointerException("taskQueueFactory was null");
+        }
+        
+        final BlockingQueue<T>[] taskQueues = new BlockingQueue[partitions];
+        for (int i = 0; i < partitions; i++) {
+            taskQueues[i] = taskQueueFactory.get();
+            if (taskQueues[i] == null) {
+                throw new NullPointerException("taskQueueFactory returned null");
+            }
+        }
+        return taskQueues;
+    }
+    
+    public int getPartitions() {
+        return this.getTaskQueueCount();
+    }
+
+    @Override
+    public void setMinPoolSize(int minPoolSize) {
+        if (minPoolSize != this.getPartitions()) {
+            throw new UnsupportedOperationException("Pool size is fixed to the number of partitions");
+        }
+    }
+
+    @Override
+    public void setMaxPoolSize(int maxPoolSize) {
+        if (maxPoolSize > this.getPartitions()) {
+            throw new UnsupportedOperationException("Pool size is fixed to the number of partitions");
+        }
+    }
+    
+    /**
+     * The partition tasks with the key are processed on.
+     */
+    public int partitionFor(K key) {
+        if (key == null) {
+            throw new NullPointerException("key was null");
+        }
+        
+        // spread the high bits down, since many hash codes differ only there
+        final int h = key.hashCode();
+        return Math.floorMod(h ^ (h >>> 16), this.getPartitions());
+    }
+    
+    /**
+     * Number of tasks currently waiting in a partition (e.g. to spot a hot key).
+     */
+    @Override
+    public int getQueueSize(int partition) {
+        return super.getQueueSize(partition);
+    }
+
+    /**
+     * What submit() does when the partition's task queue is full (default
+     * REJECT).  CALLER_RUNS is not supported since the task would run ahead
+     * of the tasks already queued for its key.
+     */
+    @Override
+    public void setRejectionPolicy(RejectionPolicy rejectionPolicy) {
+        if (rejectionPolicy == RejectionPolicy.CALLER_RUNS) {
+            throw new IllegalArgumentException("Rejection policy " + rejectionPolicy + " would break per-key ordering");
+        }
+        super.setRejectionPolicy(rejectionPolicy);
+    }
+
+    @Override
+    protected ProcessorWorker<T> newWorker() {
+        // every start creates exactly one worker per partition, in order
+        final int partition = this.nextPartition++ % this.getPartitions();
+        
+        return this.newWorker(partition);
+    }
+    
+    /**
+     * Submits a task to be processed after any task previously submitted with
+     * the same key.
+     * 
+     * @param key the key (its hashCode picks the partition)
+     * @param task the task
+     * @return whether the task was queued or, if the partition's queue was
+     *      full, what the rejection policy did with it
+     * @throws RejectedExecutionException if the queue was full and the
+     *      rejection policy is REJECT (or the submitting thread was interrupted
+     *      while waiting)
+     */
+    public SubmitResult submit(K key, T task) {
+        return this.submitTo(this.partitionFor(key), task);
+    }
+    
+    /**
+     * Submits a task once a delay is up (to a 1ms resolution), after which it
+     * is processed after any task submitted with the same key before it was
+     * due.
+     * 
+     * @param key the key (its hashCode picks the partition)
+     * @param task the task
+     * @param delay how long until the task is submitted (null or zero to
+     *      submit it right now)
+     * @return SCHEDULED, or the result of submitting right now
+     * @see ProcessorService#submit(java.lang.Object, com.fizzed.crux.util.TimeDuration) 
+     */
+    public SubmitResult submit(K key, T task, TimeDuration delay) {
+        return this.submitTo(this.partitionFor(key), task, delay);
+    }
+    
+    /**
+     * Submits a task at a point in time (or right now if already past).
+     * 
+     * @see #submit(java.lang.Object, java.lang.Object, com.fizzed.crux.util.TimeDuration) 
+     */
+    public SubmitResult submitAt(K key, T task, Instant instant) {
+        final long delayMillis = instant.toEpochMilli() - System.currentTimeMillis();
+        
+        return this.submit(key, task, delayMillis > 0L ? TimeDuration.millis(delayMillis) : null);
+    }
+    
+}
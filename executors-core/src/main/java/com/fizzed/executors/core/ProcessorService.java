@@ -15,38 +15,97 @@
  */
 package com.fizzed.executors.core;
 
+import com.fizzed.crux.util.TimeDuration;
 import com.fizzed.executors.impl.ProcessorWorker;
+import java.time.Instant;
 import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 
-public abstract class ProcessorService<T,P extends Processor<T>> extends WorkerService<ProcessorWorker<T>> {
+public abstract class ProcessorService<T,P extends Processor<T>> extends AbstractProcessorService<T,P> {
 
-    private final BlockingQueue<T> taskQueue;
-    
     public ProcessorService(
             String name) {
         
-        super(name);
+        this(name, TaskQueues.linked());
+    }
+    
+    /**
+     * @param name the name of the service
+     * @param queueCapacity the max number of queued tasks, after which the
+     *      rejection policy kicks in
+     */
+    public ProcessorService(
+            String name,
+            int queueCapacity) {
+        
+        this(name, TaskQueues.bounded(queueCapacity));
+    }
+    
+    /**
+     * @param name the name of the service
+     * @param taskQueue the queue tasks are submitted to and workers take from
+     *      (see TaskQueues for the common choices)
+     */
+    @SuppressWarnings("unchecked")
+    public ProcessorService(
+            String name,
+            BlockingQueue<T> taskQueue) {
         
-        this.taskQueue = new LinkedBlockingQueue<>();
+        super(name, new BlockingQueue[] { taskQueue });
     }
 
-    abstract protected P newProcessor();
+    protected BlockingQueue<T> getTaskQueue() {
+        return this.getTaskQueue(0);
+    }
+    
+    public int getQueueRemainingCapacity() {
+        return this.getTaskQueue(0).remainingCapacity();
+    }
 
     @Override
     protected ProcessorWorker<T> newWorker() {
-        final Processor processor = this.newProcessor();
-        
-        return new ProcessorWorker<>(this.taskQueue, processor);
+        return this.newWorker(0);
     }
     
+    /**
+     * Submits a task to be processed by a worker.
+     * 
+     * @param task the task
+     * @return whether the task was queued or, if the queue was full, what the
+     *      rejection policy did with it
+     * @throws RejectedExecutionException if the queue was full and the
+     *      rejection policy is REJECT (or the submitting thread was interrupted
+     *      while waiting or running the task itself)
+     */
+    public SubmitResult submit(T task) {
+        return this.submitTo(0, task);
+    }
     
+    /**
+     * Submits a task once a delay is up (to a 1ms resolution).  Until then the
+     * task is held by a timing wheel, not the task queue, so any number of
+     * delayed tasks is cheap.  Once due, the task is queued if there is room,
+     * otherwise it goes to onDelayedRejected (which logs and discards it), as
+     * the rejection policy is never applied on the timer thread.
+     * 
+     * @param task the task
+     * @param delay how long until the task is submitted (null or zero to
+     *      submit it right now)
+     * @return SCHEDULED, or the result of submitting right now
+     */
+    public SubmitResult submit(T task, TimeDuration delay) {
+        return this.submitTo(0, task, delay);
+    }
     
-    public void submit(T task) {
-        // TODO: should we reject any new tasks AFTER being stopped?
+    /**
+     * Submits a task at a point in time (or right now if already past).
+     * 
+     * @see #submit(java.lang.Object, com.fizzed.crux.util.TimeDuration) 
+     */
+    public SubmitResult submitAt(T task, Instant instant) {
+        final long delayMillis = instant.toEpochMilli() - System.currentTimeMillis();
         
-        // push the task onto the tail of the queue
-        this.taskQueue.offer(task);
+        return this.submit(task, delayMillis > 0L ? TimeDuration.millis(delayMillis) : null);
     }
     
-}
\ No newline at end of file
+}
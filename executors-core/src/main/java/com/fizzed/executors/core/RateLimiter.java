@@ -0,0 +1,34 @@
+/*
+ * Copyright 2019 Fizzed, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fizzed.executors.core;
+
+/**
+ * Caps how fast the workers of a service run (see
+ * WorkerService.setRateLimiter), e.g. RateLimiters.tokenBucket.  Shared by
+ * every worker, so it must be thread safe (and should be lock-free).
+ */
+public interface RateLimiter {
+    
+    /**
+     * Takes permits if available right now.
+     * 
+     * @param permits the number of permits
+     * @return 0 if the permits were taken, otherwise how long (nanos) until
+     *      they might be available (nothing was taken)
+     */
+    long tryAcquire(int permits);
+    
+}
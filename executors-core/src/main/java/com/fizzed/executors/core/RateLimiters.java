@@ -0,0 +1,37 @@
+/*
+ * Copyright 2019 Fizzed, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fizzed.executors.core;
+
+import com.fizzed.executors.impl.TokenBucketRateLimiter;
+
+/**
+ * Rate limiters for workers (see WorkerService.setRateLimiter).
+ */
+public class RateLimiters {
+    
+    /**
+     * A token bucket that refills at a steady rate and holds up to a burst of
+     * permits (starting full), so short bursts go through at full speed while
+     * the long run average stays under the rate.
+     * 
+     * @param permitsPerSecond the steady rate (e.g. tasks per second)
+     * @param burst how many permits may be taken at once after a quiet spell
+     */
+    static public RateLimiter tokenBucket(double permitsPerSecond, int burst) {
+        return new TokenBucketRateLimiter(permitsPerSecond, burst);
+    }
+    
+}
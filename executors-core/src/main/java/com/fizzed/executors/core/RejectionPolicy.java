@@ -0,0 +1,29 @@
+/*
+ * Copyright 2025 Fizzed, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fizzed.executors.core;
+
+/**
+ * What ProcessorService.submit() does when its (bounded) task queue is full.
+ */
+public enum RejectionPolicy {
+ 
+    BLOCK,              // wait up to the submit timeout for space, then TIMED_OUT
+    REJECT,             // throw a RejectedExecutionException
+    CALLER_RUNS,        // run the task on the submitting thread
+    DROP_OLDEST         // discard the oldest queued task to make room (for a priority or
+                        // deadline queue, the task it would hand out last)
+    
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2019 Fizzed, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fizzed.executors.core;
+
+import com.fizzed.crux.util.TimeDuration;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import org.slf4j.Logger;
+
+/**
+ * A processor service for tasks that produce a result, which callers get as a
+ * future (and can wait on or compose).  Exceptions thrown by the processor
+ * complete the future exceptionally rather than counting as an unhandled
+ * throwable for the worker.
+ */
+public abstract class ResultProcessorService<T,R,P extends ResultProcessor<T,R>>
+        extends ProcessorService<TaskFuture<T,R>,Processor<TaskFuture<T,R>>> {
+
+    public ResultProcessorService(
+            String name) {
+        
+        super(name);
+    }
+    
+    public ResultProcessorService(
+            String name,
+            int queueCapacity) {
+        
+        super(name, queueCapacity);
+    }
+    
+    public ResultProcessorService(
+            String name,
+            BlockingQueue<TaskFuture<T,R>> taskQueue) {
+        
+        super(name, taskQueue);
+    }
+    
+    abstract protected P newResultProcessor();
+
+    @Override
+    protected Processor<TaskFuture<T,R>> newProcessor() {
+        final P resultProcessor = this.newResultProcessor();
+        
+        return new Processor<TaskFuture<T,R>>() {
+            @Override
+            public Logger getLogger() {
+                return resultProcessor.getLogger();
+            }
+
+            @Override
+            public void execute(WorkerContext context, TaskFuture<T,R> future) throws ExecuteStopException, InterruptedException {
+                // cancelled (or otherwise completed) while queued
+                if (future.isDone()) {
+                    return;
+                }
+                
+                final R result;
+                try {
+                    result = resultProcessor.execute(context, future.getTask());
+                } catch (ExecuteStopException | InterruptedException e) {
+                    future.completeExceptionally(e);
+                    throw e;
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                    return;
+                }
+                
+                future.complete(result);
+            }
+        };
+    }
+    
+    /**
+     * Submits a task to be processed by a worker.  If the queue is full, the
+     * rejection policy applies and a task that ends up not being queued (e.g.
+     * BLOCK timed out, or DROP_OLDEST later drops it) has its future completed
+     * with a RejectedExecutionException.
+     * 
+     * @param task the task
+     * @return the future result of the task
+     * @throws RejectedExecutionException if the queue was full and the
+     *      rejection policy is REJECT
+     */
+    public CompletableFuture<R> submitAsync(T task) {
+        final TaskFuture<T,R> future = new TaskFuture<>(task);
+        
+        final SubmitResult result = this.submit(future);
+        
+        if (result == SubmitResult.TIMED_OUT) {
+            future.completeExceptionally(new RejectedExecutionException(
+                this.getName() + ": timed out waiting for queue space"));
+        }
+        
+        return future;
+    }
+
+    /**
+     * Submits a task to be processed after a delay.
+     * 
+     * @see ProcessorService#submit(java.lang.Object, com.fizzed.crux.util.TimeDuration) 
+     */
+    public CompletableFuture<R> submitAsync(T task, TimeDuration delay) {
+        final TaskFuture<T,R> future = new TaskFuture<>(task);
+        
+        final SubmitResult result = this.submit(future, delay);
+        
+        if (result == SubmitResult.TIMED_OUT) {
+            future.completeExceptionally(new RejectedExecutionException(
+                this.getName() + ": timed out waiting for queue space"));
+        }
+        
+        return future;
+    }
+
+    @Override
+    protected void onDropped(TaskFuture<T,R> future) {
+        future.completeExceptionally(new RejectedExecutionException(
+            this.getName() + ": task dropped to make room in queue"));
+    }
+    
+    /**
+     * Completes the futures of the tasks a drain on stop() didn't get to with
+     * a RejectedExecutionException, so no caller waits on them forever.
+     */
+    @Override
+    protected void onLeftover(List<TaskFuture<T,R>> futures) {
+        super.onLeftover(futures);
+        
+        final RejectedExecutionException e = new RejectedExecutionException(
+            this.getName() + ": stopped before task was processed");
+        for (TaskFuture<T,R> future : futures) {
+            future.completeExceptionally(e);
+        }
+    }
+    
+    @Override
+    protected void onDelayedRejected(TaskFuture<T,R> future, RejectedExecutionException e) {
+        future.completeExceptionally(e);
+    }
+    
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright 2019 Fizzed, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fizzed.executors.core;
+
+/**
+ * When a worker runs next.  Times are epoch millis (wall clock) so that
+ * schedules can line up across workers (e.g. every minute at :00).
+ */
+public interface Schedule {
+    
+    /**
+     * @param lastDueMillis when the last run was due, or -1 before the first run
+     * @param nowMillis the current time (the last run, if any, just finished)
+     * @return when the next run is due (now or earlier runs right away)
+     */
+    long nextDue(long lastDueMillis, long nowMillis);
+    
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2019 Fizzed, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fizzed.executors.core;
+
+import com.fizzed.crux.util.TimeDuration;
+import com.fizzed.executors.impl.CronSchedule;
+import java.time.ZoneId;
+
+/**
+ * Schedules for a WorkerService (see WorkerService.setSchedule).
+ */
+public class Schedules {
+    
+    /**
+     * Runs again a delay after the last run finished (the same as an execute
+     * delay), so the period drifts by however long each run takes.
+     */
+    static public Schedule fixedDelay(TimeDuration delay) {
+        final long delayMillis = delay.asMillis();
+        
+        return (lastDueMillis, nowMillis) -> lastDueMillis < 0L ? nowMillis : nowMillis + delayMillis;
+    }
+    
+    /**
+     * Runs every period measured from the first run, no matter how long each
+     * run takes, so it does not drift.
+     * 
+     * @param period the period
+     * @param missedRuns what to do if a run takes longer than the period
+     */
+    static public Schedule fixedRate(TimeDuration period, MissedRuns missedRuns) {
+        final long periodMillis = period.asMillis();
+        
+        if (periodMillis <= 0L) {
+            throw new IllegalArgumentException("period must be >= 1ms");
+        }
+        if (missedRuns == null) {
+            throw new NullPointerException("missedRuns was null");
+        }
+        
+        return (lastDueMillis, nowMillis) -> {
+            if (lastDueMillis < 0L) {
+                return nowMillis;
+            }
+            
+            final long nextDue = lastDueMillis + periodMillis;
+            if (nextDue > nowMillis) {
+                return nextDue;
+            }
+            
+            // behind, but stay in phase with the original runs
+            final long lastMissed = lastDueMillis + ((nowMillis - lastDueMillis) / periodMillis) * periodMillis;
+            
+            return missedRuns == MissedRuns.COALESCE ? lastMissed : lastMissed + periodMillis;
+        };
+    }
+    
+    /**
+     * Runs whenever the cron expression matches, in the system time zone.
+     * 
+     * @see #cron(java.lang.String, java.time.ZoneId, com.fizzed.executors.core.MissedRuns) 
+     */
+    static public Schedule cron(String expression) {
+        return cron(expression, ZoneId.systemDefault(), MissedRuns.SKIP);
+    }
+    
+    /**
+     * Runs whenever the cron expression matches.  Expressions have 5 fields
+     * (minute hour day-of-month month day-of-week) or 6 with seconds first,
+     * each of which may be *, a value, a range (1-5), a list (1,3,5) or have
+     * a step (*&#47;15, 0-30/10).  Months and days of the week may also be
+     * names (JAN, MON).  Day of the week is 0-7, where 0 and 7 are Sunday.
+     * 
+     * @param expression the cron expression (e.g. "0 * * * *" at the top of every hour)
+     * @param zone the time zone the expression is in
+     * @param missedRuns what to do if a run is still going when the next is due
+     */
+    static public Schedule cron(String expression, ZoneId zone, MissedRuns missedRuns) {
+        return new CronSchedule(expression, zone, missedRuns);
+    }
+    
+}
@@ -17,6 +17,10 @@ package com.fizzed.executors.core;
 
 public interface Service {
  
+    default String getName() {
+        return this.getClass().getSimpleName();
+    }
+    
     ServiceState getState();
     
     default boolean isStarted() {
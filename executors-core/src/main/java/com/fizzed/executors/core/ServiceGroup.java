@@ -0,0 +1,310 @@
+/*
+ * Copyright 2019 Fizzed, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fizzed.executors.core;
+
+import com.fizzed.crux.util.StopWatch;
+import com.fizzed.crux.util.TimeDuration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Starts and stops a group of services in parallel, while respecting the
+ * dependencies between them: a service starts once everything it depends on
+ * has started, and stops once everything that depends on it has stopped.
+ * Stopping has a single deadline for the whole group (rather than each
+ * service waiting out its own timeout in turn), so stopping many services
+ * takes about as long as the slowest one.
+ * 
+ * Members already started (or stopped) on their own are skipped, so a group
+ * can take over the lifecycle of services that also manage their own.
+ */
+public class ServiceGroup implements Service {
+    static private final Logger log = LoggerFactory.getLogger(ServiceGroup.class);
+    
+    private final String name;
+    // each member and the members it depends on, in the order added
+    private final Map<Service,List<Service>> dependencies;
+    private final AtomicReference<ServiceState> stateRef;
+    private final Map<Service,TimeDuration> startTimes;
+    private final Map<Service,TimeDuration> stopTimes;
+    // runs the starts and stops (and an asynchronous shutdown), reused across
+    // them and never shutdown itself, since idle threads time out anyway
+    private final ExecutorService executor;
+    private TimeDuration shutdownTimeout;
+    
+    public ServiceGroup(
+            String name) {
+        
+        this.name = name;
+        this.dependencies = new LinkedHashMap<>();
+        this.stateRef = new AtomicReference<>(ServiceState.STOPPED);
+        this.startTimes = new ConcurrentHashMap<>();
+        this.stopTimes = new ConcurrentHashMap<>();
+        final AtomicInteger threadIds = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 10L, TimeUnit.SECONDS, new SynchronousQueue<>(), runnable -> {
+            final Thread thread = new Thread(runnable, this.name + "-" + threadIds.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.shutdownTimeout = new TimeDuration(60, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public ServiceState getState() {
+        return this.stateRef.get();
+    }
+
+    public TimeDuration getShutdownTimeout() {
+        return shutdownTimeout;
+    }
+
+    /**
+     * The deadline for stopping every member of the group.  Members still
+     * stopping when it's up are left to finish in the background.
+     */
+    public void setShutdownTimeout(TimeDuration shutdownTimeout) {
+        this.shutdownTimeout = shutdownTimeout;
+    }
+    
+    /**
+     * Adds a member to the group.
+     * 
+     * @param service the service
+     * @param dependsOn the members that must be started before (and stopped
+     *      after) this one, which must already have been added
+     * @return this group
+     */
+    public synchronized ServiceGroup add(Service service, Service... dependsOn) {
+        if (service == null) {
+            throw new NullPointerException("service was null");
+        }
+        if (this.stateRef.get() != ServiceState.STOPPED) {
+            throw new IllegalStateException(this.name + ": members can only be added while stopped");
+        }
+        if (this.dependencies.containsKey(service)) {
+            throw new IllegalArgumentException(this.name + ": " + service.getName() + " already added");
+        }
+        
+        final List<Service> dependsOnList = new ArrayList<>();
+        for (Service dependency : dependsOn) {
+            // only depending on what came before keeps the graph acyclic
+            if (!this.dependencies.containsKey(dependency)) {
+                throw new IllegalArgumentException(this.name + ": " + service.getName()
+                    + " depends on " + (dependency != null ? dependency.getName() : null) + " which must be added first");
+            }
+            dependsOnList.add(dependency);
+        }
+        
+        this.dependencies.put(service, dependsOnList);
+        return this;
+    }
+    
+    public synchronized List<Service> getServices() {
+        return new ArrayList<>(this.dependencies.keySet());
+    }
+    
+    /**
+     * How long each member took to start the last time the group started.
+     */
+    public Map<Service,TimeDuration> getStartTimes() {
+        return this.ordered(this.startTimes);
+    }
+    
+    /**
+     * How long each member took to stop the last time the group stopped (a
+     * member missing the deadline is missing here too).
+     */
+    public Map<Service,TimeDuration> getStopTimes() {
+        return this.ordered(this.stopTimes);
+    }
+    
+    private synchronized Map<Service,TimeDuration> ordered(Map<Service,TimeDuration> times) {
+        final Map<Service,TimeDuration> ordered = new LinkedHashMap<>();
+        for (Service service : this.dependencies.keySet()) {
+            final TimeDuration time = times.get(service);
+            if (time != null) {
+                ordered.put(service, time);
+            }
+        }
+        return Collections.unmodifiableMap(ordered);
+    }
+    
+    @Override
+    public synchronized void start() {
+        if (!this.stateRef.compareAndSet(ServiceState.STOPPED, ServiceState.STARTING)) {
+            throw new IllegalStateException(this.name + ": service group not currently stopped");
+        }
+        
+        final StopWatch timer = StopWatch.timeMillis();
+        log.info("{}: service group starting {} service(s)...", this.name, this.dependencies.size());
+        
+        this.startTimes.clear();
+        try {
+            final Map<Service,CompletableFuture<Void>> started = new LinkedHashMap<>();
+            
+            // dependencies always come first, so their futures already exist
+            this.dependencies.forEach((service, dependsOn) -> {
+                started.put(service, allOf(dependsOn, started)
+                    .thenRunAsync(() -> this.startService(service), this.executor));
+            });
+            
+            allOf(this.dependencies.keySet(), started).get();
+        } catch (InterruptedException | ExecutionException e) {
+            final Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+            log.error("{}: service group failed to start (will stop what did start)", this.name, cause);
+            
+            this.stateRef.set(ServiceState.STOPPING);
+            this.stopServices();
+            
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            throw new IllegalStateException(this.name + ": service group failed to start", cause);
+        }
+        
+        log.info("{}: service group started (in {})", this.name, timer);
+        this.stateRef.set(ServiceState.STARTED);
+    }
+    
+    private void startService(Service service) {
+        if (service.isStarted()) {
+            return;
+        }
+        
+        final StopWatch timer = StopWatch.timeNanos();
+        service.start();
+        this.startTimes.put(service, TimeDuration.nanos(timer.elapsedNanos()));
+        
+        log.info("{}: started {} (in {})", this.name, service.getName(), timer.toString(TimeUnit.MILLISECONDS));
+    }
+    
+    @Override
+    public synchronized void stop() {
+        if (!this.requestStop()) {
+            return;
+        }
+        
+        this.stopServices();
+    }
+
+    @Override
+    public void shutdown() {
+        this.executor.execute(this::stop);
+    }
+    
+    private boolean requestStop() {
+        // ignore if already stopped or stopping...
+        final ServiceState currentState = this.stateRef.get();
+        if (currentState == ServiceState.STOPPING || currentState == ServiceState.STOPPED) {
+            return false;
+        }
+        
+        if (!this.stateRef.compareAndSet(ServiceState.STARTED, ServiceState.STOPPING)) {
+            throw new IllegalStateException(this.name + ": service group not currently started");
+        }
+        
+        return true;
+    }
+    
+    private void stopServices() {
+        final StopWatch timer = StopWatch.timeMillis();
+        log.info("{}: service group stopping {} service(s)...", this.name, this.dependencies.size());
+        
+        this.stopTimes.clear();
+        
+        // who depends on each member (the reverse of dependencies)
+        final Map<Service,List<Service>> dependents = new LinkedHashMap<>();
+        this.dependencies.keySet().forEach(service -> dependents.put(service, new ArrayList<>()));
+        this.dependencies.forEach((service, dependsOn) -> {
+            dependsOn.forEach(dependency -> dependents.get(dependency).add(service));
+        });
+        
+        // dependents always come later, so in reverse their futures already exist
+        final List<Service> services = new ArrayList<>(this.dependencies.keySet());
+        Collections.reverse(services);
+        final Map<Service,CompletableFuture<Void>> stopped = new LinkedHashMap<>();
+        for (Service service : services) {
+            // a member failing to stop doesn't hold up the rest
+            stopped.put(service, allOf(dependents.get(service), stopped)
+                .handle((v, t) -> null)
+                .thenRunAsync(() -> this.stopService(service), this.executor));
+        }
+        
+        try {
+            allOf(services, stopped).get(this.shutdownTimeout.getDuration(), this.shutdownTimeout.getUnit());
+        } catch (TimeoutException e) {
+            final List<String> stopping = new ArrayList<>();
+            stopped.forEach((service, future) -> {
+                if (!future.isDone()) {
+                    stopping.add(service.getName());
+                }
+            });
+            log.warn("{}: service group did not stop within {} (still stopping {})", this.name, this.shutdownTimeout, stopping);
+        } catch (InterruptedException e) {
+            log.warn("{}: service group interrupted while stopping", this.name);
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // never happens, since every stop handles its own failure
+        }
+        
+        log.info("{}: service group stopped (in {})", this.name, timer);
+        this.stateRef.set(ServiceState.STOPPED);
+    }
+    
+    private void stopService(Service service) {
+        if (service.isStopped()) {
+            return;
+        }
+        
+        final StopWatch timer = StopWatch.timeNanos();
+        try {
+            service.stop();
+        } catch (Throwable t) {
+            log.error("{}: failed stopping {}", this.name, service.getName(), t);
+            return;
+        }
+        this.stopTimes.put(service, TimeDuration.nanos(timer.elapsedNanos()));
+        
+        log.info("{}: stopped {} (in {})", this.name, service.getName(), timer.toString(TimeUnit.MILLISECONDS));
+    }
+    
+    static private CompletableFuture<Void> allOf(Iterable<Service> services, Map<Service,CompletableFuture<Void>> futures) {
+        final List<CompletableFuture<Void>> list = new ArrayList<>();
+        services.forEach(service -> list.add(futures.get(service)));
+        return CompletableFuture.allOf(list.toArray(new CompletableFuture[0]));
+    }
+    
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright 2025 Fizzed, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fizzed.executors.core;
+
+public enum SubmitResult {
+ 
+    QUEUED,             // task queued
+    QUEUED_DROPPED,     // task queued, but the oldest queued task was dropped
+    CALLER_RAN,         // queue was full, task already ran on the caller's thread
+    TIMED_OUT,          // queue stayed full, task was not queued
+    SCHEDULED,          // task will be submitted once its delay is up
+    COALESCED;          // task merged into one already queued for the same key (and shares its fate)
+    
+    public boolean isQueued() {
+        return this == QUEUED || this == QUEUED_DROPPED || this == COALESCED;
+    }
+    
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2019 Fizzed, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fizzed.executors.core;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The future of a task submitted to a ResultProcessorService.  It is also what
+ * sits in the task queue, so a submit allocates nothing else.  Cancelling it
+ * while still queued is O(1): the task stays in the queue but is skipped
+ * (never executed) once a worker takes it.
+ */
+public class TaskFuture<T,R> extends CompletableFuture<R> implements TimestampedTask {
+
+    private final T task;
+    private long queuedNanos;
+
+    public TaskFuture(T task) {
+        this.task = task;
+    }
+
+    public T getTask() {
+        return task;
+    }
+
+    @Override
+    public long getQueuedNanos() {
+        return queuedNanos;
+    }
+
+    @Override
+    public void setQueuedNanos(long queuedNanos) {
+        this.queuedNanos = queuedNanos;
+    }
+    
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2019 Fizzed, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fizzed.executors.core;
+
+/**
+ * Hooks into how the workers of a ProcessorService handle each task (see
+ * ProcessorService.addInterceptor), along with every worker hook.
+ */
+public interface TaskInterceptor<T> extends WorkerInterceptor {
+    
+    /**
+     * When a worker takes a task off the queue (before it goes running).
+     */
+    default void onTaskDequeued(WorkerContext context, T task) {}
+    
+    /**
+     * Before the processor executes a task (batch processors excluded).
+     */
+    default void beforeTask(WorkerContext context, T task) {}
+    
+    /**
+     * After the processor executed a task (batch processors excluded).
+     * Called in the reverse order of beforeTask.
+     * 
+     * @param elapsedNanos how long the processor took
+     * @param throwable what the processor threw or null if it returned
+     */
+    default void afterTask(WorkerContext context, T task, long elapsedNanos, Throwable throwable) {}
+    
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2019 Fizzed, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fizzed.executors.core;
+
+/**
+ * Snapshot of a ProcessorService's queue and how long tasks spent in it, in
+ * the processor, and in total from submit to processed.  A growing queue wait
+ * (while processing stays flat) is the sign to add workers.
+ * 
+ * Queue wait and total are only recorded for tasks that implement
+ * TimestampedTask (as the tasks of a ResultProcessorService, Journaled or
+ * CoalescingProcessorService do), see isWaitRecorded.  Other tasks only get
+ * processing time.
+ */
+public class TaskMetrics {
+    
+    private final int queueSize;
+    private final int delayedSize;
+    private final boolean waitRecorded;
+    private final LatencySnapshot queueWait;
+    private final LatencySnapshot processing;
+    private final LatencySnapshot total;
+
+    public TaskMetrics(
+            int queueSize,
+            int delayedSize,
+            boolean waitRecorded,
+            LatencySnapshot queueWait,
+            LatencySnapshot processing,
+            LatencySnapshot total) {
+        
+        this.queueSize = queueSize;
+        this.delayedSize = delayedSize;
+        this.waitRecorded = waitRecorded;
+        this.queueWait = queueWait;
+        this.processing = processing;
+        this.total = total;
+    }
+
+    /**
+     * Number of tasks waiting in the queue.
+     */
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    /**
+     * Number of delayed tasks not yet due.
+     */
+    public int getDelayedSize() {
+        return delayedSize;
+    }
+
+    /**
+     * Whether queue wait and total are being recorded, i.e. the service's
+     * tasks are TimestampedTasks.  If not, both stay empty no matter how many
+     * tasks are processed.
+     */
+    public boolean isWaitRecorded() {
+        return waitRecorded;
+    }
+
+    /**
+     * From queued until a worker took the task.
+     */
+    public LatencySnapshot getQueueWait() {
+        return queueWait;
+    }
+
+    /**
+     * Each execution of the processor (a whole batch for a batch processor).
+     */
+    public LatencySnapshot getProcessing() {
+        return processing;
+    }
+
+    /**
+     * From queued until the processor was done with the task.
+     */
+    public LatencySnapshot getTotal() {
+        return total;
+    }
+
+    @Override
+    public String toString() {
+        return "queueSize=" + this.queueSize
+            + ", delayedSize=" + this.delayedSize
+            + (this.waitRecorded ? ", queueWait=[" + this.queueWait + "]" : ", queueWait=[not recorded]")
+            + ", processing=[" + this.processing + "]"
+            + (this.waitRecorded ? ", total=[" + this.total + "]" : ", total=[not recorded]");
+    }
+    
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2025 Fizzed, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fizzed.executors.core;
+
+import com.fizzed.crux.util.TimeDuration;
+import com.fizzed.executors.impl.MpmcRingQueue;
+import com.fizzed.executors.impl.PriorityTaskQueue;
+import com.fizzed.executors.impl.WaitingBlockingQueue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Task queues for a ProcessorService.
+ */
+public class TaskQueues {
+
+    /**
+     * Unbounded, linked (a node allocated per task) and two locks.  The default.
+     */
+    static public <T> BlockingQueue<T> linked() {
+        return new LinkedBlockingQueue<>();
+    }
+
+    /**
+     * Bounded, preallocated array with a single lock.
+     */
+    static public <T> BlockingQueue<T> bounded(int capacity) {
+        return new ArrayBlockingQueue<>(capacity);
+    }
+
+    /**
+     * Bounded, preallocated, lock-free ring (capacity rounded up to a power of
+     * two) that is safe for any number of producers and workers.  Workers wait
+     * for tasks using the wait strategy rather than blocking on a lock.  Tasks
+     * can only leave from the head, so remove(Object) is not supported.
+     */
+    static public <T> BlockingQueue<T> ring(int capacity, WaitStrategy waitStrategy) {
+        return new WaitingBlockingQueue<>(new MpmcRingQueue<>(capacity), waitStrategy);
+    }
+
+    /**
+     * Unbounded, lock-free queue that hands out higher priority tasks first.
+     * 
+     * @see #priority(int, ToIntFunction, TimeDuration, Predicate, WaitStrategy)
+     */
+    static public <T> BlockingQueue<T> priority(ToIntFunction<T> priority, TimeDuration aging, Predicate<T> urgent) {
+        return priority(Integer.MAX_VALUE, priority, aging, urgent, WaitStrategy.PARK);
+    }
+    
+    /**
+     * Lock-free queue that hands out higher priority tasks first (FIFO within
+     * the same priority).  To keep a steady stream of high priority tasks from
+     * starving everything else, waiting ages a task: a task is handed out
+     * ahead of a task one priority higher that arrived more than the aging
+     * duration after it.
+     * 
+     * @param capacity the max number of queued tasks
+     * @param priority the priority of a task (higher goes first)
+     * @param aging how much waiting is worth one priority level (null or zero
+     *      for strict priority, which may starve low priorities)
+     * @param urgent tasks that skip ahead of everything in a fast lane (may be null)
+     * @param waitStrategy how workers wait for a task
+     */
+    static public <T> BlockingQueue<T> priority(int capacity, ToIntFunction<T> priority, TimeDuration aging,
+            Predicate<T> urgent, WaitStrategy waitStrategy) {
+        
+        if (priority == null) {
+            throw new NullPointerException("priority was null");
+        }
+        
+        final ToLongFunction<T> rank;
+        if (aging == null || aging.isZero()) {
+            rank = task -> -(long)priority.applyAsInt(task);
+        } else {
+            final long agingNanos = aging.asNanos();
+            rank = task -> System.nanoTime() - priority.applyAsInt(task) * agingNanos;
+        }
+        
+        return new WaitingBlockingQueue<>(new PriorityTaskQueue<>(capacity, rank, urgent), waitStrategy);
+    }
+    
+    /**
+     * Unbounded, lock-free queue that hands out the task with the earliest
+     * deadline first.
+     * 
+     * @see #deadline(int, ToLongFunction, Predicate, WaitStrategy)
+     */
+    static public <T> BlockingQueue<T> deadline(ToLongFunction<T> deadline, Predicate<T> urgent) {
+        return deadline(Integer.MAX_VALUE, deadline, urgent, WaitStrategy.PARK);
+    }
+    
+    /**
+     * Lock-free queue that hands out the task with the earliest deadline first
+     * (FIFO for the same deadline).  Since deadlines don't move, a task with a
+     * far off deadline is eventually handed out ahead of newer tasks.
+     * 
+     * @param capacity the max number of queued tasks
+     * @param deadline the deadline of a task (epoch millis, e.g. from
+     *      System.currentTimeMillis())
+     * @param urgent tasks that skip ahead of everything in a fast lane (may be null)
+     * @param waitStrategy how workers wait for a task
+     */
+    static public <T> BlockingQueue<T> deadline(int capacity, ToLongFunction<T> deadline,
+            Predicate<T> urgent, WaitStrategy waitStrategy) {
+        
+        if (deadline == null) {
+            throw new NullPointerException("deadline was null");
+        }
+        
+        return new WaitingBlockingQueue<>(new PriorityTaskQueue<>(capacity, deadline, urgent), waitStrategy);
+    }
+
+}
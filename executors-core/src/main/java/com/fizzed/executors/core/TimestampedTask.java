@@ -0,0 +1,37 @@
+/*
+ * Copyright 2019 Fizzed, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fizzed.executors.core;
+
+/**
+ * A task that carries when it was queued, so a ProcessorService can measure
+ * how long it waited in the queue (and end to end) without wrapping it in
+ * something that would be allocated per submit.  Tasks that aren't
+ * timestamped still get processing time metrics.
+ * 
+ * The timestamp lives on the task itself, so the same instance queued more
+ * than once at a time (rather than a new task per submit) shares the latest
+ * timestamp, and the earlier copies record too short a wait.
+ */
+public interface TimestampedTask {
+    
+    /**
+     * When the task was queued (System.nanoTime).
+     */
+    long getQueuedNanos();
+    
+    void setQueuedNanos(long queuedNanos);
+    
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2025 Fizzed, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fizzed.executors.core;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * How a thread waits on a lock-free structure (e.g. for a task to show up in
+ * a ring buffer) when there is nothing to do yet.  Every strategy honors an
+ * interrupt by throwing an InterruptedException, so a worker stopping while
+ * IDLE behaves the same as with a regular BlockingQueue.
+ */
+public enum WaitStrategy {
+ 
+    SPIN,               // burn a core, lowest latency
+    YIELD,              // give up the time slice between attempts
+    PARK;               // park with exponential backoff (1us up to 1ms), then block
+    
+    static private final long MIN_PARK_NANOS = 1_000L;
+    static private final long MAX_PARK_NANOS = 1_000_000L;
+    // backing off has reached its cap (~2ms in)
+    static private final int BLOCK_AFTER_ATTEMPTS = 10;
+    
+    /**
+     * Whether the caller should stop polling and block until it is woken (e.g.
+     * by the producer) rather than wait again.  Only PARK ever blocks, once its
+     * backoff has reached its cap, so an idle thread stops waking up ~1000
+     * times a second.
+     * 
+     * @param attempt how many times the caller has already waited
+     * @return true if the caller should block until woken
+     */
+    public boolean blocks(int attempt) {
+        return this == PARK && attempt >= BLOCK_AFTER_ATTEMPTS;
+    }
+    
+    /**
+     * Waits once.
+     * 
+     * @param attempt how many times the caller has already waited (0 for the
+     *      first time) which a strategy may use to back off
+     * @throws InterruptedException if the thread was interrupted
+     */
+    public void idle(int attempt) throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        
+        switch (this) {
+            case SPIN:
+                break;
+            case YIELD:
+                Thread.yield();
+                break;
+            case PARK:
+                LockSupport.parkNanos(parkNanos(attempt));
+                break;
+        }
+    }
+    
+    static long parkNanos(int attempt) {
+        if (attempt >= 10) {
+            return MAX_PARK_NANOS;
+        }
+        return Math.min(MIN_PARK_NANOS << attempt, MAX_PARK_NANOS);
+    }
+    
+}
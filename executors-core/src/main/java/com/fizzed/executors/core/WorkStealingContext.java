@@ -0,0 +1,32 @@
+/*
+ * Copyright 2019 Fizzed, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fizzed.executors.core;
+
+/**
+ * The context a processor of a WorkStealingProcessorService is executed with
+ * (cast the WorkerContext to it), which lets the processor fan out follow-up
+ * tasks onto its own worker's deque.
+ */
+public interface WorkStealingContext<T> extends WorkerContext {
+    
+    /**
+     * Submits a task to this worker's own deque, without touching any shared
+     * queue.  This worker runs it next (most recently submitted first, while
+     * it is still hot in the cache) unless an idle worker steals it first.
+     */
+    void submit(T task);
+    
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2019 Fizzed, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fizzed.executors.core;
+
+import com.fizzed.executors.impl.WorkStealingPool;
+import com.fizzed.executors.impl.WorkStealingWorker;
+
+/**
+ * A processor service where every worker has its own deque of tasks, for
+ * processors that fan out follow-up tasks (e.g. recursively).  A processor
+ * submits follow-ups via its context (cast to a WorkStealingContext) onto its
+ * own worker's deque, so they don't contend on a shared queue and run while
+ * still hot in the cache.  Idle workers steal the oldest tasks from busy
+ * ones, so the work still spreads across the pool.  Tasks submitted from
+ * outside go to a shared (lock-free, unbounded) queue.
+ * 
+ * There is no ordering between tasks.  Tasks left on a worker's deque when
+ * it stops are handed back to the shared queue for the next start.
+ */
+public abstract class WorkStealingProcessorService<T,P extends Processor<T>> extends WorkerService<WorkStealingWorker<T>> {
+
+    private final WorkStealingPool<T> pool;
+    private WaitStrategy waitStrategy;
+    
+    public WorkStealingProcessorService(
+            String name) {
+        
+        super(name);
+        this.pool = new WorkStealingPool<>();
+        this.waitStrategy = WaitStrategy.PARK;
+    }
+
+    /**
+     * Number of tasks waiting, in the shared queue and on all the deques.
+     */
+    public int getQueueSize() {
+        return this.pool.size();
+    }
+    
+    @Override
+    protected int getBacklog() {
+        return this.pool.size();
+    }
+
+    /**
+     * How idle workers wait for a task to take or steal (default PARK, which
+     * backs off for a couple of ms and then blocks until a submit wakes it,
+     * so an idle service costs nothing).
+     */
+    public WaitStrategy getWaitStrategy() {
+        return waitStrategy;
+    }
+
+    public void setWaitStrategy(WaitStrategy waitStrategy) {
+        this.waitStrategy = waitStrategy;
+    }
+    
+    abstract protected P newProcessor();
+
+    @Override
+    protected WorkStealingWorker<T> newWorker() {
+        return new WorkStealingWorker<>(this.pool, this.newProcessor(), this.waitStrategy);
+    }
+    
+    /**
+     * Submits a task from outside the service (use the WorkStealingContext to
+     * submit from within a processor).
+     * 
+     * @param task the task
+     * @return always QUEUED (the shared queue is unbounded)
+     */
+    public SubmitResult submit(T task) {
+        this.pool.submit(task);
+        this.ensureWorker();
+        return SubmitResult.QUEUED;
+    }
+    
+}
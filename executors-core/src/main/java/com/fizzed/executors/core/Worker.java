@@ -25,4 +25,13 @@ public interface Worker {
     
     void execute(WorkerContext context) throws ExecuteStopException, InterruptedException;
     
+    /**
+     * Whether the worker takes its own rate limiter permits per task (via
+     * WorkerContext.acquirePermits), e.g. one that loops over a queue within a
+     * single execute.  Otherwise one permit is taken before each execute.
+     */
+    default boolean acquiresPermitsPerTask() {
+        return false;
+    }
+    
 }
\ No newline at end of file
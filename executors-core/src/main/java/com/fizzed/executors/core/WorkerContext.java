@@ -49,6 +49,24 @@ public interface WorkerContext {
     
     void running(String message) throws ExecuteStopException;
     
+    /**
+     * Reports whether this iteration of a polling worker found any work, which
+     * its idle strategy (if any) uses to decide how long to idle before the
+     * next one.  An iteration that doesn't report counts as finding no work.
+     */
+    default void reportWork(boolean workFound) {
+        // ignored by default
+    }
+    
+    /**
+     * Waits (as IDLE, so a stop interrupts it) until the service's rate
+     * limiter, if any, hands out the permits.  ProcessorService workers take
+     * one per task and other workers one per execute, on their own.
+     */
+    default void acquirePermits(int permits) throws ExecuteStopException, InterruptedException {
+        // no rate limit by default
+    }
+    
     default void running(Executable executable) throws ExecuteStopException, InterruptedException {
         this.running((String)null, executable);
     }
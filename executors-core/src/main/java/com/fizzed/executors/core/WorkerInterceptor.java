@@ -0,0 +1,56 @@
+/*
+ * Copyright 2019 Fizzed, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fizzed.executors.core;
+
+/**
+ * Hooks into the life of every worker of a WorkerService (see
+ * WorkerService.addInterceptor), e.g. for timing or tracing without wrapping
+ * workers.  Every hook runs on the worker's own thread and should be quick
+ * and not throw (anything thrown propagates to the worker, the same as if
+ * the worker threw it).
+ */
+public interface WorkerInterceptor {
+    
+    /**
+     * Before each call to Worker.execute.
+     */
+    default void beforeExecute(WorkerContext context) {}
+    
+    /**
+     * After each call to Worker.execute that returned or threw (but not one
+     * cut short by a stop).
+     * 
+     * @param throwable what it threw or null if it returned
+     */
+    default void afterExecute(WorkerContext context, Throwable throwable) {}
+    
+    /**
+     * When the worker goes idle.
+     */
+    default void onIdle(WorkerContext context) {}
+    
+    /**
+     * When the worker goes running.
+     */
+    default void onRunning(WorkerContext context) {}
+    
+    /**
+     * When the worker threw something it did not handle (before the
+     * unhandled throwable delay).
+     */
+    default void onThrowable(WorkerContext context, Throwable throwable) {}
+    
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2025 Fizzed, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fizzed.executors.core;
+
+import com.fizzed.crux.util.TimeDuration;
+
+/**
+ * Snapshot of what a worker (or all the workers of a service) has been doing.
+ * An execution is one stretch of being RUNNING (e.g. one task for a processor).
+ * Comparing the time spent RUNNING vs IDLE tells you if a service is starved
+ * for work, and (if cpu time is enabled) comparing cpu vs wall time while
+ * RUNNING tells you if it's cpu bound or blocked (I/O, locks, etc).
+ */
+public class WorkerMetrics {
+    
+    static public final WorkerMetrics EMPTY = new WorkerMetrics(0L, 0L, 0L, 0L, -1L, LatencySnapshot.EMPTY);
+ 
+    private final long executions;
+    private final long unhandledThrowables;
+    private final long runningNanos;
+    private final long idleNanos;
+    private final long cpuNanos;
+    private final LatencySnapshot executeLatency;
+
+    public WorkerMetrics(
+            long executions,
+            long unhandledThrowables,
+            long runningNanos,
+            long idleNanos,
+            long cpuNanos,
+            LatencySnapshot executeLatency) {
+        
+        this.executions = executions;
+        this.unhandledThrowables = unhandledThrowables;
+        this.runningNanos = runningNanos;
+        this.idleNanos = idleNanos;
+        this.cpuNanos = cpuNanos;
+        this.executeLatency = executeLatency;
+    }
+
+    public long getExecutions() {
+        return executions;
+    }
+
+    public long getUnhandledThrowables() {
+        return unhandledThrowables;
+    }
+
+    /**
+     * Wall time spent RUNNING.
+     */
+    public long getRunningNanos() {
+        return runningNanos;
+    }
+
+    /**
+     * Wall time spent IDLE (sleeping or waiting for work).
+     */
+    public long getIdleNanos() {
+        return idleNanos;
+    }
+
+    public boolean isCpuTimeAvailable() {
+        return this.cpuNanos >= 0L;
+    }
+    
+    /**
+     * CPU time spent RUNNING, or -1 if cpu time is not enabled or supported.
+     */
+    public long getCpuNanos() {
+        return cpuNanos;
+    }
+    
+    /**
+     * Wall time spent RUNNING but off the cpu (blocked on I/O, locks, etc), or
+     * -1 if cpu time is not enabled or supported.
+     */
+    public long getBlockedNanos() {
+        return this.cpuNanos >= 0L ? Math.max(0L, this.runningNanos - this.cpuNanos) : -1L;
+    }
+
+    /**
+     * Fraction (0.0 to 1.0) of time spent RUNNING rather than IDLE.
+     */
+    public double getUtilization() {
+        final long total = this.runningNanos + this.idleNanos;
+        return total > 0L ? (double)this.runningNanos / total : 0.0d;
+    }
+    
+    /**
+     * Latency of each execution (one RUNNING stretch).
+     */
+    public LatencySnapshot getExecuteLatency() {
+        return executeLatency;
+    }
+    
+    public WorkerMetrics merge(WorkerMetrics other) {
+        return new WorkerMetrics(
+            this.executions + other.executions,
+            this.unhandledThrowables + other.unhandledThrowables,
+            this.runningNanos + other.runningNanos,
+            this.idleNanos + other.idleNanos,
+            this.cpuNanos >= 0L && other.cpuNanos >= 0L ? this.cpuNanos + other.cpuNanos
+                : Math.max(this.cpuNanos, other.cpuNanos),
+            this.executeLatency.merge(other.executeLatency));
+    }
+
+    @Override
+    public String toString() {
+        return "executions=" + this.executions
+            + ", unhandledThrowables=" + this.unhandledThrowables
+            + ", running=" + TimeDuration.nanos(this.runningNanos)
+            + ", idle=" + TimeDuration.nanos(this.idleNanos)
+            + (this.cpuNanos >= 0L ? ", cpu=" + TimeDuration.nanos(this.cpuNanos) : "")
+            + ", executeLatency=[" + this.executeLatency + "]";
+    }
+    
+}
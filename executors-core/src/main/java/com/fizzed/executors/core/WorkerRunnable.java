@@ -31,13 +31,32 @@ public interface WorkerRunnable<W extends Worker> {
     
     void setExecuteDelay(TimeDuration executeDelay);
     
+    Schedule getSchedule();
+    
+    void setSchedule(Schedule schedule);
+    
+    IdleStrategy getIdleStrategy();
+    
+    void setIdleStrategy(IdleStrategy idleStrategy);
+    
     TimeDuration getUnhandledThrowableDelay();
     
     void setUnhandledThrowableDelay(TimeDuration unhandledThrowableDelay);
+    
+    boolean isCpuTimeEnabled();
+    
+    void setCpuTimeEnabled(boolean cpuTimeEnabled);
 
     String getMessage();
     
     WorkerState getState();
+    
+    /**
+     * How long the worker has been continuously IDLE (0 if it isn't).
+     */
+    long getIdleNanos();
+    
+    WorkerMetrics getMetrics();
 
     W getWorker();
 
@@ -45,4 +64,13 @@ public interface WorkerRunnable<W extends Worker> {
 
     void stop();
     
+    /**
+     * Stops the worker (the same as stop) only if it has been continuously
+     * IDLE for at least as long, checked atomically with requesting the stop,
+     * so a worker that just took a task is never stopped mid-task instead.
+     * 
+     * @return true if the stop was requested
+     */
+    boolean stopIfIdle(long idleNanos);
+    
 }
\ No newline at end of file
@@ -19,19 +19,28 @@ import com.fizzed.executors.internal.ExecuteHelper;
 import com.fizzed.crux.util.StopWatch;
 import com.fizzed.crux.util.TimeDuration;
 import com.fizzed.executors.impl.WorkerRunnableImpl;
+import com.fizzed.executors.internal.VirtualThreads;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public abstract class WorkerService<W extends Worker> implements Service {
     
+    // how many autoscale checks in a row the backlog must be high to add a worker
+    static private final int SCALE_UP_SAMPLES = 2;
+    
     protected Logger log;
     protected final AtomicLong workerIds;
     private final CopyOnWriteArrayList<WorkerRunnable<W>> runnables;
@@ -39,11 +48,28 @@ public abstract class WorkerService<W extends Worker> implements Service {
     protected ScheduledThreadPoolExecutor executors;
     private String name;
     private int minPoolSize;
+    private int maxPoolSize;
+    private TimeDuration keepAlive;
+    private TimeDuration autoscaleInterval;
+    private int scaleUpBacklog;
+    private TimeDuration scaleUpQueueWait;
+    private int highBacklogSamples;
+    private final ReentrantLock scaleLock;
+    // awaits an asynchronous shutdown (its one thread only exists while it does)
+    private final ThreadPoolExecutor shutdownExecutor;
     private TimeDuration shutdownTimeout;
     private TimeDuration initialDelay;
     private Double initialDelayStagger;
     private TimeDuration executeDelay;
+    private Schedule schedule;
+    private IdleStrategy idleStrategy;
     private TimeDuration unhandledThrowableDelay;
+    private boolean virtualThreads;
+    private boolean cpuTimeMetrics;
+    private volatile WorkerMetrics retiredMetrics;
+    private WorkerInterceptor[] interceptors;
+    private RateLimiter rateLimiter;
+    private Bulkhead bulkhead;
     
     public WorkerService(
             String name) {
@@ -52,13 +78,32 @@ public abstract class WorkerService<W extends Worker> implements Service {
         this.stateRef = new AtomicReference<>(ServiceState.STOPPED);
         this.name = name;
         this.minPoolSize = 1;
+        this.maxPoolSize = 0;
+        this.keepAlive = TimeDuration.seconds(60);
+        this.autoscaleInterval = TimeDuration.seconds(1);
+        this.scaleUpBacklog = 0;
+        this.scaleUpQueueWait = null;
+        this.scaleLock = new ReentrantLock();
         this.log = LoggerFactory.getLogger(this.getClass());
+        this.shutdownExecutor = new ThreadPoolExecutor(0, 1, 1L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            final Thread thread = new Thread(runnable, this.name + "-shutdown");
+            thread.setDaemon(true);
+            return thread;
+        });
         this.shutdownTimeout = new TimeDuration(60, TimeUnit.SECONDS);
         this.runnables = new CopyOnWriteArrayList<>();
         this.initialDelay = null;
         this.initialDelayStagger = null;
         this.executeDelay = null;
+        this.schedule = null;
+        this.idleStrategy = null;
         this.unhandledThrowableDelay = TimeDuration.seconds(5);
+        this.virtualThreads = false;
+        this.cpuTimeMetrics = false;
+        this.retiredMetrics = WorkerMetrics.EMPTY;
+        this.interceptors = new WorkerInterceptor[0];
+        this.rateLimiter = null;
+        this.bulkhead = null;
     }
 
     @Override
@@ -74,6 +119,12 @@ public abstract class WorkerService<W extends Worker> implements Service {
         this.name = name;
     }
 
+    /**
+     * The number of workers started with the service and never retired.  An
+     * elastic pool (see max pool size) may be 0, so the service starts with
+     * no workers (nor their threads) at all and adds the first one as soon as
+     * work arrives, retiring them again once idle for the keep alive.
+     */
     public int getMinPoolSize() {
         return minPoolSize;
     }
@@ -82,6 +133,73 @@ public abstract class WorkerService<W extends Worker> implements Service {
         this.minPoolSize = minPoolSize;
     }
 
+    /**
+     * The max number of workers the pool may grow to under load.  If not
+     * greater than the min pool size (the default) the pool is fixed.
+     */
+    public int getMaxPoolSize() {
+        return maxPoolSize;
+    }
+
+    public void setMaxPoolSize(int maxPoolSize) {
+        this.maxPoolSize = maxPoolSize;
+    }
+    
+    public boolean isElastic() {
+        return this.maxPoolSize > this.minPoolSize;
+    }
+
+    /**
+     * How long a worker above the min pool size may stay idle before it is
+     * retired (gracefully stopped).
+     */
+    public TimeDuration getKeepAlive() {
+        return keepAlive;
+    }
+
+    public void setKeepAlive(TimeDuration keepAlive) {
+        this.keepAlive = keepAlive;
+    }
+
+    /**
+     * How often an elastic pool checks whether to add or retire a worker (at
+     * most one worker is added or retired per check).
+     */
+    public TimeDuration getAutoscaleInterval() {
+        return autoscaleInterval;
+    }
+
+    public void setAutoscaleInterval(TimeDuration autoscaleInterval) {
+        this.autoscaleInterval = autoscaleInterval;
+    }
+
+    /**
+     * An elastic pool adds a worker once the backlog (e.g. a ProcessorService's
+     * queue depth) stays above this for consecutive checks.  Default 0.
+     */
+    public int getScaleUpBacklog() {
+        return scaleUpBacklog;
+    }
+
+    public void setScaleUpBacklog(int scaleUpBacklog) {
+        this.scaleUpBacklog = scaleUpBacklog;
+    }
+
+    /**
+     * An elastic pool also adds a worker once tasks have waited in the queue
+     * longer than this for consecutive checks, even with a backlog at or below
+     * the scale up backlog (e.g. a few slow tasks).  Only a service that knows
+     * how long its tasks have waited (see getQueueWaitNanos) uses it.  Default
+     * null (queue wait is ignored).
+     */
+    public TimeDuration getScaleUpQueueWait() {
+        return scaleUpQueueWait;
+    }
+
+    public void setScaleUpQueueWait(TimeDuration scaleUpQueueWait) {
+        this.scaleUpQueueWait = scaleUpQueueWait;
+    }
+
     public TimeDuration getShutdownTimeout() {
         return shutdownTimeout;
     }
@@ -114,6 +232,34 @@ public abstract class WorkerService<W extends Worker> implements Service {
         this.executeDelay = executeDelay;
     }
 
+    /**
+     * When workers run (e.g. Schedules.fixedRate or Schedules.cron), measured
+     * from when each run was due rather than when the last one finished, so
+     * runs don't drift.  Replaces the execute delay if set.  Null (default)
+     * runs again right after the execute delay.
+     */
+    public Schedule getSchedule() {
+        return schedule;
+    }
+
+    public void setSchedule(Schedule schedule) {
+        this.schedule = schedule;
+    }
+
+    /**
+     * How a polling worker idles between iterations that found no work (the
+     * worker reports via WorkerContext.reportWork), e.g. IdleStrategies.backoff.
+     * Replaces the execute delay if set (a schedule takes precedence).  Null
+     * (default) always idles for the execute delay.
+     */
+    public IdleStrategy getIdleStrategy() {
+        return idleStrategy;
+    }
+
+    public void setIdleStrategy(IdleStrategy idleStrategy) {
+        this.idleStrategy = idleStrategy;
+    }
+
     public TimeDuration getUnhandledThrowableDelay() {
         return unhandledThrowableDelay;
     }
@@ -122,6 +268,105 @@ public abstract class WorkerService<W extends Worker> implements Service {
         this.unhandledThrowableDelay = unhandledThrowableDelay;
     }
 
+    /**
+     * Whether workers run on virtual threads (Java 21+) rather than platform
+     * threads.  Worth it for many mostly idle (sleeping or blocked) workers.  On
+     * older JVMs the service logs a warning and uses platform threads.
+     */
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public void setVirtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+
+    /**
+     * Whether workers also measure the cpu time they spend running (via the
+     * ThreadMXBean, if the JVM supports it).  Costs a couple of extra calls
+     * per execution, so it is off by default.
+     */
+    public boolean isCpuTimeMetrics() {
+        return cpuTimeMetrics;
+    }
+
+    public void setCpuTimeMetrics(boolean cpuTimeMetrics) {
+        this.cpuTimeMetrics = cpuTimeMetrics;
+    }
+
+    /**
+     * Caps how fast the workers run, all together (e.g. to protect a fragile
+     * downstream).  A ProcessorService worker takes a permit per task (per
+     * task in a batch), other workers one per execute.  Waiting for a permit
+     * is IDLE, so it counts as idle time and a stop interrupts it.  Null (the
+     * default) for no limit.
+     */
+    public RateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    public void setRateLimiter(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+    
+    /**
+     * Caps how many workers are RUNNING at once, across every service sharing
+     * the same bulkhead (e.g. to stay under the connection limit of a shared
+     * database).  A worker takes a permit at running() and gives it back at
+     * its next idle(), so a ProcessorService worker holds one per task.  Null
+     * (the default) for no cap.
+     */
+    public Bulkhead getBulkhead() {
+        return bulkhead;
+    }
+
+    public void setBulkhead(Bulkhead bulkhead) {
+        this.bulkhead = bulkhead;
+    }
+    
+    public List<WorkerInterceptor> getInterceptors() {
+        return Collections.unmodifiableList(Arrays.asList(this.interceptors));
+    }
+    
+    /**
+     * Adds an interceptor to every worker created from now on, so add them
+     * before starting the service.  Interceptors run in the order added.
+     */
+    public void addInterceptor(WorkerInterceptor interceptor) {
+        if (interceptor == null) {
+            throw new NullPointerException("interceptor was null");
+        }
+        
+        final WorkerInterceptor[] _interceptors = Arrays.copyOf(this.interceptors, this.interceptors.length + 1);
+        _interceptors[_interceptors.length - 1] = interceptor;
+        this.interceptors = _interceptors;
+    }
+    
+    /**
+     * Snapshot of the metrics of all workers, including any workers that have
+     * since been retired or replaced by a restart.
+     */
+    public WorkerMetrics getMetrics() {
+        WorkerMetrics metrics = this.retiredMetrics;
+        for (WorkerRunnable<W> runnable : this.runnables) {
+            metrics = metrics.merge(runnable.getMetrics());
+        }
+        return metrics;
+    }
+    
+    private void retireMetrics(WorkerRunnable<W> runnable) {
+        this.retiredMetrics = this.retiredMetrics.merge(runnable.getMetrics());
+        this.retired(runnable);
+    }
+    
+    /**
+     * Called with a worker that was retired or replaced by a restart, e.g. to
+     * keep hold of any metrics of its own.
+     */
+    protected void retired(WorkerRunnable<W> runnable) {
+        // do nothing by default
+    }
+
     public List<WorkerRunnable<W>> getRunnables() {
         return this.runnables;
     }
@@ -133,6 +378,28 @@ public abstract class WorkerService<W extends Worker> implements Service {
             .count();
     }
     
+    public int getPoolSize() {
+        return this.runnables.size();
+    }
+    
+    /**
+     * Amount of work waiting for a worker, which drives scaling up an elastic
+     * pool.  Workers that poll for their own work have no visible backlog, so
+     * by default this is 0 and a subclass must override it to scale up.
+     */
+    protected int getBacklog() {
+        return 0;
+    }
+    
+    /**
+     * How long the work waiting for a worker has waited so far (nanos), which
+     * with a scale up queue wait also drives scaling up an elastic pool.  By
+     * default -1, as in not known.
+     */
+    protected long getQueueWaitNanos() {
+        return -1L;
+    }
+    
     abstract protected W newWorker();
     
     protected WorkerRunnableImpl<W> newWorkerRunnable() {
@@ -152,11 +419,32 @@ public abstract class WorkerService<W extends Worker> implements Service {
         
         runnable.setInitialDelay(_initialDelay);
         runnable.setExecuteDelay(this.getExecuteDelay());
+        runnable.setSchedule(this.getSchedule());
+        runnable.setIdleStrategy(this.getIdleStrategy());
         runnable.setUnhandledThrowableDelay(this.getUnhandledThrowableDelay());
+        runnable.setCpuTimeEnabled(this.cpuTimeMetrics);
+        runnable.setInterceptors(this.interceptors);
+        runnable.setRateLimiter(this.rateLimiter);
+        runnable.setBulkhead(this.bulkhead);
         
         return runnable;
     }
     
+    protected ThreadFactory newThreadFactory() {
+        if (this.virtualThreads) {
+            if (VirtualThreads.isSupported()) {
+                return VirtualThreads.newThreadFactory();
+            }
+            log.warn("{}: virtual threads require Java 21+ (will use platform threads)", this.name);
+        }
+        
+        return (Runnable runnable) -> {
+            Thread thread = new Thread(runnable);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+    
     @Override
     public void start() {
         if (!this.stateRef.compareAndSet(ServiceState.STOPPED, ServiceState.STARTING)) {
@@ -167,15 +455,20 @@ public abstract class WorkerService<W extends Worker> implements Service {
         try {
             log.info("{}: service starting...", this.name);
 
-            // clear out any previous runnables
-            this.runnables.clear();
+            // clear out any previous runnables (keeping what they did)
+            this.scaleLock.lock();
+            try {
+                this.runnables.forEach(this::retireMetrics);
+                this.runnables.clear();
+            } finally {
+                this.scaleLock.unlock();
+            }
+            
+            // an elastic pool needs one more thread for the autoscaler
+            final boolean elastic = this.isElastic();
             
             this.executors = new ScheduledThreadPoolExecutor(
-                this.minPoolSize, (Runnable runnable) -> {
-                    Thread thread = new Thread(runnable);
-                    thread.setDaemon(true);
-                    return thread;
-                });
+                this.minPoolSize + (elastic ? 1 : 0), this.newThreadFactory());
             
             for (int i = 0; i < this.minPoolSize; i++) {
                 final WorkerRunnableImpl<W> runnable = this.newWorkerRunnable();
@@ -184,6 +477,12 @@ public abstract class WorkerService<W extends Worker> implements Service {
 
                 this.executors.submit(runnable);
             }
+            
+            if (elastic) {
+                this.highBacklogSamples = 0;
+                final long interval = this.autoscaleInterval.asMillis();
+                this.executors.scheduleWithFixedDelay(this::autoscale, interval, interval, TimeUnit.MILLISECONDS);
+            }
 
             log.info("{}: service started (in {})", this.name, timer);
             this.stateRef.set(ServiceState.STARTED);
@@ -205,15 +504,158 @@ public abstract class WorkerService<W extends Worker> implements Service {
         
         log.info("{}: service stopping...", this.name);
 
-        this.executors.shutdown();
+        this.scaleLock.lock();
+        try {
+            this.executors.shutdown();
 
-        this.runnables.forEach(runnable -> {
-            runnable.stop();
-        });
+            this.runnables.forEach(runnable -> {
+                runnable.stop();
+            });
+        } finally {
+            this.scaleLock.unlock();
+        }
         
         return true;
     }
     
+    /**
+     * Adds a worker to a started pool, if it is below its max pool size.
+     * 
+     * @return true if a worker was added
+     */
+    protected boolean addWorker() {
+        this.scaleLock.lock();
+        try {
+            if (this.stateRef.get() != ServiceState.STARTED || this.runnables.size() >= this.maxPoolSize) {
+                return false;
+            }
+            
+            final WorkerRunnableImpl<W> runnable = this.newWorkerRunnable();
+            
+            // there's work waiting right now
+            runnable.setInitialDelay(null);
+            
+            this.runnables.add(runnable);
+            this.executors.setCorePoolSize(this.runnables.size() + 1);
+            try {
+                this.executors.submit(runnable);
+            } catch (RejectedExecutionException e) {
+                // lost a race with a shutdown
+                this.runnables.remove(runnable);
+                return false;
+            }
+            
+            log.info("{}: added worker {} (pool size now {})", this.name, runnable.getName(), this.runnables.size());
+            return true;
+        } finally {
+            this.scaleLock.unlock();
+        }
+    }
+    
+    /**
+     * Adds a worker if a started, elastic pool has none at all (e.g. it scales
+     * from zero and work just arrived).  Cheap enough to call on every submit.
+     */
+    protected void ensureWorker() {
+        if (!this.runnables.isEmpty() || !this.isElastic() || this.stateRef.get() != ServiceState.STARTED) {
+            return;
+        }
+        
+        this.addWorkerIfEmpty();
+    }
+    
+    /**
+     * Adds a worker only if the pool has none, checked under the scale lock so
+     * racing callers (a submit and the autoscaler) add just one between them.
+     * 
+     * @return true if a worker was added
+     */
+    private boolean addWorkerIfEmpty() {
+        this.scaleLock.lock();
+        try {
+            // someone else may have just beat us to it
+            return this.runnables.isEmpty() && this.addWorker();
+        } finally {
+            this.scaleLock.unlock();
+        }
+    }
+    
+    /**
+     * Gracefully stops (the same as a service stop) a worker that has been
+     * idle for longer than the keep alive, if the pool is above its min pool size.
+     * 
+     * @return true if a worker was retired
+     */
+    protected boolean retireIdleWorker() {
+        this.scaleLock.lock();
+        try {
+            if (this.stateRef.get() != ServiceState.STARTED || this.runnables.size() <= this.minPoolSize) {
+                return false;
+            }
+            
+            // retire whoever has been idle the longest
+            final long keepAliveNanos = this.keepAlive.asNanos();
+            WorkerRunnable<W> idlest = null;
+            for (WorkerRunnable<W> runnable : this.runnables) {
+                final long idleNanos = runnable.getIdleNanos();
+                if (idleNanos > keepAliveNanos && (idlest == null || idleNanos > idlest.getIdleNanos())) {
+                    idlest = runnable;
+                }
+            }
+            
+            // only if still idle, it may have just taken a task
+            if (idlest == null || !idlest.stopIfIdle(keepAliveNanos)) {
+                return false;
+            }
+            
+            this.runnables.remove(idlest);
+            this.retireMetrics(idlest);
+            this.executors.setCorePoolSize(this.runnables.size() + 1);
+            
+            log.info("{}: retired idle worker {} (pool size now {})", this.name, idlest.getName(), this.runnables.size());
+            return true;
+        } finally {
+            this.scaleLock.unlock();
+        }
+    }
+    
+    protected void autoscale() {
+        // an exception would cancel all future runs, so never let one escape
+        try {
+            if (this.stateRef.get() != ServiceState.STARTED) {
+                return;
+            }
+            
+            final int backlog = this.getBacklog();
+            
+            // work arrived just as the last worker retired, so don't wait on samples
+            if (backlog > 0 && this.runnables.isEmpty()) {
+                this.addWorkerIfEmpty();
+                return;
+            }
+            
+            if (backlog > this.scaleUpBacklog || this.isQueueWaitHigh()) {
+                this.highBacklogSamples++;
+                if (this.highBacklogSamples >= SCALE_UP_SAMPLES && this.addWorker()) {
+                    // it must stay high again before adding yet another
+                    this.highBacklogSamples = 0;
+                }
+            } else {
+                this.highBacklogSamples = 0;
+                if (backlog == 0) {
+                    this.retireIdleWorker();
+                }
+            }
+        } catch (Throwable t) {
+            log.error("{}: autoscale failed", this.name, t);
+        }
+    }
+    
+    private boolean isQueueWaitHigh() {
+        final TimeDuration scaleUpQueueWait = this.scaleUpQueueWait;
+        return scaleUpQueueWait != null && this.getQueueWaitNanos() > scaleUpQueueWait.asNanos();
+    }
+    
     private void awaitShutdown() {
         // ignore if already stopped or stopping...
         final ServiceState currentState = this.stateRef.get();
@@ -250,11 +692,7 @@ public abstract class WorkerService<W extends Worker> implements Service {
     public void shutdown() {
         if (this.requestShutdown()) {
             // asynchronously await for the shutdown now...
-            final ExecutorService shutdownExecutor = Executors.newSingleThreadExecutor();
-            shutdownExecutor.submit(() -> {
-                this.awaitShutdown();
-            });
-            shutdownExecutor.shutdown();
+            this.shutdownExecutor.execute(this::awaitShutdown);
         }
     }
     
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2025 Fizzed, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fizzed.executors.impl;
+
+import com.fizzed.crux.util.TimeDuration;
+import com.fizzed.executors.core.BatchProcessor;
+import com.fizzed.executors.core.ExecuteStopException;
+import com.fizzed.executors.core.TaskInterceptor;
+import com.fizzed.executors.core.WorkerContext;
+import static com.fizzed.executors.internal.ExecuteHelper.ZERO_DURATION;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+public class BatchProcessorWorker<T> extends ProcessorWorker<T> {
+
+    private final BatchProcessor<T> batchProcessor;
+    private final int batchSize;
+    private final long batchLingerNanos;
+    private final List<T> batch;
+
+    public BatchProcessorWorker(
+            BlockingQueue<T> taskQueue,
+            BatchProcessor<T> batchProcessor,
+            int batchSize,
+            TimeDuration batchLinger) {
+        
+        this(taskQueue, new ConcurrentLinkedQueue<>(), batchProcessor, batchSize, batchLinger);
+    }
+    
+    public BatchProcessorWorker(
+            BlockingQueue<T> taskQueue,
+            Queue<T> pending,
+            BatchProcessor<T> batchProcessor,
+            int batchSize,
+            TimeDuration batchLinger) {
+        
+        super(taskQueue, pending, batchProcessor);
+        
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be >= 1");
+        }
+        
+        this.batchProcessor = batchProcessor;
+        this.batchSize = batchSize;
+        this.batchLingerNanos = batchLinger != null && batchLinger.gt(ZERO_DURATION) ? batchLinger.asNanos() : 0L;
+        this.batch = new ArrayList<>(batchSize);
+    }
+
+    @Override
+    public void execute(WorkerContext context) throws ExecuteStopException, InterruptedException {
+        
+        if (this.getLogger() != null) {
+            this.getLogger().info("Ready");
+        }
+        
+        // keep running unless a stop has been requested...
+        while (!context.isStopRequested()) {
+            context.idle();
+            
+            // block for the first task (interrupt ok), then grab whatever else is
+            // already waiting without blocking
+            this.batch.add(this.take());
+            T task;
+            while (this.batch.size() < this.batchSize && (task = this.pending.poll()) != null) {
+                this.batch.add(task);
+            }
+            this.taskQueue.drainTo(this.batch, this.batchSize - this.batch.size());
+            this.dequeued(context, 0);
+            
+            try {
+                // linger before acquiring permits, so every task in the batch is
+                // counted against the rate limit
+                if (this.batchLingerNanos > 0L && this.batch.size() < this.batchSize) {
+                    this.linger(context);
+                }
+                
+                context.acquirePermits(this.batch.size());
+                context.running();
+            } catch (ExecuteStopException | InterruptedException e) {
+                // taken just as (or lingering when) a stop was requested, so hand
+                // them back rather than lose them
+                this.requeue(this.batch);
+                this.batch.clear();
+                throw e;
+            }
+            
+            try {
+                this.batchProcessor.execute(context, this.batch);
+            } finally {
+                for (int i = 0; i < this.batch.size(); i++) {
+                    this.processed(this.batch.get(i));
+                }
+                this.batch.clear();
+            }
+        }
+    }
+    
+    private void linger(WorkerContext context) throws InterruptedException {
+        final long deadline = System.nanoTime() + this.batchLingerNanos;
+        
+        while (this.batch.size() < this.batchSize) {
+            final long remaining = deadline - System.nanoTime();
+            if (remaining <= 0L) {
+                return;
+            }
+            
+            final T task = this.taskQueue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (task == null) {
+                return;
+            }
+            
+            final int from = this.batch.size();
+            this.batch.add(task);
+            this.taskQueue.drainTo(this.batch, this.batchSize - this.batch.size());
+            this.dequeued(context, from);
+        }
+    }
+    
+    private void dequeued(WorkerContext context, int from) {
+        for (int i = from; i < this.batch.size(); i++) {
+            this.dequeued(this.batch.get(i));
+        }
+        
+        final TaskInterceptor<T>[] _interceptors = this.interceptors;
+        if (_interceptors != null) {
+            for (int i = from; i < this.batch.size(); i++) {
+                for (TaskInterceptor<T> interceptor : _interceptors) {
+                    interceptor.onTaskDequeued(context, this.batch.get(i));
+                }
+            }
+        }
+    }
+    
+}
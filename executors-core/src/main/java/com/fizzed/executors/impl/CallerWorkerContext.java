@@ -0,0 +1,90 @@
+/*
+ * Copyright 2025 Fizzed, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fizzed.executors.impl;
+
+import com.fizzed.crux.util.TimeDuration;
+import com.fizzed.executors.core.ExecuteStopException;
+import com.fizzed.executors.core.RateLimiter;
+import com.fizzed.executors.core.WorkerContext;
+import com.fizzed.executors.core.WorkerState;
+import static com.fizzed.executors.internal.ExecuteHelper.ZERO_DURATION;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Context for a processor running on a thread that is not a worker (e.g. the
+ * submitting thread with the CALLER_RUNS rejection policy).  Nothing can stop
+ * it, so it is always considered running.  It still waits on the service's
+ * rate limiter (if any), so running on callers can't exceed the cap.
+ */
+public class CallerWorkerContext implements WorkerContext {
+
+    private final String name;
+    private final RateLimiter rateLimiter;
+
+    public CallerWorkerContext(String name) {
+        this(name, null);
+    }
+    
+    public CallerWorkerContext(String name, RateLimiter rateLimiter) {
+        this.name = name;
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    public long getId() {
+        return 0L;
+    }
+
+    @Override
+    public String getName() {
+        return this.name;
+    }
+
+    @Override
+    public WorkerState getState() {
+        return WorkerState.RUNNING;
+    }
+
+    @Override
+    public boolean isStopRequested() {
+        return false;
+    }
+
+    @Override
+    public void idle(TimeDuration duration, String message) throws ExecuteStopException, InterruptedException {
+        if (duration != null && duration.gt(ZERO_DURATION)) {
+            Thread.sleep(duration.asMillis());
+        }
+    }
+
+    @Override
+    public void running(String message) throws ExecuteStopException {
+        // nothing to track
+    }
+
+    @Override
+    public void acquirePermits(int permits) throws ExecuteStopException, InterruptedException {
+        if (this.rateLimiter == null) {
+            return;
+        }
+        
+        long waitNanos;
+        while ((waitNanos = this.rateLimiter.tryAcquire(permits)) > 0L) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright 2019 Fizzed, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fizzed.executors.impl;
+
+import com.fizzed.executors.core.MissedRuns;
+import com.fizzed.executors.core.Schedule;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * A schedule from a cron expression (see Schedules.cron for the syntax).  Each
+ * field is parsed into a bit mask, and the next run is found by rolling the
+ * largest mismatched field forward (e.g. to the next matching month before
+ * bothering with days).
+ */
+public class CronSchedule implements Schedule {
+    
+    static private final String[] MONTH_NAMES = {
+        "JAN", "FEB", "MAR", "APR", "MAY", "JUN", "JUL", "AUG", "SEP", "OCT", "NOV", "DEC" };
+    static private final String[] DAY_NAMES = {
+        "SUN", "MON", "TUE", "WED", "THU", "FRI", "SAT" };
+    // a valid expression matches within a few years (e.g. Feb 29th)
+    static private final int MAX_YEARS = 8;
+
+    private final String expression;
+    private final ZoneId zone;
+    private final MissedRuns missedRuns;
+    private final long seconds;
+    private final long minutes;
+    private final long hours;
+    private final long daysOfMonth;
+    private final long months;
+    private final long daysOfWeek;
+    private final boolean anyDayOfMonth;
+    private final boolean anyDayOfWeek;
+
+    public CronSchedule(
+            String expression,
+            ZoneId zone,
+            MissedRuns missedRuns) {
+        
+        if (expression == null) {
+            throw new NullPointerException("expression was null");
+        }
+        if (zone == null) {
+            throw new NullPointerException("zone was null");
+        }
+        if (missedRuns == null) {
+            throw new NullPointerException("missedRuns was null");
+        }
+        
+        this.expression = expression.trim();
+        this.zone = zone;
+        this.missedRuns = missedRuns;
+        
+        final String[] fields = this.expression.split("\\s+");
+        if (fields.length != 5 && fields.length != 6) {
+            throw new IllegalArgumentException("Cron expression '" + expression + "' must have 5 or 6 fields");
+        }
+        
+        // seconds are optional (default to the top of the minute)
+        final int offset = fields.length - 5;
+        this.seconds = offset > 0 ? parseField(fields[0], 0, 59, null) : 1L;
+        this.minutes = parseField(fields[offset], 0, 59, null);
+        this.hours = parseField(fields[offset + 1], 0, 23, null);
+        this.daysOfMonth = parseField(fields[offset + 2], 1, 31, null);
+        this.months = parseField(fields[offset + 3], 1, 12, MONTH_NAMES);
+        final long dow = parseField(fields[offset + 4], 0, 7, DAY_NAMES);
+        // both 0 and 7 are sunday
+        this.daysOfWeek = (dow & ~(1L << 7)) | ((dow >>> 7) & 1L);
+        this.anyDayOfMonth = fields[offset + 2].startsWith("*");
+        this.anyDayOfWeek = fields[offset + 4].startsWith("*");
+        
+        if (this.nextAfter(System.currentTimeMillis()) < 0L) {
+            throw new IllegalArgumentException("Cron expression '" + expression + "' never matches");
+        }
+    }
+
+    public String getExpression() {
+        return expression;
+    }
+
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    public MissedRuns getMissedRuns() {
+        return missedRuns;
+    }
+    
+    @Override
+    public long nextDue(long lastDueMillis, long nowMillis) {
+        final long nextDue = this.nextAfter(lastDueMillis < 0L ? nowMillis : lastDueMillis);
+        
+        if (nextDue > nowMillis) {
+            return nextDue;
+        }
+        
+        return this.missedRuns == MissedRuns.COALESCE ? nowMillis : this.nextAfter(nowMillis);
+    }
+    
+    /**
+     * The first time (epoch millis) after the given time the expression
+     * matches, or -1 if it never does.
+     */
+    public long nextAfter(long epochMillis) {
+        ZonedDateTime t = Instant.ofEpochMilli(epochMillis).atZone(this.zone)
+            .truncatedTo(ChronoUnit.SECONDS)
+            .plusSeconds(1L);
+        
+        final int maxYear = t.getYear() + MAX_YEARS;
+        
+        while (t.getYear() <= maxYear) {
+            if (!matches(this.months, t.getMonthValue())) {
+                t = t.withDayOfMonth(1).truncatedTo(ChronoUnit.DAYS).plusMonths(1L);
+            } else if (!this.matchesDay(t)) {
+                t = t.truncatedTo(ChronoUnit.DAYS).plusDays(1L);
+            } else if (!matches(this.hours, t.getHour())) {
+                t = t.truncatedTo(ChronoUnit.HOURS).plusHours(1L);
+            } else if (!matches(this.minutes, t.getMinute())) {
+                t = t.truncatedTo(ChronoUnit.MINUTES).plusMinutes(1L);
+            } else if (!matches(this.seconds, t.getSecond())) {
+                t = t.plusSeconds(1L);
+            } else {
+                return t.toInstant().toEpochMilli();
+            }
+        }
+        
+        return -1L;
+    }
+    
+    private boolean matchesDay(ZonedDateTime t) {
+        final boolean dom = matches(this.daysOfMonth, t.getDayOfMonth());
+        final boolean dow = matches(this.daysOfWeek, t.getDayOfWeek().getValue() % 7);
+        
+        // like cron, if both are restricted then either one may match
+        if (this.anyDayOfMonth || this.anyDayOfWeek) {
+            return dom && dow;
+        }
+        return dom || dow;
+    }
+    
+    static private boolean matches(long mask, int value) {
+        return (mask & (1L << value)) != 0L;
+    }
+    
+    static private long parseField(String field, int min, int max, String[] names) {
+        long mask = 0L;
+        
+        for (String part : field.split(",")) {
+            int step = 1;
+            final int slash = part.indexOf('/');
+            if (slash >= 0) {
+                step = Integer.parseInt(part.substring(slash + 1));
+                part = part.substring(0, slash);
+                if (step < 1) {
+                    throw new IllegalArgumentException("Cron field '" + field + "' has an invalid step");
+                }
+            }
+            
+            int from;
+            int to;
+            if (part.equals("*")) {
+                from = min;
+                to = max;
+            } else {
+                final int dash = part.indexOf('-');
+                if (dash > 0) {
+                    from = parseValue(part.substring(0, dash), names, min);
+                    to = parseValue(part.substring(dash + 1), names, min);
+                } else {
+                    from = parseValue(part, names, min);
+                    // "5/15" means starting at 5
+                    to = slash >= 0 ? max : from;
+                }
+            }
+            
+            if (from < min || to > max || from > to) {
+                throw new IllegalArgumentException("Cron field '" + field + "' must be within " + min + "-" + max);
+            }
+            
+            for (int v = from; v <= to; v += step) {
+                mask |= 1L << v;
+            }
+        }
+        
+        return mask;
+    }
+    
+    static private int parseValue(String value, String[] names, int min) {
+        if (names != null) {
+            for (int i = 0; i < names.length; i++) {
+                if (names[i].equalsIgnoreCase(value)) {
+                    return i + (min > 0 ? min : 0);
+                }
+            }
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Cron value '" + value + "' is not a number" + (names != null ? " or name" : ""));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "cron '" + this.expression + "' (" + this.zone + ")";
+    }
+    
+}
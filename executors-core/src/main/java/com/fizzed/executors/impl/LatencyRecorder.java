@@ -0,0 +1,104 @@
+/*
+ * Copyright 2025 Fizzed, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fizzed.executors.impl;
+
+import com.fizzed.executors.core.LatencySnapshot;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram (nanoseconds) with log-linear buckets in the
+ * style of HdrHistogram: every power of two is split into 32 linear buckets,
+ * so any recorded value is reported within ~3% of its actual value.  Values
+ * above ~36 minutes are clamped.  Recording never allocates and is safe from
+ * any number of threads.
+ */
+public class LatencyRecorder {
+
+    static final int SUB_BUCKET_BITS = 5;
+    static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    static final int MAX_EXPONENT = 40;
+    static final long MAX_VALUE = (1L << (MAX_EXPONENT + 1)) - 1L;
+    static final int BUCKET_COUNT = SUB_BUCKET_COUNT + (MAX_EXPONENT - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray counts;
+    private final AtomicLong count;
+    private final AtomicLong sum;
+    private final AtomicLong min;
+    private final AtomicLong max;
+
+    public LatencyRecorder() {
+        this.counts = new AtomicLongArray(BUCKET_COUNT);
+        this.count = new AtomicLong();
+        this.sum = new AtomicLong();
+        this.min = new AtomicLong(Long.MAX_VALUE);
+        this.max = new AtomicLong();
+    }
+
+    public void record(long nanos) {
+        final long value = nanos < 0L ? 0L : (nanos > MAX_VALUE ? MAX_VALUE : nanos);
+
+        this.counts.incrementAndGet(bucketIndex(value));
+        this.count.incrementAndGet();
+        this.sum.addAndGet(value);
+
+        long current;
+        while (value < (current = this.min.get()) && !this.min.compareAndSet(current, value)) {
+            // retry
+        }
+        while (value > (current = this.max.get()) && !this.max.compareAndSet(current, value)) {
+            // retry
+        }
+    }
+
+    /**
+     * Copies the current counts.  Not atomic with respect to concurrent
+     * recording, so a snapshot may be off by the handful of values recorded
+     * while it was taken.
+     */
+    public LatencySnapshot snapshot() {
+        final long[] buckets = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets[i] = this.counts.get(i);
+        }
+        final long _count = this.count.get();
+        final long _min = this.min.get();
+        return new LatencySnapshot(buckets, _count, this.sum.get(), _count > 0 ? _min : 0L, this.max.get());
+    }
+
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int)value;
+        }
+        final int exponent = 63 - Long.numberOfLeadingZeros(value);
+        final int shift = exponent - SUB_BUCKET_BITS;
+        final int mantissa = (int)(value >>> shift);        // [32, 63]
+        return SUB_BUCKET_COUNT + shift * SUB_BUCKET_COUNT + (mantissa - SUB_BUCKET_COUNT);
+    }
+
+    /**
+     * The highest value that would be recorded into the bucket.
+     */
+    static public long bucketHighestValue(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        final int shift = (index - SUB_BUCKET_COUNT) / SUB_BUCKET_COUNT;
+        final long mantissa = SUB_BUCKET_COUNT + (index - SUB_BUCKET_COUNT) % SUB_BUCKET_COUNT;
+        return ((mantissa + 1L) << shift) - 1L;
+    }
+
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright 2025 Fizzed, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fizzed.executors.impl;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Predicate;
+
+/**
+ * Bounded, lock-free, multi-producer multi-consumer queue on a preallocated
+ * ring (D. Vyukov's bounded MPMC algorithm).  Each slot carries a sequence
+ * number that tells producers and consumers whose turn it is, so offer() and
+ * poll() are a single CAS on the tail or head in the uncontended case and
+ * nothing is allocated per element.
+ *
+ * This queue does not block -- wrap it in a WaitingBlockingQueue to use it as
+ * a task queue.
+ */
+public class MpmcRingQueue<T> extends AbstractQueue<T> {
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicLongArray sequences;
+    private final AtomicReferenceArray<T> elements;
+    private final PaddedAtomicLong head;
+    private final PaddedAtomicLong tail;
+
+    public MpmcRingQueue(int capacity) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("capacity must be >= 2");
+        }
+
+        // round up to a power of two so we can mask rather than mod
+        this.capacity = capacity > (1 << 30) ? (1 << 30) : Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = this.capacity - 1;
+        this.sequences = new AtomicLongArray(this.capacity);
+        this.elements = new AtomicReferenceArray<>(this.capacity);
+        this.head = new PaddedAtomicLong();
+        this.tail = new PaddedAtomicLong();
+
+        for (int i = 0; i < this.capacity; i++) {
+            this.sequences.lazySet(i, i);
+        }
+    }
+
+    /**
+     * The actual capacity, which is the requested capacity rounded up to the
+     * next power of two.
+     */
+    public int capacity() {
+        return this.capacity;
+    }
+
+    @Override
+    public boolean offer(T e) {
+        if (e == null) {
+            throw new NullPointerException();
+        }
+
+        long pos = this.tail.get();
+        for (;;) {
+            final int index = (int)pos & this.mask;
+            final long seq = this.sequences.get(index);
+            final long dif = seq - pos;
+
+            if (dif == 0L) {
+                if (this.tail.compareAndSet(pos, pos + 1L)) {
+                    this.elements.lazySet(index, e);
+                    // publishes the element to consumers
+                    this.sequences.lazySet(index, pos + 1L);
+                    return true;
+                }
+                pos = this.tail.get();
+            } else if (dif < 0L) {
+                return false;       // full
+            } else {
+                pos = this.tail.get();
+            }
+        }
+    }
+
+    @Override
+    public T poll() {
+        long pos = this.head.get();
+        for (;;) {
+            final int index = (int)pos & this.mask;
+            final long seq = this.sequences.get(index);
+            final long dif = seq - (pos + 1L);
+
+            if (dif == 0L) {
+                if (this.head.compareAndSet(pos, pos + 1L)) {
+                    final T e = this.elements.get(index);
+                    this.elements.lazySet(index, null);
+                    // hands the slot back to producers one lap later
+                    this.sequences.lazySet(index, pos + this.capacity);
+                    return e;
+                }
+                pos = this.head.get();
+            } else if (dif < 0L) {
+                return null;        // empty
+            } else {
+                pos = this.head.get();
+            }
+        }
+    }
+
+    @Override
+    public T peek() {
+        for (;;) {
+            final long pos = this.head.get();
+            final int index = (int)pos & this.mask;
+            final long seq = this.sequences.get(index);
+
+            if (seq - (pos + 1L) < 0L) {
+                return null;        // empty
+            }
+
+            final T e = this.elements.get(index);
+            // only trust it if nobody consumed the slot underneath us
+            if (e != null && this.head.get() == pos) {
+                return e;
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        // read head twice so a racing consumer can't make us go negative
+        for (;;) {
+            final long before = this.head.get();
+            final long currentTail = this.tail.get();
+            final long after = this.head.get();
+            if (before == after) {
+                return (int)Math.max(0L, Math.min(currentTail - after, this.capacity));
+            }
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.peek() == null;
+    }
+
+    /**
+     * Not supported, elements can only leave a ring from its head.
+     * 
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public boolean remove(Object o) {
+        throw new UnsupportedOperationException("Ring queue only supports removing from its head (poll)");
+    }
+    
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        throw new UnsupportedOperationException("Ring queue only supports removing from its head (poll)");
+    }
+    
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        throw new UnsupportedOperationException("Ring queue only supports removing from its head (poll)");
+    }
+    
+    @Override
+    public boolean removeIf(Predicate<? super T> filter) {
+        throw new UnsupportedOperationException("Ring queue only supports removing from its head (poll)");
+    }
+    
+    /**
+     * Weakly consistent iterator over a snapshot of the elements queued at the
+     * time it was created.  Does not support remove.
+     */
+    @Override
+    public Iterator<T> iterator() {
+        final List<T> snapshot = new ArrayList<>();
+        final long currentHead = this.head.get();
+        final long currentTail = this.tail.get();
+        for (long pos = currentHead; pos < currentTail; pos++) {
+            final int index = (int)pos & this.mask;
+            if (this.sequences.get(index) == pos + 1L) {
+                final T e = this.elements.get(index);
+                if (e != null) {
+                    snapshot.add(e);
+                }
+            }
+        }
+        final Iterator<T> it = snapshot.iterator();
+        return new Iterator<T>() {
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+            @Override
+            public T next() {
+                return it.next();
+            }
+        };
+    }
+
+    /**
+     * Keeps the hot head and tail counters off of each other's cache line.
+     */
+    @SuppressWarnings("unused")
+    static private class PaddedAtomicLong extends AtomicLong {
+        private long p1, p2, p3, p4, p5, p6, p7;
+    }
+
+}
@@ -0,0 +1,255 @@
+/*
+ * Copyright 2019 Fizzed, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fizzed.executors.impl;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+/**
+ * Lock-free queue that hands out tasks by rank (lowest first, ties in the
+ * order they were offered) rather than FIFO.  A task's rank is computed once
+ * when it is offered -- see TaskQueues.priority() and TaskQueues.deadline()
+ * for ranks that age or follow a deadline.  Urgent tasks bypass the ranking
+ * entirely via a FIFO fast lane that is always drained first.
+ *
+ * Backed by a concurrent skip list, so producers and workers don't serialize
+ * on a single lock the way they do with a PriorityBlockingQueue.
+ *
+ * This queue does not block -- wrap it in a WaitingBlockingQueue to use it as
+ * a task queue.
+ */
+public class PriorityTaskQueue<T> extends AbstractQueue<T> {
+
+    static private class Entry<T> implements Comparable<Entry<T>> {
+        private final long rank;
+        private final long seq;
+        private final T task;
+
+        public Entry(long rank, long seq, T task) {
+            this.rank = rank;
+            this.seq = seq;
+            this.task = task;
+        }
+
+        @Override
+        public int compareTo(Entry<T> o) {
+            final int c = Long.compare(this.rank, o.rank);
+            return c != 0 ? c : Long.compare(this.seq, o.seq);
+        }
+    }
+    
+    private final int capacity;
+    private final ToLongFunction<T> rankFunction;
+    private final Predicate<T> urgentPredicate;
+    private final ConcurrentSkipListSet<Entry<T>> ranked;
+    private final ConcurrentLinkedQueue<T> fastLane;
+    private final AtomicLong seqs;
+    private final AtomicInteger size;
+
+    /**
+     * @param capacity the max number of tasks (Integer.MAX_VALUE for unbounded)
+     * @param rankFunction computes the rank of a task as it is offered
+     * @param urgentPredicate whether a task goes in the fast lane (null for
+     *      no fast lane)
+     */
+    public PriorityTaskQueue(
+            int capacity,
+            ToLongFunction<T> rankFunction,
+            Predicate<T> urgentPredicate) {
+        
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be >= 1");
+        }
+        if (rankFunction == null) {
+            throw new NullPointerException("rankFunction was null");
+        }
+        
+        this.capacity = capacity;
+        this.rankFunction = rankFunction;
+        this.urgentPredicate = urgentPredicate;
+        this.ranked = new ConcurrentSkipListSet<>();
+        this.fastLane = new ConcurrentLinkedQueue<>();
+        this.seqs = new AtomicLong();
+        this.size = new AtomicInteger();
+    }
+
+    public int capacity() {
+        return this.capacity;
+    }
+    
+    /**
+     * Number of urgent tasks waiting in the fast lane.
+     */
+    public int getFastLaneSize() {
+        return this.fastLane.size();
+    }
+
+    @Override
+    public boolean offer(T e) {
+        if (e == null) {
+            throw new NullPointerException();
+        }
+        
+        // reserve room first, so we never go over capacity
+        int current;
+        do {
+            current = this.size.get();
+            if (current >= this.capacity) {
+                return false;
+            }
+        } while (!this.size.compareAndSet(current, current + 1));
+        
+        if (this.urgentPredicate != null && this.urgentPredicate.test(e)) {
+            this.fastLane.offer(e);
+        } else {
+            this.ranked.add(new Entry<>(this.rankFunction.applyAsLong(e), this.seqs.getAndIncrement(), e));
+        }
+        
+        return true;
+    }
+
+    @Override
+    public T poll() {
+        T task = this.fastLane.poll();
+        
+        if (task == null) {
+            final Entry<T> entry = this.ranked.pollFirst();
+            if (entry == null) {
+                return null;
+            }
+            task = entry.task;
+        }
+        
+        this.size.decrementAndGet();
+        return task;
+    }
+
+    /**
+     * Removes the task that would be handed out last: the highest ranked one,
+     * or if only urgent tasks are waiting, the oldest of those.  What gets
+     * dropped to make room, since the head is the most urgent task of all.
+     */
+    public T pollLast() {
+        T task;
+        
+        final Entry<T> entry = this.ranked.pollLast();
+        if (entry != null) {
+            task = entry.task;
+        } else {
+            task = this.fastLane.poll();
+            if (task == null) {
+                return null;
+            }
+        }
+        
+        this.size.decrementAndGet();
+        return task;
+    }
+    
+    @Override
+    public boolean remove(Object o) {
+        if (o == null) {
+            return false;
+        }
+        
+        if (this.fastLane.remove(o)) {
+            this.size.decrementAndGet();
+            return true;
+        }
+        
+        for (Entry<T> entry : this.ranked) {
+            if (o.equals(entry.task) && this.ranked.remove(entry)) {
+                this.size.decrementAndGet();
+                return true;
+            }
+        }
+        
+        return false;
+    }
+    
+    @Override
+    public T peek() {
+        final T task = this.fastLane.peek();
+        if (task != null) {
+            return task;
+        }
+        
+        // may have been taken in the meantime
+        try {
+            return this.ranked.first().task;
+        } catch (NoSuchElementException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public int size() {
+        return Math.max(0, this.size.get());
+    }
+
+    /**
+     * A weakly consistent snapshot in the order tasks would be polled (as of
+     * now).  Remove takes the task out of the queue (if still there).
+     */
+    @Override
+    public Iterator<T> iterator() {
+        final List<T> urgent = new ArrayList<>(this.fastLane);
+        final List<Entry<T>> entries = new ArrayList<>(this.ranked);
+        
+        return new Iterator<T>() {
+            private int index = 0;
+            private int last = -1;
+            
+            @Override
+            public boolean hasNext() {
+                return this.index < urgent.size() + entries.size();
+            }
+
+            @Override
+            public T next() {
+                if (!this.hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                this.last = this.index++;
+                return this.last < urgent.size() ? urgent.get(this.last) : entries.get(this.last - urgent.size()).task;
+            }
+
+            @Override
+            public void remove() {
+                if (this.last < 0) {
+                    throw new IllegalStateException();
+                }
+                final boolean removed = this.last < urgent.size()
+                    ? fastLane.remove(urgent.get(this.last))
+                    : ranked.remove(entries.get(this.last - urgent.size()));
+                if (removed) {
+                    size.decrementAndGet();
+                }
+                this.last = -1;
+            }
+        };
+    }
+    
+}
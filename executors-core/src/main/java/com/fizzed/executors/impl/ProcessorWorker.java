@@ -1,23 +1,79 @@
 package com.fizzed.executors.impl;
 
 import com.fizzed.executors.core.ExecuteStopException;
+import com.fizzed.executors.core.TaskInterceptor;
+import com.fizzed.executors.core.TimestampedTask;
 import com.fizzed.executors.core.Worker;
 import com.fizzed.executors.core.WorkerContext;
+import java.util.Collection;
+import java.util.Queue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import com.fizzed.executors.core.Processor;
 import org.slf4j.Logger;
 
 public class ProcessorWorker<T> implements Worker {
 
-    private final BlockingQueue<T> taskQueue;
-    private final Processor<T> processor;
+    protected final BlockingQueue<T> taskQueue;
+    // tasks taken but never run (e.g. a stop came first), which go ahead of the queue
+    protected final Queue<T> pending;
+    protected final Processor<T> processor;
+    // null (rather than empty) if none, so not intercepting costs one check
+    protected TaskInterceptor<T>[] interceptors;
+    // only recorded for timestamped tasks
+    protected final LatencyRecorder queueWait;
+    protected final LatencyRecorder total;
 
     public ProcessorWorker(
             BlockingQueue<T> taskQueue,
             Processor<T> processor) {
         
+        this(taskQueue, new ConcurrentLinkedQueue<>(), processor);
+    }
+    
+    /**
+     * @param taskQueue the queue to take tasks from
+     * @param pending where tasks taken but not run go, and are taken from
+     *      first (shared by every worker of the same queue, and kept across
+     *      restarts, so none is lost or reordered behind later tasks)
+     * @param processor the processor of the tasks
+     */
+    public ProcessorWorker(
+            BlockingQueue<T> taskQueue,
+            Queue<T> pending,
+            Processor<T> processor) {
+        
         this.taskQueue = taskQueue;
+        this.pending = pending;
         this.processor = processor;
+        this.interceptors = null;
+        this.queueWait = new LatencyRecorder();
+        this.total = new LatencyRecorder();
+    }
+
+    /**
+     * From queued until taken by this worker.
+     */
+    public LatencyRecorder getQueueWait() {
+        return queueWait;
+    }
+
+    /**
+     * From queued until processed by this worker.
+     */
+    public LatencyRecorder getTotal() {
+        return total;
+    }
+
+    public TaskInterceptor<T>[] getInterceptors() {
+        return interceptors;
+    }
+
+    /**
+     * The interceptors of the tasks (null or empty for none).
+     */
+    public void setInterceptors(TaskInterceptor<T>[] interceptors) {
+        this.interceptors = interceptors != null && interceptors.length > 0 ? interceptors : null;
     }
 
     @Override
@@ -25,6 +81,11 @@ public class ProcessorWorker<T> implements Worker {
         return this.processor.getLogger();
     }
 
+    @Override
+    public boolean acquiresPermitsPerTask() {
+        return true;
+    }
+
     @Override
     public void execute(WorkerContext context) throws ExecuteStopException, InterruptedException {
         
@@ -38,11 +99,81 @@ public class ProcessorWorker<T> implements Worker {
             
             // while we wait for a task, this actually represents another form of
             // being "idle", so we'll guard against an interrupt from really representing a stop
-            final T task = this.taskQueue.take();
+            final T task = this.take();
+            this.dequeued(task);
+            
+            final TaskInterceptor<T>[] _interceptors = this.interceptors;
+            if (_interceptors != null) {
+                for (TaskInterceptor<T> interceptor : _interceptors) {
+                    interceptor.onTaskDequeued(context, task);
+                }
+            }
+            
+            try {
+                context.acquirePermits(1);
+                context.running();
+            } catch (ExecuteStopException | InterruptedException e) {
+                // taken just as a stop was requested, so hand it back rather than lose it
+                this.requeue(task);
+                throw e;
+            }
             
-            context.running();
+            try {
+                if (_interceptors == null) {
+                    this.processor.execute(context, task);
+                } else {
+                    this.executeIntercepted(context, task, _interceptors);
+                }
+            } finally {
+                this.processed(task);
+            }
+        }
+    }
+    
+    protected void dequeued(T task) {
+        if (task instanceof TimestampedTask) {
+            this.queueWait.record(System.nanoTime() - ((TimestampedTask)task).getQueuedNanos());
+        }
+    }
+    
+    protected void processed(T task) {
+        if (task instanceof TimestampedTask) {
+            this.total.record(System.nanoTime() - ((TimestampedTask)task).getQueuedNanos());
+        }
+    }
+    
+    protected void executeIntercepted(WorkerContext context, T task, TaskInterceptor<T>[] interceptors) throws ExecuteStopException, InterruptedException {
+        for (TaskInterceptor<T> interceptor : interceptors) {
+            interceptor.beforeTask(context, task);
+        }
+        
+        final long start = System.nanoTime();
+        Throwable throwable = null;
+        try {
             this.processor.execute(context, task);
+        } catch (ExecuteStopException | InterruptedException | RuntimeException | Error e) {
+            throwable = e;
+            throw e;
+        } finally {
+            final long elapsedNanos = System.nanoTime() - start;
+            for (int i = interceptors.length - 1; i >= 0; i--) {
+                interceptors[i].afterTask(context, task, elapsedNanos, throwable);
+            }
         }
     }
     
+    protected T take() throws InterruptedException {
+        final T task = this.pending.poll();
+        
+        return task != null ? task : this.taskQueue.take();
+    }
+    
+    protected void requeue(T task) {
+        this.pending.offer(task);
+    }
+    
+    protected void requeue(Collection<T> tasks) {
+        this.pending.addAll(tasks);
+    }
+    
 }
\ No newline at end of file
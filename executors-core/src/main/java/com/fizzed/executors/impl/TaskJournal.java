@@ -0,0 +1,500 @@
+/*
+ * Copyright 2019 Fizzed, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fizzed.executors.impl;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.CRC32;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Append-only journal of tasks (as bytes) and their acknowledgements, written
+ * to fixed size segment files that are memory-mapped, so an append is just a
+ * copy into the page cache.  Durability is a group commit: a single sync
+ * thread forces the current segment to disk whenever there is something new,
+ * and every appender waiting (see awaitSynced) is released by the same force,
+ * so the number of fsyncs doesn't grow with the number of appends.
+ * 
+ * Each record is [length][crc32][type][id][payload] (an acknowledgement's
+ * payload being the id of its task) and a record that fails its checksum
+ * (e.g. torn by a crash) ends its segment.  Opening a journal
+ * scans every segment for the tasks never acknowledged (see getRecovered) and
+ * then always starts a fresh segment.  Once every task in the oldest segments
+ * has been acknowledged, those segments are deleted.
+ */
+public class TaskJournal implements Closeable {
+    static private final Logger log = LoggerFactory.getLogger(TaskJournal.class);
+    
+    static public final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+    
+    // length(4) + crc(4) + type(1) + id(8)
+    static private final int HEADER_SIZE = 17;
+    static private final byte TYPE_TASK = 1;
+    static private final byte TYPE_ACK = 2;
+    static private final long SYNC_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100L);
+    
+    static public class Entry {
+        
+        private final long id;
+        private final byte[] payload;
+
+        public Entry(long id, byte[] payload) {
+            this.id = id;
+            this.payload = payload;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public byte[] getPayload() {
+            return payload;
+        }
+        
+    }
+    
+    static private class Segment {
+        
+        private final long index;
+        private final Path file;
+        private final long firstId;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        // tasks in this segment not yet acknowledged
+        private final AtomicInteger live;
+
+        public Segment(long index, Path file, long firstId, FileChannel channel, MappedByteBuffer buffer) {
+            this.index = index;
+            this.file = file;
+            this.firstId = firstId;
+            this.channel = channel;
+            this.buffer = buffer;
+            this.live = new AtomicInteger();
+        }
+        
+    }
+    
+    private final Path directory;
+    private final int segmentSize;
+    // segments by the first id they could hold, to find the segment of an id
+    private final ConcurrentSkipListMap<Long,Segment> segments;
+    private final List<Entry> recovered;
+    private final Object writeLock;
+    private final Object syncLock;
+    private final CRC32 crc;
+    private final Thread syncThread;
+    private volatile Segment current;
+    // the last task appended (acks only ride along on the next sync)
+    private volatile long appendedId;
+    private volatile long syncedId;
+    private volatile boolean closed;
+    private long nextId;
+    
+    public TaskJournal(
+            Path directory) throws IOException {
+        
+        this(directory, DEFAULT_SEGMENT_SIZE);
+    }
+    
+    /**
+     * Opens (or creates) the journal in a directory, recovering every task
+     * that was never acknowledged.
+     * 
+     * @param directory the directory of the segment files (created if missing)
+     * @param segmentSize the size of each segment file (and so the max size of
+     *      a single task)
+     */
+    public TaskJournal(
+            Path directory,
+            int segmentSize) throws IOException {
+        
+        if (directory == null) {
+            throw new NullPointerException("directory was null");
+        }
+        // big enough for at least an ack record (header + acked id)
+        if (segmentSize < HEADER_SIZE + 8) {
+            throw new IllegalArgumentException("segmentSize must be >= " + (HEADER_SIZE + 8));
+        }
+        
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.segments = new ConcurrentSkipListMap<>();
+        this.writeLock = new Object();
+        this.syncLock = new Object();
+        this.crc = new CRC32();
+        this.nextId = 1L;
+        
+        Files.createDirectories(directory);
+        
+        this.recovered = Collections.unmodifiableList(this.recover());
+        
+        // appending always starts in a fresh segment, so whatever is past the
+        // last good record of a recovered segment is never written after
+        final Segment last = this.segments.isEmpty() ? null : this.segments.lastEntry().getValue();
+        this.current = this.openSegment(last != null ? last.index + 1L : 0L, this.nextId);
+        this.segments.put(this.current.firstId, this.current);
+        this.appendedId = this.nextId - 1L;
+        this.syncedId = this.appendedId;
+        this.deleteAcknowledged();
+        
+        this.syncThread = new Thread(this::runSync, "journal-sync-" + directory.getFileName());
+        this.syncThread.setDaemon(true);
+        this.syncThread.start();
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+    
+    public int getSegmentSize() {
+        return segmentSize;
+    }
+    
+    /**
+     * Number of segment files (including the one being appended to).
+     */
+    public int getSegmentCount() {
+        return this.segments.size();
+    }
+    
+    /**
+     * Number of tasks appended but not yet acknowledged.
+     */
+    public int getUnacknowledged() {
+        int count = 0;
+        for (Segment segment : this.segments.values()) {
+            count += segment.live.get();
+        }
+        return count;
+    }
+    
+    /**
+     * The tasks that were never acknowledged when the journal was opened, in
+     * the order they were appended.  They remain in the journal until they
+     * are acknowledged.
+     */
+    public List<Entry> getRecovered() {
+        return recovered;
+    }
+    
+    /**
+     * Appends a task, which is only on disk once awaitSynced returns.
+     * 
+     * @return the id of the task (to acknowledge it)
+     */
+    public long append(byte[] payload) {
+        if (payload == null) {
+            throw new NullPointerException("payload was null");
+        }
+        
+        return this.write(TYPE_TASK, payload, 0L);
+    }
+    
+    /**
+     * Acknowledges a task, so it won't be recovered again.  Acknowledgements
+     * are synced along with the next append (or on close) rather than waited
+     * for: one lost to a crash just means a task is recovered twice.
+     */
+    public void acknowledge(long id) {
+        this.write(TYPE_ACK, null, id);
+        
+        final Map.Entry<Long,Segment> entry = this.segments.floorEntry(id);
+        if (entry != null && entry.getValue().live.decrementAndGet() == 0) {
+            this.deleteAcknowledged();
+        }
+    }
+    
+    /**
+     * Waits until the record is on disk.
+     */
+    public void awaitSynced(long id) throws InterruptedException {
+        if (this.syncedId >= id) {
+            return;
+        }
+        
+        synchronized (this.syncLock) {
+            // closing syncs everything appended, so no need to check for it
+            while (this.syncedId < id) {
+                this.syncLock.wait();
+            }
+        }
+    }
+    
+    @Override
+    public void close() throws IOException {
+        synchronized (this.writeLock) {
+            if (this.closed) {
+                return;
+            }
+            this.closed = true;
+        }
+        
+        LockSupport.unpark(this.syncThread);
+        try {
+            this.syncThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        
+        this.sync();
+        
+        for (Segment segment : this.segments.values()) {
+            segment.channel.close();
+        }
+    }
+    
+    private long write(byte type, byte[] payload, long ackedId) {
+        final int length = HEADER_SIZE + (payload != null ? payload.length : 8);
+        
+        if (length > this.segmentSize) {
+            throw new IllegalArgumentException("Task of " + payload.length + " bytes too big for segment size of "
+                + this.segmentSize + " bytes");
+        }
+        
+        final long id;
+        synchronized (this.writeLock) {
+            if (this.closed) {
+                throw new IllegalStateException("Journal " + this.directory + " closed");
+            }
+            
+            Segment segment = this.current;
+            if (segment.buffer.remaining() < length) {
+                segment = this.roll();
+            }
+            
+            id = this.nextId++;
+            
+            final MappedByteBuffer buffer = segment.buffer;
+            final int position = buffer.position();
+            buffer.position(position + 8);
+            buffer.put(type);
+            buffer.putLong(id);
+            if (payload != null) {
+                buffer.put(payload);
+            } else {
+                buffer.putLong(ackedId);
+            }
+            
+            final ByteBuffer checked = buffer.duplicate();
+            checked.position(position + 8);
+            checked.limit(position + length);
+            this.crc.reset();
+            this.crc.update(checked);
+            
+            // the length last, since a zero length is where recovery stops
+            buffer.putInt(position + 4, (int)this.crc.getValue());
+            buffer.putInt(position, length);
+            
+            if (type == TYPE_TASK) {
+                segment.live.incrementAndGet();
+                // acks don't move this, so they are synced along with the next task
+                this.appendedId = id;
+            }
+        }
+        
+        if (type == TYPE_TASK) {
+            LockSupport.unpark(this.syncThread);
+        }
+        
+        return id;
+    }
+    
+    private Segment roll() {
+        final Segment previous = this.current;
+        
+        // everything before the current segment is always on disk
+        previous.buffer.force();
+        
+        try {
+            this.current = this.openSegment(previous.index + 1L, this.nextId);
+            this.segments.put(this.current.firstId, this.current);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to roll journal " + this.directory, e);
+        }
+        
+        return this.current;
+    }
+    
+    private void runSync() {
+        while (!this.closed) {
+            // read the id first: anything up to it is either in the current
+            // segment or one forced when it rolled
+            final long target = this.appendedId;
+            
+            if (target == this.syncedId) {
+                LockSupport.parkNanos(this, SYNC_PARK_NANOS);
+                continue;
+            }
+            
+            try {
+                this.current.buffer.force();
+            } catch (Throwable t) {
+                log.error("Journal {} sync failed (will retry)", this.directory, t);
+                LockSupport.parkNanos(this, SYNC_PARK_NANOS);
+                continue;
+            }
+            
+            this.synced(target);
+        }
+    }
+    
+    private void sync() {
+        final long target = this.appendedId;
+        this.current.buffer.force();
+        this.synced(target);
+    }
+    
+    private void synced(long target) {
+        synchronized (this.syncLock) {
+            this.syncedId = target;
+            this.syncLock.notifyAll();
+        }
+    }
+    
+    private Segment openSegment(long index, long firstId) throws IOException {
+        final Path file = this.directory.resolve(String.format("journal-%020d.log", index));
+        final FileChannel channel = FileChannel.open(file,
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        
+        try {
+            final long size = Math.max(channel.size(), this.segmentSize);
+            return new Segment(index, file, firstId, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0L, size));
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+    
+    /**
+     * Deletes the oldest segments that have nothing left to acknowledge.  Only
+     * ever the oldest: a later segment may hold the acknowledgement of a task
+     * in an earlier one.
+     */
+    private void deleteAcknowledged() {
+        synchronized (this.writeLock) {
+            Map.Entry<Long,Segment> entry;
+            while ((entry = this.segments.firstEntry()) != null) {
+                final Segment segment = entry.getValue();
+                if (segment == this.current || segment.live.get() > 0) {
+                    return;
+                }
+                
+                this.segments.remove(entry.getKey());
+                try {
+                    segment.channel.close();
+                    Files.deleteIfExists(segment.file);
+                    log.debug("Journal {} deleted segment {}", this.directory, segment.file.getFileName());
+                } catch (IOException e) {
+                    // e.g. still mapped on windows, and since everything in
+                    // it was acknowledged, the next open will try again
+                    log.warn("Journal {} unable to delete segment {}: {}", this.directory,
+                        segment.file.getFileName(), e.getMessage());
+                }
+            }
+        }
+    }
+    
+    private List<Entry> recover() throws IOException {
+        final List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(this.directory, "journal-*.log")) {
+            stream.forEach(files::add);
+        }
+        Collections.sort(files);
+        
+        final LinkedHashMap<Long,Entry> pending = new LinkedHashMap<>();
+        final Map<Long,Segment> segmentOfTask = new LinkedHashMap<>();
+        
+        for (Path file : files) {
+            final String name = file.getFileName().toString();
+            final long index = Long.parseLong(name.substring("journal-".length(), name.length() - ".log".length()));
+            final Segment segment = this.openSegment(index, this.nextId);
+            final ByteBuffer buffer = segment.buffer.duplicate();
+            
+            int position = 0;
+            while (position + HEADER_SIZE <= buffer.capacity()) {
+                final int length = buffer.getInt(position);
+                if (length == 0) {
+                    break;
+                }
+                if (length < HEADER_SIZE || position + length > buffer.capacity() || !this.checksumOk(buffer, position, length)) {
+                    log.warn("Journal {} segment {} has a bad record at {} (ignoring the rest of it)",
+                        this.directory, name, position);
+                    break;
+                }
+                
+                final byte type = buffer.get(position + 8);
+                final long id = buffer.getLong(position + 9);
+                
+                if (type == TYPE_TASK) {
+                    final byte[] payload = new byte[length - HEADER_SIZE];
+                    buffer.position(position + HEADER_SIZE);
+                    buffer.get(payload);
+                    pending.put(id, new Entry(id, payload));
+                    segmentOfTask.put(id, segment);
+                    segment.live.incrementAndGet();
+                } else {
+                    final long ackedId = buffer.getLong(position + HEADER_SIZE);
+                    if (pending.remove(ackedId) != null) {
+                        segmentOfTask.remove(ackedId).live.decrementAndGet();
+                    }
+                }
+                
+                this.nextId = Math.max(this.nextId, id + 1L);
+                position += length;
+            }
+            
+            if (position == 0) {
+                // nothing in it (e.g. never appended to before a restart)
+                segment.channel.close();
+                Files.deleteIfExists(file);
+            } else {
+                this.segments.put(segment.firstId, segment);
+            }
+        }
+        
+        log.debug("Journal {} recovered {} unacknowledged task(s) from {} segment(s)",
+            this.directory, pending.size(), files.size());
+        
+        return new ArrayList<>(pending.values());
+    }
+    
+    private boolean checksumOk(ByteBuffer buffer, int position, int length) {
+        final ByteBuffer checked = buffer.duplicate();
+        checked.position(position + 8);
+        checked.limit(position + length);
+        this.crc.reset();
+        this.crc.update(checked);
+        return (int)this.crc.getValue() == buffer.getInt(position + 4);
+    }
+    
+}
@@ -0,0 +1,324 @@
+/*
+ * Copyright 2019 Fizzed, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fizzed.executors.impl;
+
+import com.fizzed.crux.util.TimeDuration;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Hierarchical timing wheel (as in Varghese &amp; Lauck, Kafka, etc.) that hands
+ * each scheduled task to a consumer once it is due.  Every level has 256
+ * buckets, each level's bucket spanning all of the level below it, so 5 levels
+ * of 1ms ticks cover ~34 years.  Scheduling is O(1) no matter how many timers
+ * are pending: producers only push onto a lock-free inbox, and a single timer
+ * thread moves timers into their bucket and cascades them down a level as
+ * they get closer (rather than re-sorting a heap like a DelayQueue).  A
+ * bitmap of the occupied buckets of each level lets the timer thread sleep
+ * straight through to the next bucket that fires or cascades, so a lone timer
+ * an hour out costs a handful of wakeups, not one per tick.
+ * 
+ * The timer thread is started on demand and exits after being idle (nothing
+ * pending) for a while.  Tasks are handed to the consumer on the timer thread,
+ * so the consumer should be quick (e.g. submit to a queue).  Due times are
+ * rounded up to the next tick, and tasks due in the same tick are handed off
+ * in no particular order.  Each task can carry an int tag (e.g. which queue
+ * it is due on) that is handed back with it, so callers don't need to wrap
+ * tasks to remember one.
+ */
+public class TimingWheel<T> {
+    static private final Logger log = LoggerFactory.getLogger(TimingWheel.class);
+    
+    static private final int BUCKET_BITS = 8;
+    static private final int BUCKET_COUNT = 1 << BUCKET_BITS;
+    static private final int BUCKET_MASK = BUCKET_COUNT - 1;
+    static private final int BITMAP_WORDS = BUCKET_COUNT / 64;
+    static private final int LEVELS = 5;
+    static private final long MAX_TICKS = (1L << (BUCKET_BITS * LEVELS)) - 1L;
+    static private final long IDLE_NANOS = TimeUnit.SECONDS.toNanos(30L);
+
+    static private class Timer<T> {
+        private final long deadlineTick;
+        private final T task;
+        private final int tag;
+        private Timer<T> next;
+
+        public Timer(long deadlineTick, T task, int tag) {
+            this.deadlineTick = deadlineTick;
+            this.task = task;
+            this.tag = tag;
+        }
+    }
+    
+    private final String name;
+    private final long tickNanos;
+    private final ObjIntConsumer<T> expired;
+    private final long startNanos;
+    private final ConcurrentLinkedQueue<Timer<T>> inbox;
+    private final AtomicInteger pending;
+    private final AtomicBoolean running;
+    private volatile Thread thread;
+    // only ever touched by the timer thread
+    private final Timer<T>[][] buckets;
+    private final long[][] occupied;
+    private long currentTick;
+    private int scheduled;
+
+    public TimingWheel(
+            String name,
+            TimeDuration tick,
+            Consumer<T> expired) {
+        
+        this(name, tick, expired != null ? (task, tag) -> expired.accept(task) : null);
+    }
+    
+    /**
+     * @param name the name of the timer thread
+     * @param tick the resolution of due times
+     * @param expired called on the timer thread with each task (and its tag)
+     *      once due
+     */
+    @SuppressWarnings("unchecked")
+    public TimingWheel(
+            String name,
+            TimeDuration tick,
+            ObjIntConsumer<T> expired) {
+        
+        if (tick == null || tick.asNanos() <= 0L) {
+            throw new IllegalArgumentException("tick must be > 0");
+        }
+        if (expired == null) {
+            throw new NullPointerException("expired was null");
+        }
+        
+        this.name = name;
+        this.tickNanos = tick.asNanos();
+        this.expired = expired;
+        this.startNanos = System.nanoTime();
+        this.inbox = new ConcurrentLinkedQueue<>();
+        this.pending = new AtomicInteger();
+        this.running = new AtomicBoolean();
+        this.buckets = new Timer[LEVELS][BUCKET_COUNT];
+        this.occupied = new long[LEVELS][BITMAP_WORDS];
+        this.currentTick = 0L;
+        this.scheduled = 0;
+    }
+
+    /**
+     * Number of tasks scheduled but not yet due.
+     */
+    public int getPending() {
+        return this.pending.get();
+    }
+    
+    /**
+     * Schedules the task to be handed to the consumer after the delay.
+     */
+    public void schedule(T task, long delay, TimeUnit unit) {
+        this.schedule(task, 0, delay, unit);
+    }
+    
+    /**
+     * Schedules the task to be handed to the consumer (along with the tag)
+     * after the delay.
+     */
+    public void schedule(T task, int tag, long delay, TimeUnit unit) {
+        if (task == null) {
+            throw new NullPointerException("task was null");
+        }
+        
+        // the first tick that starts at or after the due time
+        final long dueNanos = System.nanoTime() - this.startNanos + Math.max(0L, unit.toNanos(delay));
+        final long deadlineTick = Math.min((dueNanos + this.tickNanos - 1L) / this.tickNanos, this.nowTick() + MAX_TICKS);
+        
+        this.pending.incrementAndGet();
+        this.inbox.offer(new Timer<>(deadlineTick, task, tag));
+        
+        if (!this.running.get() && this.running.compareAndSet(false, true)) {
+            final Thread t = new Thread(this::run, this.name);
+            t.setDaemon(true);
+            this.thread = t;
+            t.start();
+        } else {
+            LockSupport.unpark(this.thread);
+        }
+    }
+    
+    private long nowTick() {
+        return (System.nanoTime() - this.startNanos) / this.tickNanos;
+    }
+    
+    private void run() {
+        long idleSince = System.nanoTime();
+        
+        for (;;) {
+            if (this.scheduled == 0) {
+                // nothing in the wheel, so no need to walk the ticks that went by
+                this.currentTick = Math.max(this.currentTick, this.nowTick());
+            }
+            
+            Timer<T> timer;
+            while ((timer = this.inbox.poll()) != null) {
+                this.scheduled++;
+                this.place(timer);
+            }
+            
+            if (this.scheduled > 0) {
+                final long nowTick = this.nowTick();
+                while (this.currentTick < nowTick && this.scheduled > 0) {
+                    // nothing fires or cascades in the ticks before the next event, so skip them
+                    final long nextTick = this.nextEventTick();
+                    if (nextTick > nowTick) {
+                        this.currentTick = nowTick;
+                        break;
+                    }
+                    this.currentTick = nextTick - 1L;
+                    this.advance();
+                }
+                if (this.scheduled > 0) {
+                    LockSupport.parkNanos(this, this.startNanos + this.nextEventTick() * this.tickNanos - System.nanoTime());
+                }
+                idleSince = System.nanoTime();
+            } else if (System.nanoTime() - idleSince < IDLE_NANOS) {
+                LockSupport.parkNanos(this, IDLE_NANOS);
+            } else {
+                // exit, unless something was scheduled while we decided to
+                this.running.set(false);
+                if (this.inbox.isEmpty() || !this.running.compareAndSet(false, true)) {
+                    return;
+                }
+            }
+        }
+    }
+    
+    private void advance() {
+        final long tick = ++this.currentTick;
+        
+        // cascade from the highest level whose bucket just came around, down
+        for (int level = LEVELS - 1; level > 0; level--) {
+            final int shift = level * BUCKET_BITS;
+            if ((tick & ((1L << shift) - 1L)) == 0L) {
+                final int index = (int)(tick >>> shift) & BUCKET_MASK;
+                Timer<T> timer = this.buckets[level][index];
+                this.buckets[level][index] = null;
+                this.clearOccupied(level, index);
+                while (timer != null) {
+                    final Timer<T> next = timer.next;
+                    timer.next = null;
+                    this.place(timer);
+                    timer = next;
+                }
+            }
+        }
+        
+        final int index = (int)tick & BUCKET_MASK;
+        Timer<T> timer = this.buckets[0][index];
+        this.buckets[0][index] = null;
+        this.clearOccupied(0, index);
+        while (timer != null) {
+            final Timer<T> next = timer.next;
+            timer.next = null;
+            this.fire(timer);
+            timer = next;
+        }
+    }
+    
+    private void place(Timer<T> timer) {
+        final long delta = timer.deadlineTick - this.currentTick;
+        
+        if (delta <= 0L) {
+            this.fire(timer);
+            return;
+        }
+        
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= (1L << ((level + 1) * BUCKET_BITS))) {
+            level++;
+        }
+        
+        final int index = (int)(timer.deadlineTick >>> (level * BUCKET_BITS)) & BUCKET_MASK;
+        timer.next = this.buckets[level][index];
+        this.buckets[level][index] = timer;
+        this.occupied[level][index >>> 6] |= 1L << index;
+    }
+    
+    private void clearOccupied(int level, int index) {
+        this.occupied[level][index >>> 6] &= ~(1L << index);
+    }
+    
+    /**
+     * The next tick (after the current one) at which a level 0 bucket fires or
+     * a higher level bucket cascades.
+     */
+    private long nextEventTick() {
+        long next = Long.MAX_VALUE;
+        
+        for (int level = 0; level < LEVELS; level++) {
+            final int shift = level * BUCKET_BITS;
+            // the next tick this level's buckets come around at (every tick for level 0)
+            final long nextRound = (this.currentTick >>> shift) + 1L;
+            final int distance = nextOccupied(this.occupied[level], (int)nextRound & BUCKET_MASK);
+            if (distance >= 0) {
+                next = Math.min(next, (nextRound + distance) << shift);
+            }
+        }
+        
+        // only if the wheel is empty, which callers check for
+        return next != Long.MAX_VALUE ? next : this.currentTick + 1L;
+    }
+    
+    /**
+     * How many buckets on from the bucket index the first occupied one is
+     * (wrapping around), or -1 if none are.
+     */
+    static private int nextOccupied(long[] bitmap, int from) {
+        final int fromWord = from >>> 6;
+        
+        for (int i = 0; i <= BITMAP_WORDS; i++) {
+            final int word = (fromWord + i) % BITMAP_WORDS;
+            long bits = bitmap[word];
+            if (i == 0) {
+                bits &= -1L << from;                // at or after from
+            } else if (i == BITMAP_WORDS) {
+                bits &= ~(-1L << from);             // wrapped back around, before from
+            }
+            if (bits != 0L) {
+                final int index = (word << 6) | Long.numberOfTrailingZeros(bits);
+                return (index - from) & BUCKET_MASK;
+            }
+        }
+        
+        return -1;
+    }
+    
+    private void fire(Timer<T> timer) {
+        this.scheduled--;
+        this.pending.decrementAndGet();
+        try {
+            this.expired.accept(timer.task, timer.tag);
+        } catch (Throwable t) {
+            log.error("{}: unable to hand off due task", this.name, t);
+        }
+    }
+    
+}
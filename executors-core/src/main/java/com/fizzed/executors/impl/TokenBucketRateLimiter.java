@@ -0,0 +1,75 @@
+/*
+ * Copyright 2019 Fizzed, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fizzed.executors.impl;
+
+import com.fizzed.executors.core.RateLimiter;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket as a generic cell rate algorithm: rather than a token count and
+ * a refill timestamp (which would need a lock to update together), its whole
+ * state is the time at which the bucket would be full again, so taking
+ * permits is a single CAS.  Each permit pushes that time out by the interval
+ * between permits, and permits are only handed out while it is no more than
+ * the burst ahead of now.
+ */
+public class TokenBucketRateLimiter implements RateLimiter {
+    
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final AtomicLong fullAt;
+
+    public TokenBucketRateLimiter(
+            double permitsPerSecond,
+            int burst) {
+        
+        if (!(permitsPerSecond > 0.0d)) {
+            throw new IllegalArgumentException("permitsPerSecond must be > 0");
+        }
+        if (burst < 1) {
+            throw new IllegalArgumentException("burst must be >= 1");
+        }
+        
+        this.intervalNanos = Math.max(1L, Math.round(TimeUnit.SECONDS.toNanos(1L) / permitsPerSecond));
+        this.burstNanos = this.intervalNanos * burst;
+        // starts full
+        this.fullAt = new AtomicLong(System.nanoTime());
+    }
+
+    @Override
+    public long tryAcquire(int permits) {
+        final long cost = this.intervalNanos * Math.max(1, permits);
+        // more permits than the burst are only ever available all at once from full
+        final long limit = Math.max(this.burstNanos, cost);
+        
+        for (;;) {
+            final long now = System.nanoTime();
+            final long current = this.fullAt.get();
+            final long next = (current - now > 0L ? current : now) + cost;
+            final long over = next - now - limit;
+            
+            if (over > 0L) {
+                return over;
+            }
+            
+            if (this.fullAt.compareAndSet(current, next)) {
+                return 0L;
+            }
+        }
+    }
+    
+}
@@ -0,0 +1,313 @@
+/*
+ * Copyright 2025 Fizzed, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fizzed.executors.impl;
+
+import com.fizzed.executors.core.WaitStrategy;
+import java.util.AbstractQueue;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Adapts a non-blocking concurrent queue (e.g. a MpmcRingQueue) into a
+ * BlockingQueue.  Rather than locks and conditions, waiting for an element (or
+ * for space) is done with a WaitStrategy, so neither side ever takes a lock.
+ * Once a PARK strategy has backed off to its cap, the waiter parks until an
+ * offer (or poll, when waiting for space) wakes it.
+ */
+public class WaitingBlockingQueue<T> extends AbstractQueue<T> implements BlockingQueue<T> {
+
+    private final Queue<T> queue;
+    private final WaitStrategy waitStrategy;
+    private final Queue<Thread> takers;         // parked waiting for an element
+    private final Queue<Thread> putters;        // parked waiting for space
+
+    public WaitingBlockingQueue(
+            Queue<T> queue,
+            WaitStrategy waitStrategy) {
+
+        if (queue == null) {
+            throw new NullPointerException("queue was null");
+        }
+        if (waitStrategy == null) {
+            throw new NullPointerException("waitStrategy was null");
+        }
+
+        this.queue = queue;
+        this.waitStrategy = waitStrategy;
+        this.takers = new ConcurrentLinkedQueue<>();
+        this.putters = new ConcurrentLinkedQueue<>();
+    }
+
+    public WaitStrategy getWaitStrategy() {
+        return waitStrategy;
+    }
+
+    @Override
+    public boolean offer(T e) {
+        if (!this.queue.offer(e)) {
+            return false;
+        }
+        signal(this.takers);
+        return true;
+    }
+
+    @Override
+    public T poll() {
+        final T e = this.queue.poll();
+        if (e != null) {
+            signal(this.putters);
+        }
+        return e;
+    }
+
+    @Override
+    public T peek() {
+        return this.queue.peek();
+    }
+
+    @Override
+    public int size() {
+        return this.queue.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.queue.isEmpty();
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return this.queue.iterator();
+    }
+
+    /**
+     * Removes the element, if the wrapped queue supports it (a MpmcRingQueue
+     * does not, and throws an UnsupportedOperationException).
+     */
+    @Override
+    public boolean remove(Object o) {
+        if (!this.queue.remove(o)) {
+            return false;
+        }
+        signal(this.putters);
+        return true;
+    }
+    
+    /**
+     * Removes the element to drop when making room: the one a PriorityTaskQueue
+     * would hand out last (its head is its most urgent), otherwise the oldest
+     * (the head).
+     */
+    public T pollDroppable() {
+        if (this.queue instanceof PriorityTaskQueue) {
+            return ((PriorityTaskQueue<T>)this.queue).pollLast();
+        }
+        return this.queue.poll();
+    }
+
+    @Override
+    public void put(T e) throws InterruptedException {
+        int attempt = 0;
+        while (!this.offer(e)) {
+            if (this.waitStrategy.blocks(attempt)) {
+                if (this.awaitSpace(e, false, 0L)) {
+                    return;
+                }
+            } else {
+                this.waitStrategy.idle(attempt++);
+            }
+        }
+    }
+
+    @Override
+    public boolean offer(T e, long timeout, TimeUnit unit) throws InterruptedException {
+        if (this.offer(e)) {
+            return true;
+        }
+
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        int attempt = 0;
+        do {
+            if (deadline - System.nanoTime() <= 0L) {
+                return false;
+            }
+            if (this.waitStrategy.blocks(attempt)) {
+                if (this.awaitSpace(e, true, deadline)) {
+                    return true;
+                }
+            } else {
+                this.waitStrategy.idle(attempt++);
+            }
+        } while (!this.offer(e));
+
+        return true;
+    }
+
+    @Override
+    public T take() throws InterruptedException {
+        T e;
+        int attempt = 0;
+        while ((e = this.poll()) == null) {
+            if (this.waitStrategy.blocks(attempt)) {
+                if ((e = this.awaitElement(false, 0L)) != null) {
+                    return e;
+                }
+            } else {
+                this.waitStrategy.idle(attempt++);
+            }
+        }
+        return e;
+    }
+
+    @Override
+    public T poll(long timeout, TimeUnit unit) throws InterruptedException {
+        T e = this.poll();
+        if (e != null) {
+            return e;
+        }
+
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        int attempt = 0;
+        do {
+            if (deadline - System.nanoTime() <= 0L) {
+                return null;
+            }
+            if (this.waitStrategy.blocks(attempt)) {
+                if ((e = this.awaitElement(true, deadline)) != null) {
+                    return e;
+                }
+            } else {
+                this.waitStrategy.idle(attempt++);
+            }
+        } while ((e = this.poll()) == null);
+
+        return e;
+    }
+    
+    /**
+     * Parks until an offer wakes us (or the deadline passes), then tries for
+     * an element again.  Since the waiter registers before its final check, an
+     * element offered in the meantime is never missed.
+     */
+    private T awaitElement(boolean timed, long deadline) throws InterruptedException {
+        final Thread thread = Thread.currentThread();
+        this.takers.offer(thread);
+        T e = null;
+        try {
+            if ((e = this.poll()) != null) {
+                return e;
+            }
+            park(timed, deadline);
+            return (e = this.poll());
+        } finally {
+            // woken for an element we didn't take? pass it on to the next one
+            if (!this.takers.remove(thread) && e == null && !this.queue.isEmpty()) {
+                signal(this.takers);
+            }
+        }
+    }
+    
+    /**
+     * Parks until a poll wakes us (or the deadline passes), then tries to offer
+     * the element again.
+     */
+    private boolean awaitSpace(T e, boolean timed, long deadline) throws InterruptedException {
+        final Thread thread = Thread.currentThread();
+        this.putters.offer(thread);
+        boolean offered = false;
+        try {
+            if ((offered = this.offer(e))) {
+                return true;
+            }
+            park(timed, deadline);
+            return (offered = this.offer(e));
+        } finally {
+            // woken for space we didn't use? pass it on to the next one
+            if (!this.putters.remove(thread) && !offered && this.remainingCapacity() > 0) {
+                signal(this.putters);
+            }
+        }
+    }
+    
+    private void park(boolean timed, long deadline) throws InterruptedException {
+        if (timed) {
+            final long remainingNanos = deadline - System.nanoTime();
+            if (remainingNanos > 0L) {
+                LockSupport.parkNanos(this, remainingNanos);
+            }
+        } else {
+            LockSupport.park(this);
+        }
+        
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+    }
+    
+    static private void signal(Queue<Thread> waiters) {
+        // cheap when nobody is parked, which is the common case while busy
+        if (!waiters.isEmpty()) {
+            final Thread waiter = waiters.poll();
+            if (waiter != null) {
+                LockSupport.unpark(waiter);
+            }
+        }
+    }
+
+    @Override
+    public int remainingCapacity() {
+        if (this.queue instanceof MpmcRingQueue) {
+            return Math.max(0, ((MpmcRingQueue<T>)this.queue).capacity() - this.queue.size());
+        }
+        if (this.queue instanceof PriorityTaskQueue) {
+            return Math.max(0, ((PriorityTaskQueue<T>)this.queue).capacity() - this.queue.size());
+        }
+        if (this.queue instanceof BlockingQueue) {
+            return ((BlockingQueue<T>)this.queue).remainingCapacity();
+        }
+        return Integer.MAX_VALUE;
+    }
+
+    @Override
+    public int drainTo(Collection<? super T> c) {
+        return this.drainTo(c, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(Collection<? super T> c, int maxElements) {
+        if (c == this) {
+            throw new IllegalArgumentException();
+        }
+
+        int n = 0;
+        T e;
+        while (n < maxElements && (e = this.queue.poll()) != null) {
+            c.add(e);
+            n++;
+        }
+        // room for up to n waiting puts
+        for (int i = 0; i < n && !this.putters.isEmpty(); i++) {
+            signal(this.putters);
+        }
+        return n;
+    }
+
+}
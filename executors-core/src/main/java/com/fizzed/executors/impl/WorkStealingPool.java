@@ -0,0 +1,196 @@
+/*
+ * Copyright 2019 Fizzed, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fizzed.executors.impl;
+
+import java.util.Deque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The queues of a work-stealing service: a shared queue that tasks from
+ * outside are submitted to, and a deque per worker.  A worker pushes and pops
+ * its own deque at the head (LIFO, for cache locality) while other workers
+ * steal from the tail (the oldest tasks, which tend to fan out the most).
+ * Everything is lock-free, except (un)registering a worker.  Workers that
+ * have been idle a while park until a submit wakes one of them (see await).
+ */
+public class WorkStealingPool<T> {
+
+    @SuppressWarnings("rawtypes")
+    static private final Deque[] EMPTY = new Deque[0];
+    
+    private final Queue<T> submitted;
+    private final Queue<Thread> waiters;
+    private final Object registerLock;
+    // copied on (un)register, so stealing can walk it without allocating
+    private volatile Deque<T>[] deques;
+
+    @SuppressWarnings("unchecked")
+    public WorkStealingPool() {
+        this.submitted = new ConcurrentLinkedQueue<>();
+        this.waiters = new ConcurrentLinkedQueue<>();
+        this.registerLock = new Object();
+        this.deques = EMPTY;
+    }
+    
+    public Deque<T> newDeque() {
+        return new ConcurrentLinkedDeque<>();
+    }
+    
+    @SuppressWarnings("unchecked")
+    public void register(Deque<T> deque) {
+        synchronized (this.registerLock) {
+            final Deque<T>[] current = this.deques;
+            final Deque<T>[] updated = new Deque[current.length + 1];
+            System.arraycopy(current, 0, updated, 0, current.length);
+            updated[current.length] = deque;
+            this.deques = updated;
+        }
+    }
+    
+    /**
+     * Unregisters a worker's deque, handing any tasks left on it back to the
+     * shared queue (oldest first) for the other (or next) workers.
+     */
+    @SuppressWarnings("unchecked")
+    public void unregister(Deque<T> deque) {
+        synchronized (this.registerLock) {
+            final Deque<T>[] current = this.deques;
+            for (int i = 0; i < current.length; i++) {
+                if (current[i] == deque) {
+                    final Deque<T>[] updated = new Deque[current.length - 1];
+                    System.arraycopy(current, 0, updated, 0, i);
+                    System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                    this.deques = updated;
+                    break;
+                }
+            }
+        }
+        
+        T task;
+        while ((task = deque.pollLast()) != null) {
+            this.submitted.offer(task);
+            this.signal();
+        }
+    }
+    
+    public void submit(T task) {
+        if (task == null) {
+            throw new NullPointerException("task was null");
+        }
+        this.submitted.offer(task);
+        this.signal();
+    }
+    
+    /**
+     * Wakes one parked worker (if any), e.g. after a task was pushed onto a
+     * deque it could steal from.
+     */
+    public void signal() {
+        // cheap when nobody is parked, which is the common case while busy
+        if (!this.waiters.isEmpty()) {
+            final Thread waiter = this.waiters.poll();
+            if (waiter != null) {
+                LockSupport.unpark(waiter);
+            }
+        }
+    }
+    
+    /**
+     * Parks the worker until a submit (or signal) wakes it, then tries for the
+     * next task again.  Since the worker registers as a waiter before its
+     * final check, a task submitted in the meantime is never missed.
+     * 
+     * @return the next task, or null if woken but none was left
+     * @throws InterruptedException if the thread was interrupted
+     */
+    public T await(Deque<T> own) throws InterruptedException {
+        final Thread thread = Thread.currentThread();
+        this.waiters.offer(thread);
+        try {
+            final T task = this.next(own);
+            if (task != null) {
+                return task;
+            }
+            
+            LockSupport.park(this);
+            
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            
+            return this.next(own);
+        } finally {
+            // already gone if a submit woke us
+            this.waiters.remove(thread);
+        }
+    }
+    
+    /**
+     * The next task for a worker: from its own deque, else the shared queue,
+     * else stolen from another worker.
+     */
+    public T next(Deque<T> own) {
+        T task = own.pollFirst();
+        if (task != null) {
+            return task;
+        }
+        
+        task = this.submitted.poll();
+        if (task != null) {
+            return task;
+        }
+        
+        return this.steal(own);
+    }
+    
+    private T steal(Deque<T> own) {
+        final Deque<T>[] victims = this.deques;
+        final int n = victims.length;
+        if (n <= 1) {
+            return null;
+        }
+        
+        // start somewhere random so thieves spread out
+        final int start = ThreadLocalRandom.current().nextInt(n);
+        for (int i = 0; i < n; i++) {
+            final Deque<T> victim = victims[(start + i) % n];
+            if (victim != own) {
+                final T task = victim.pollLast();
+                if (task != null) {
+                    return task;
+                }
+            }
+        }
+        
+        return null;
+    }
+    
+    /**
+     * Number of tasks waiting, in the shared queue and on all the deques.
+     */
+    public int size() {
+        int size = this.submitted.size();
+        for (Deque<T> deque : this.deques) {
+            size += deque.size();
+        }
+        return size;
+    }
+    
+}
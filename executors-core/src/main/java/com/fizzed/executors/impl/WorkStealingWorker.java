@@ -0,0 +1,161 @@
+/*
+ * Copyright 2019 Fizzed, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fizzed.executors.impl;
+
+import com.fizzed.crux.util.TimeDuration;
+import com.fizzed.executors.core.ExecuteStopException;
+import com.fizzed.executors.core.Processor;
+import com.fizzed.executors.core.WaitStrategy;
+import com.fizzed.executors.core.WorkStealingContext;
+import com.fizzed.executors.core.Worker;
+import com.fizzed.executors.core.WorkerContext;
+import com.fizzed.executors.core.WorkerState;
+import java.util.Deque;
+import org.slf4j.Logger;
+
+public class WorkStealingWorker<T> implements Worker {
+
+    private final WorkStealingPool<T> pool;
+    private final Processor<T> processor;
+    private final WaitStrategy waitStrategy;
+    private final Deque<T> deque;
+
+    public WorkStealingWorker(
+            WorkStealingPool<T> pool,
+            Processor<T> processor,
+            WaitStrategy waitStrategy) {
+        
+        this.pool = pool;
+        this.processor = processor;
+        this.waitStrategy = waitStrategy;
+        this.deque = pool.newDeque();
+    }
+
+    @Override
+    public Logger getLogger() {
+        return this.processor.getLogger();
+    }
+
+    @Override
+    public boolean acquiresPermitsPerTask() {
+        return true;
+    }
+
+    @Override
+    public void execute(WorkerContext context) throws ExecuteStopException, InterruptedException {
+        
+        if (this.getLogger() != null) {
+            this.getLogger().info("Ready");
+        }
+        
+        final StealingContext stealingContext = new StealingContext(context);
+        
+        this.pool.register(this.deque);
+        try {
+            // keep running unless a stop has been requested...
+            while (!context.isStopRequested()) {
+                context.idle();
+
+                // waiting for a task is also "idle", so an interrupt here is a stop
+                T task;
+                int attempt = 0;
+                while ((task = this.pool.next(this.deque)) == null) {
+                    if (this.waitStrategy.blocks(attempt)) {
+                        if ((task = this.pool.await(this.deque)) != null) {
+                            break;
+                        }
+                    } else {
+                        this.waitStrategy.idle(attempt++);
+                    }
+                }
+
+                try {
+                    context.acquirePermits(1);
+                    context.running();
+                } catch (ExecuteStopException | InterruptedException e) {
+                    // don't lose the task we just took
+                    this.deque.offerFirst(task);
+                    throw e;
+                }
+                
+                this.processor.execute(stealingContext, task);
+            }
+        } finally {
+            this.pool.unregister(this.deque);
+        }
+    }
+    
+    private class StealingContext implements WorkStealingContext<T> {
+        
+        private final WorkerContext context;
+
+        public StealingContext(WorkerContext context) {
+            this.context = context;
+        }
+
+        @Override
+        public void submit(T task) {
+            if (task == null) {
+                throw new NullPointerException("task was null");
+            }
+            WorkStealingWorker.this.deque.offerFirst(task);
+            // an idle worker may as well come steal it
+            WorkStealingWorker.this.pool.signal();
+        }
+        
+        @Override
+        public long getId() {
+            return this.context.getId();
+        }
+
+        @Override
+        public String getName() {
+            return this.context.getName();
+        }
+
+        @Override
+        public WorkerState getState() {
+            return this.context.getState();
+        }
+
+        @Override
+        public boolean isStopRequested() {
+            return this.context.isStopRequested();
+        }
+
+        @Override
+        public void idle(TimeDuration duration, String message) throws ExecuteStopException, InterruptedException {
+            this.context.idle(duration, message);
+        }
+
+        @Override
+        public void running(String message) throws ExecuteStopException {
+            this.context.running(message);
+        }
+
+        @Override
+        public void reportWork(boolean workFound) {
+            this.context.reportWork(workFound);
+        }
+
+        @Override
+        public void acquirePermits(int permits) throws ExecuteStopException, InterruptedException {
+            this.context.acquirePermits(permits);
+        }
+        
+    }
+    
+}
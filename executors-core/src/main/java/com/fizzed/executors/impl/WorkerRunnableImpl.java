@@ -21,6 +21,9 @@ import com.fizzed.executors.core.WorkerRunnable;
 import com.fizzed.executors.core.*;
 import com.fizzed.crux.util.TimeDuration;
 import static com.fizzed.executors.internal.ExecuteHelper.ZERO_DURATION;
+import static com.fizzed.executors.internal.ExecuteHelper.currentThreadCpuNanos;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.ReentrantLock;
 import org.slf4j.Logger;
@@ -28,18 +31,46 @@ import org.slf4j.LoggerFactory;
 
 public class WorkerRunnableImpl<W extends Worker> implements Runnable, WorkerRunnable<W> {
     
+    // the state and whether a stop was requested are packed into a single word
+    // so that both can be checked and changed with one CAS (no lock needed)
+    static private final WorkerState[] STATES = WorkerState.values();
+    static private final int STATE_MASK = 0x0F;
+    static private final int STOP_REQUESTED = 0x10;
+    
     protected final Logger log;
     protected final long id;
     protected final String name;
-    protected final ReentrantLock lock;
+    protected final AtomicInteger stateWord;
     protected final W worker;
-    protected StopWatch stopRequestedTimer;
-    protected String message;
-    protected WorkerState state;
+    protected volatile StopWatch stopRequestedTimer;
+    protected volatile String message;
+    protected volatile TimeDuration messageDuration;
+    protected volatile long stateSince;
     protected AtomicReference<Thread> threadRef;
+    // cold path only: a stop interrupting the thread vs the worker handing it back
+    protected final ReentrantLock threadLock;
     protected TimeDuration initialDelay;
     protected TimeDuration unhandledThrowableDelay;
     protected TimeDuration executeDelay;
+    protected Schedule schedule;
+    protected IdleStrategy idleStrategy;
+    protected boolean workFound;
+    protected boolean cpuTimeEnabled;
+    // null (rather than empty) if none, so not intercepting costs one check
+    protected volatile WorkerInterceptor[] interceptors;
+    protected RateLimiter rateLimiter;
+    protected Bulkhead bulkhead;
+    // whether we hold a permit of the bulkhead (only ever touched by the worker thread)
+    protected boolean bulkheadHeld;
+    protected final WorkerContextImpl context;
+    // metrics (only ever written by the worker thread itself)
+    protected final LatencyRecorder executeLatency;
+    protected volatile long executions;
+    protected volatile long unhandledThrowables;
+    protected volatile long runningNanos;
+    protected volatile long idleNanos;
+    protected volatile long cpuNanos;
+    protected long runningCpuStart;
 
     public WorkerRunnableImpl(
             long id,
@@ -50,11 +81,16 @@ public class WorkerRunnableImpl<W extends Worker> implements Runnable, WorkerRun
         this.name = name;
         this.worker = worker;
         this.log = maybe(worker.getLogger()).orGet(() -> LoggerFactory.getLogger(this.getClass()));
-        this.lock = new ReentrantLock();
+        this.stateWord = new AtomicInteger(WorkerState.INITIAL.ordinal());
         this.stopRequestedTimer = null;
-        this.state = WorkerState.INITIAL;
         this.threadRef = new AtomicReference<>();
+        this.threadLock = new ReentrantLock();
         this.initialDelay = null;
+        this.cpuTimeEnabled = false;
+        this.executeLatency = new LatencyRecorder();
+        this.cpuNanos = -1L;
+        this.interceptors = null;
+        this.context = new WorkerContextImpl();
     }
 
     @Override
@@ -101,97 +137,254 @@ public class WorkerRunnableImpl<W extends Worker> implements Runnable, WorkerRun
         this.executeDelay = executeDelay;
     }
     
+    @Override
+    public Schedule getSchedule() {
+        return schedule;
+    }
+
+    @Override
+    public void setSchedule(Schedule schedule) {
+        this.schedule = schedule;
+    }
+    
+    public RateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    public void setRateLimiter(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+    
+    public Bulkhead getBulkhead() {
+        return bulkhead;
+    }
+
+    public void setBulkhead(Bulkhead bulkhead) {
+        this.bulkhead = bulkhead;
+    }
+    
+    public WorkerInterceptor[] getInterceptors() {
+        return interceptors;
+    }
+
+    /**
+     * The interceptors of this worker (null or empty for none).
+     */
+    public void setInterceptors(WorkerInterceptor[] interceptors) {
+        this.interceptors = interceptors != null && interceptors.length > 0 ? interceptors : null;
+    }
+    
+    @Override
+    public IdleStrategy getIdleStrategy() {
+        return idleStrategy;
+    }
+
+    @Override
+    public void setIdleStrategy(IdleStrategy idleStrategy) {
+        this.idleStrategy = idleStrategy;
+    }
+    
+    @Override
+    public boolean isCpuTimeEnabled() {
+        return cpuTimeEnabled;
+    }
+
+    @Override
+    public void setCpuTimeEnabled(boolean cpuTimeEnabled) {
+        this.cpuTimeEnabled = cpuTimeEnabled;
+    }
+    
     @Override
     public String getMessage() {
-        this.lock.lock();
-        try {
-            return this.message;
-        } finally {
-            this.lock.unlock();
+        // built lazily, so idling with a duration on every loop creates no garbage
+        final TimeDuration duration = this.messageDuration;
+        final String _message = this.message;
+        if (duration != null && _message != null) {
+            return _message + " for " + duration;
         }
+        return _message;
     }
     
     @Override
     public WorkerState getState() {
-        this.lock.lock();
-        try {
-            return this.state;
-        } finally {
-            this.lock.unlock();
+        return STATES[this.stateWord.get() & STATE_MASK];
+    }
+    
+    @Override
+    public long getIdleNanos() {
+        if ((this.stateWord.get() & STATE_MASK) != WorkerState.IDLE.ordinal()) {
+            return 0L;
         }
+        return Math.max(0L, System.nanoTime() - this.stateSince);
     }
     
     @Override
-    public boolean isStopRequested() {
-        this.lock.lock();
-        try {
-            return this.stopRequestedTimer != null;
-        } finally {
-            this.lock.unlock();
+    public WorkerMetrics getMetrics() {
+        final int word = this.stateWord.get();
+        final long since = this.stateSince;
+        long _runningNanos = this.runningNanos;
+        long _idleNanos = this.idleNanos;
+        
+        // include whatever the worker is in the middle of
+        final int state = word & STATE_MASK;
+        if (state == WorkerState.RUNNING.ordinal()) {
+            _runningNanos += Math.max(0L, System.nanoTime() - since);
+        } else if (state == WorkerState.IDLE.ordinal()) {
+            _idleNanos += Math.max(0L, System.nanoTime() - since);
         }
+        
+        return new WorkerMetrics(this.executions, this.unhandledThrowables,
+            _runningNanos, _idleNanos, this.cpuNanos, this.executeLatency.snapshot());
+    }
+    
+    @Override
+    public boolean isStopRequested() {
+        return (this.stateWord.get() & STOP_REQUESTED) != 0;
     }
     
     @Override
     public void stop() {
-        this.lock.lock();
-        try {
-            this.stopRequestedTimer = StopWatch.timeMillis();
+        this.stopRequestedTimer = StopWatch.timeMillis();
+        
+        // flag the stop and learn which state we caught the worker in, atomically,
+        // so it can't slip into IDLE after we looked and miss the interrupt
+        final int prevWord = this.stateWord.getAndUpdate(word -> word | STOP_REQUESTED);
+        
+        this.stopRequested(prevWord);
+    }
+    
+    @Override
+    public boolean stopIfIdle(long idleNanos) {
+        for (;;) {
+            final int word = this.stateWord.get();
+            
+            // read before the CAS, and any transition (which resets it) fails the CAS
+            final long since = this.stateSince;
+            
+            if ((word & STATE_MASK) != WorkerState.IDLE.ordinal() || (word & STOP_REQUESTED) != 0
+                    || System.nanoTime() - since < idleNanos) {
+                return false;
+            }
             
-            WorkerState prevState = this.state;
-            switch (prevState) {
-                case STOPPED:
-                case INITIAL:
-                    return;     // nothing to do
-                case IDLE: {
+            if (this.stateWord.compareAndSet(word, word | STOP_REQUESTED)) {
+                this.stopRequestedTimer = StopWatch.timeMillis();
+                this.stopRequested(word);
+                return true;
+            }
+        }
+    }
+    
+    private void stopRequested(int prevWord) {
+        WorkerState prevState = STATES[prevWord & STATE_MASK];
+        switch (prevState) {
+            case STOPPED:
+            case INITIAL:
+                return;     // nothing to do
+            case IDLE: {
+                // worker can't leave IDLE now except by exiting, and it hands its
+                // thread back under the same lock, so the interrupt can never land
+                // on whatever the (pool) thread runs next
+                this.threadLock.lock();
+                try {
                     final Thread currentThread = this.threadRef.get();
                     if (currentThread != null) {
                         currentThread.interrupt();
-                    } else {
-                        log.error("{}: Hmmm... current thread was null (something fishy)", this.name, new Exception());
                     }
-                    break;
-                }
-                default: {
-                    log.info("{}: stop requested (currently running {})", this.name, this.message);
-                    break;
+                } finally {
+                    this.threadLock.unlock();
                 }
+                break;
+            }
+            default: {
+                log.info("{}: stop requested (currently running {})", this.name, this.getMessage());
+                break;
             }
-        } finally {
-            this.lock.unlock();
         }
     }
     
     private void verifyNotStoppedOrStopRequested() throws ExecuteStopException {
-        if (this.state == WorkerState.STOPPED) {
+        verifyNotStoppedOrStopRequested(this.stateWord.get());
+    }
+    
+    static private void verifyNotStoppedOrStopRequested(int word) throws ExecuteStopException {
+        if ((word & STATE_MASK) == WorkerState.STOPPED.ordinal()) {
             throw new IllegalStateException("Worker currently stopped");
         }
-        if (this.stopRequestedTimer != null) {
+        if ((word & STOP_REQUESTED) != 0) {
             throw new ExecuteStopException("Stop requested");
         }
     }
     
+    private void transition(WorkerState newState) throws ExecuteStopException {
+        for (;;) {
+            final int word = this.stateWord.get();
+            
+            verifyNotStoppedOrStopRequested(word);
+            
+            // already there? (e.g. idle() called repeatedly)
+            if ((word & STATE_MASK) == newState.ordinal()) {
+                return;
+            }
+            
+            // before the CAS, so anyone who sees the new state sees when it started
+            final long prevSince = this.stateSince;
+            final long now = System.nanoTime();
+            this.stateSince = now;
+            
+            // fails if a stop was flagged in the meantime, and we'll throw above
+            if (this.stateWord.compareAndSet(word, newState.ordinal())) {
+                this.exited(word & STATE_MASK, now - prevSince);
+                if (newState == WorkerState.RUNNING && this.cpuTimeEnabled) {
+                    this.runningCpuStart = currentThreadCpuNanos();
+                }
+                final WorkerInterceptor[] _interceptors = this.interceptors;
+                if (_interceptors != null) {
+                    for (WorkerInterceptor interceptor : _interceptors) {
+                        if (newState == WorkerState.RUNNING) {
+                            interceptor.onRunning(this.context);
+                        } else if (newState == WorkerState.IDLE) {
+                            interceptor.onIdle(this.context);
+                        }
+                    }
+                }
+                return;
+            }
+            
+            this.stateSince = prevSince;
+        }
+    }
+    
+    private void exited(int state, long elapsedNanos) {
+        if (state == WorkerState.RUNNING.ordinal()) {
+            this.executions++;
+            this.runningNanos += elapsedNanos;
+            this.executeLatency.record(elapsedNanos);
+            if (this.cpuTimeEnabled && this.runningCpuStart >= 0L) {
+                final long cpuNow = currentThreadCpuNanos();
+                this.cpuNanos = Math.max(0L, this.cpuNanos) + (cpuNow - this.runningCpuStart);
+            }
+        } else if (state == WorkerState.IDLE.ordinal()) {
+            this.idleNanos += elapsedNanos;
+        }
+    }
+    
     protected void idle(TimeDuration duration, String message) throws ExecuteStopException, InterruptedException {
         final boolean hasDuration = duration != null && duration.gt(ZERO_DURATION);
 
-        this.lock.lock();
-        try {
-            this.verifyNotStoppedOrStopRequested();
-            this.state = WorkerState.IDLE;
-            if (message != null) {
-                this.message = message;
-                if (hasDuration) {
-                    this.message += " for " + duration;
-                }
-            }
-        } finally {
-            this.lock.unlock();
+        this.transition(WorkerState.IDLE);
+        this.releaseBulkhead();
+        
+        if (message != null) {
+            this.messageDuration = hasDuration ? duration : null;
+            this.message = message;
         }
         
         if (hasDuration) {
             try {
-                String _message = maybe(message).orElse("idle (sleep)");
-                log.trace("{}: {} for {}", this.name, _message, duration);
-                Thread.sleep(duration.asMillis());
+                if (log.isTraceEnabled()) {
+                    log.trace("{}: {} for {}", this.name, message != null ? message : "idle (sleep)", duration);
+                }
+                TimeUnit.NANOSECONDS.sleep(duration.asNanos());
             } catch (InterruptedException e) {
                 if (this.isStopRequested()) {
                     throw new ExecuteStopException("Stop requested", e);
@@ -202,38 +395,96 @@ public class WorkerRunnableImpl<W extends Worker> implements Runnable, WorkerRun
         }
     }
     
+    protected void acquirePermits(int permits) throws ExecuteStopException, InterruptedException {
+        final RateLimiter _rateLimiter = this.rateLimiter;
+        if (_rateLimiter == null) {
+            return;
+        }
+        
+        long waitNanos;
+        while ((waitNanos = _rateLimiter.tryAcquire(permits)) > 0L) {
+            this.idle(TimeDuration.nanos(waitNanos), "Rate limited");
+        }
+    }
+    
+    private void idleUntil(long dueMillis) throws ExecuteStopException, InterruptedException {
+        final long delayMillis = dueMillis - System.currentTimeMillis();
+        
+        this.idle(delayMillis > 0L ? TimeDuration.millis(delayMillis) : null, "Scheduled");
+    }
+    
     protected void running(String message) throws ExecuteStopException {
-        this.lock.lock();
-        try {
-            this.verifyNotStoppedOrStopRequested();
-            this.state = WorkerState.RUNNING;
-            if (message != null) {
-                this.message = message;
+        final Bulkhead _bulkhead = this.bulkhead;
+        if (_bulkhead == null || this.bulkheadHeld) {
+            this.transition(WorkerState.RUNNING);
+        } else {
+            this.acquireBulkhead(_bulkhead);
+            try {
+                this.transition(WorkerState.RUNNING);
+            } catch (ExecuteStopException e) {
+                this.releaseBulkhead();
+                throw e;
             }
-        } finally {
-            this.lock.unlock();
+        }
+        
+        if (message != null) {
+            this.messageDuration = null;
+            this.message = message;
         }
     }
     
-    private void setStopped(String message) {
-        this.lock.lock();
+    private void acquireBulkhead(Bulkhead bulkhead) throws ExecuteStopException {
+        // still idle while we wait, so a stop interrupts us
         try {
-            this.state = WorkerState.STOPPED;
-            
-            if (message != null) {
-                this.message = message;
+            if (!bulkhead.tryAcquire()) {
+                this.verifyNotStoppedOrStopRequested();
+                final String prevMessage = this.message;
+                final TimeDuration prevMessageDuration = this.messageDuration;
+                this.messageDuration = null;
+                this.message = "Waiting on bulkhead " + bulkhead.getName();
+                bulkhead.acquire();
+                this.messageDuration = prevMessageDuration;
+                this.message = prevMessage;
             }
-            
-            // externally requested?
-            if (this.stopRequestedTimer != null) {
-                this.stopRequestedTimer.stop();
-                log.info("{}: stopped (in {})", this.name, this.stopRequestedTimer);
-            } else {
-                // self requested
-                log.info("{}: stopped (initiated by self)", this.name);
+        } catch (InterruptedException e) {
+            if (!this.isStopRequested()) {
+                // keep the interrupt for whoever is interested
+                Thread.currentThread().interrupt();
             }
-        } finally {
-            this.lock.unlock();
+            throw new ExecuteStopException("Interrupted waiting on bulkhead", e);
+        }
+        this.bulkheadHeld = true;
+    }
+    
+    private void releaseBulkhead() {
+        if (this.bulkheadHeld) {
+            this.bulkheadHeld = false;
+            this.bulkhead.release();
+        }
+    }
+    
+    private void setStopped(String message) {
+        // keep the stop requested flag, if any
+        final long now = System.nanoTime();
+        final long prevSince = this.stateSince;
+        this.stateSince = now;
+        final int prevWord = this.stateWord.getAndUpdate(word -> (word & STOP_REQUESTED) | WorkerState.STOPPED.ordinal());
+        
+        this.exited(prevWord & STATE_MASK, now - prevSince);
+        
+        if (message != null) {
+            this.messageDuration = null;
+            this.message = message;
+        }
+
+        // externally requested?
+        final StopWatch timer = this.stopRequestedTimer;
+        if ((prevWord & STOP_REQUESTED) != 0 && timer != null) {
+            timer.stop();
+            log.info("{}: stopped (in {})", this.name, timer);
+        } else {
+            // self requested
+            log.info("{}: stopped (initiated by self)", this.name);
         }
     }
     
@@ -247,20 +498,65 @@ public class WorkerRunnableImpl<W extends Worker> implements Runnable, WorkerRun
             
             this.idle(this.getInitialDelay(), "Initial delay");
             
-            final WorkerContextImpl context = new WorkerContextImpl();
+            final WorkerContextImpl context = this.context;
+            
+            // a schedule or idle strategy (if any) replaces the execute delay
+            final Schedule _schedule = this.getSchedule();
+            final IdleStrategy _idleStrategy = this.getIdleStrategy();
+            long due = _schedule != null ? _schedule.nextDue(-1L, System.currentTimeMillis()) : 0L;
+            int idleIterations = 0;
             
             while (!this.isStopRequested()) {
                 try {
-                    this.worker.execute(context);
+                    if (_schedule != null) {
+                        this.idleUntil(due);
+                    }
+                    
+                    this.workFound = false;
+                    
+                    if (!this.worker.acquiresPermitsPerTask()) {
+                        this.acquirePermits(1);
+                    }
+                    
+                    final WorkerInterceptor[] _interceptors = this.interceptors;
+                    if (_interceptors == null) {
+                        this.worker.execute(context);
+                    } else {
+                        this.executeIntercepted(context, _interceptors);
+                    }
 
-                    this.idle(this.getExecuteDelay(), "Execute delay");
+                    if (_schedule != null) {
+                        // schedule decides when to run next
+                    } else if (_idleStrategy != null) {
+                        if (this.workFound) {
+                            idleIterations = 0;
+                        } else {
+                            if (idleIterations < Integer.MAX_VALUE) {
+                                idleIterations++;
+                            }
+                            _idleStrategy.idle(context, idleIterations);
+                        }
+                    } else {
+                        this.idle(this.getExecuteDelay(), "Execute delay");
+                    }
                 } catch (ExecuteStopException | InterruptedException e) {
                     throw e;    // need to break out of while-loop
                 } catch (Throwable t) {
                     // uh oh, unhandled throwable (do not break out of while loop)
+                    this.unhandledThrowables++;
                     log.error("{}: unhandled throwable!", this.name, t);
+                    final WorkerInterceptor[] _interceptors = this.interceptors;
+                    if (_interceptors != null) {
+                        for (WorkerInterceptor interceptor : _interceptors) {
+                            interceptor.onThrowable(context, t);
+                        }
+                    }
                     this.idle(this.getUnhandledThrowableDelay(), "Unhandled throwable delay");
                 }
+                
+                if (_schedule != null) {
+                    due = _schedule.nextDue(due, System.currentTimeMillis());
+                }
             }
             
             //log.debug("{}: worker exited", this.name);
@@ -274,7 +570,36 @@ public class WorkerRunnableImpl<W extends Worker> implements Runnable, WorkerRun
             }
         } finally {
             this.setStopped("Stopped");
-            this.threadRef.set(null);
+            this.releaseBulkhead();
+            this.threadLock.lock();
+            try {
+                this.threadRef.set(null);
+                // an interrupt from our stop is ours, not the next user of the thread
+                Thread.interrupted();
+            } finally {
+                this.threadLock.unlock();
+            }
+        }
+    }
+    
+    private void executeIntercepted(WorkerContext context, WorkerInterceptor[] interceptors) throws ExecuteStopException, InterruptedException {
+        for (WorkerInterceptor interceptor : interceptors) {
+            interceptor.beforeExecute(context);
+        }
+        
+        try {
+            this.worker.execute(context);
+        } catch (ExecuteStopException | InterruptedException e) {
+            throw e;
+        } catch (RuntimeException | Error e) {
+            for (WorkerInterceptor interceptor : interceptors) {
+                interceptor.afterExecute(context, e);
+            }
+            throw e;
+        }
+        
+        for (WorkerInterceptor interceptor : interceptors) {
+            interceptor.afterExecute(context, null);
         }
     }
     
@@ -282,7 +607,7 @@ public class WorkerRunnableImpl<W extends Worker> implements Runnable, WorkerRun
 
         @Override
         public long getId() {
-            throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+            return WorkerRunnableImpl.this.id;
         }
         
         @Override
@@ -309,6 +634,16 @@ public class WorkerRunnableImpl<W extends Worker> implements Runnable, WorkerRun
         public void running(String message) throws ExecuteStopException {
             WorkerRunnableImpl.this.running(message);
         }
+
+        @Override
+        public void reportWork(boolean workFound) {
+            WorkerRunnableImpl.this.workFound = workFound;
+        }
+
+        @Override
+        public void acquirePermits(int permits) throws ExecuteStopException, InterruptedException {
+            WorkerRunnableImpl.this.acquirePermits(permits);
+        }
        
     }
     
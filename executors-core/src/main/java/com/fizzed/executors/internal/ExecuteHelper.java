@@ -16,6 +16,8 @@
 package com.fizzed.executors.internal;
 
 import com.fizzed.crux.util.TimeDuration;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 
 public class ExecuteHelper {
     
@@ -33,4 +35,33 @@ public class ExecuteHelper {
         return new TimeDuration(staggeredDuration, duration.getUnit());
     }
     
+    static public boolean isCpuTimeSupported() {
+        return CpuTime.THREAD_MX_BEAN != null;
+    }
+    
+    /**
+     * CPU time (nanos) of the current thread, or -1 if not supported.
+     */
+    static public long currentThreadCpuNanos() {
+        final ThreadMXBean threadMXBean = CpuTime.THREAD_MX_BEAN;
+        return threadMXBean != null ? threadMXBean.getCurrentThreadCpuTime() : -1L;
+    }
+    
+    // only touches the management classes once cpu time is actually used
+    static private class CpuTime {
+        static private final ThreadMXBean THREAD_MX_BEAN = lookup();
+        
+        static private ThreadMXBean lookup() {
+            try {
+                final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+                if (threadMXBean.isCurrentThreadCpuTimeSupported() && threadMXBean.isThreadCpuTimeEnabled()) {
+                    return threadMXBean;
+                }
+            } catch (Throwable t) {
+                // not supported
+            }
+            return null;
+        }
+    }
+    
 }
\ No newline at end of file
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2019 Fizzed, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fizzed.executors.internal;
+
+import com.fizzed.crux.util.TimeDuration;
+import com.fizzed.executors.core.RejectionPolicy;
+import com.fizzed.executors.core.SubmitResult;
+import com.fizzed.executors.impl.WaitingBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+
+public class RejectionHelper {
+    
+    /**
+     * Applies the rejection policy to a task that did not fit in a full queue.
+     * 
+     * @param name the name of the service (for exception messages)
+     * @param queue the full queue
+     * @param task the task that did not fit
+     * @param policy the rejection policy
+     * @param submitTimeout how long BLOCK waits for space (null forever)
+     * @param dropped called with each task DROP_OLDEST discards
+     * @param callerRuns runs the task on the caller for CALLER_RUNS
+     */
+    static public <T> SubmitResult rejected(
+            String name,
+            BlockingQueue<T> queue,
+            T task,
+            RejectionPolicy policy,
+            TimeDuration submitTimeout,
+            Consumer<T> dropped,
+            Consumer<T> callerRuns) {
+        
+        switch (policy) {
+            case BLOCK:
+                try {
+                    if (submitTimeout == null) {
+                        queue.put(task);
+                        return SubmitResult.QUEUED;
+                    }
+                    if (queue.offer(task, submitTimeout.getDuration(), submitTimeout.getUnit())) {
+                        return SubmitResult.QUEUED;
+                    }
+                    return SubmitResult.TIMED_OUT;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RejectedExecutionException(name + ": interrupted waiting for queue space", e);
+                }
+            case CALLER_RUNS:
+                callerRuns.accept(task);
+                return SubmitResult.CALLER_RAN;
+            case DROP_OLDEST:
+                while (!queue.offer(task)) {
+                    // the head of a ranked queue is its most urgent task, so drop its last
+                    final T droppedTask = queue instanceof WaitingBlockingQueue
+                        ? ((WaitingBlockingQueue<T>)queue).pollDroppable() : queue.poll();
+                    if (droppedTask != null) {
+                        dropped.accept(droppedTask);
+                    }
+                }
+                return SubmitResult.QUEUED_DROPPED;
+            default:
+                throw new RejectedExecutionException(name + ": task queue full");
+        }
+    }
+    
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2025 Fizzed, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fizzed.executors.internal;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Virtual threads for Java 21+.  This is the Java 8 version which looks them up
+ * reflectively (so a jar built on an older JDK still works on 21+); when built on
+ * Java 21 the jar is multi-release and the version in src/main/java21 is used.
+ */
+public class VirtualThreads {
+    
+    static private final ThreadFactory FACTORY = lookupFactory();
+    
+    static private ThreadFactory lookupFactory() {
+        try {
+            final Method ofVirtual = Thread.class.getMethod("ofVirtual");
+            final Object builder = ofVirtual.invoke(null);
+            final Method factory = ofVirtual.getReturnType().getMethod("factory");
+            return (ThreadFactory)factory.invoke(builder);
+        } catch (Exception e) {
+            return null;        // not supported on this JVM
+        }
+    }
+    
+    static public boolean isSupported() {
+        return FACTORY != null;
+    }
+    
+    static public ThreadFactory newThreadFactory() {
+        if (FACTORY == null) {
+            throw new UnsupportedOperationException("Virtual threads require Java 21+");
+        }
+        return FACTORY;
+    }
+    
+}
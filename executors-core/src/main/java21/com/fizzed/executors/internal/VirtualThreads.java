@@ -0,0 +1,33 @@
+/*
+ * Copyright 2025 Fizzed, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fizzed.executors.internal;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Virtual threads for Java 21+ (multi-release version).
+ */
+public class VirtualThreads {
+    
+    static public boolean isSupported() {
+        return true;
+    }
+    
+    static public ThreadFactory newThreadFactory() {
+        return Thread.ofVirtual().factory();
+    }
+    
+}
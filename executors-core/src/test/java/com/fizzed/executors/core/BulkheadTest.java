@@ -0,0 +1,59 @@
+/*
+ * Copyright 2025 Fizzed, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fizzed.executors.core;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import org.junit.Test;
+
+public class BulkheadTest {
+ 
+    @Test
+    public void tryAcquireNeverBargesAheadOfWaiters() throws Exception {
+        final Bulkhead bulkhead = new Bulkhead("db", 1);
+        
+        assertThat(bulkhead.tryAcquire(), is(true));
+        assertThat(bulkhead.tryAcquire(), is(false));
+        
+        final CountDownLatch acquired = new CountDownLatch(1);
+        final Thread waiter = new Thread(() -> {
+            try {
+                bulkhead.acquire();
+                acquired.countDown();
+            } catch (InterruptedException e) {
+                // ignore
+            }
+        });
+        waiter.start();
+        
+        final long deadline = System.currentTimeMillis() + 5000L;
+        while (bulkhead.getWaiting() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1L);
+        }
+        assertThat(bulkhead.getWaiting(), is(1));
+        
+        // the permit goes to the worker that was waiting for it, not to us
+        bulkhead.release();
+        assertThat(bulkhead.tryAcquire(), is(false));
+        assertThat(acquired.await(5L, TimeUnit.SECONDS), is(true));
+        
+        bulkhead.release();
+        assertThat(bulkhead.getAvailablePermits(), is(1));
+    }
+    
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2025 Fizzed, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fizzed.executors.core;
+
+import com.fizzed.crux.util.TimeDuration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import org.junit.Test;
+
+public class CoalescingProcessorServiceTest {
+ 
+    static public class TestCoalescingProcessorService<T> extends CoalescingProcessorService<String,T,Processor<T>> {
+        
+        private final Processor<T> processor;
+        
+        public TestCoalescingProcessorService(Processor<T> processor) {
+            super("Test Coalescing Service");
+            this.processor = processor;
+            this.setInitialDelayStagger(0.0d);
+        }
+        
+        public TestCoalescingProcessorService(Processor<T> processor, int queueCapacity) {
+            super("Test Coalescing Service", TaskQueues.bounded(queueCapacity));
+            this.processor = processor;
+            this.setInitialDelayStagger(0.0d);
+        }
+
+        @Override
+        protected Processor<T> newCoalescingProcessor() {
+            return this.processor;
+        }
+        
+    }
+    
+    @Test
+    public void latestWins() throws Exception {
+        final List<String> processed = new CopyOnWriteArrayList<>();
+        final TestCoalescingProcessorService<String> service
+            = new TestCoalescingProcessorService<>((context, task) -> processed.add(task));
+        service.setMinPoolSize(1);
+        service.setMaxPoolSize(1);
+        
+        // not started, so everything stays queued
+        assertThat(service.submit("a", "a0"), is(SubmitResult.QUEUED));
+        for (int i = 1; i < 100; i++) {
+            assertThat(service.submit("a", "a" + i), is(SubmitResult.COALESCED));
+        }
+        assertThat(service.submit("b", "b0"), is(SubmitResult.QUEUED));
+        
+        assertThat(service.getQueueSize(), is(2));
+        assertThat(service.getCoalescedCount(), is(99L));
+        
+        service.start();
+        try {
+            final long deadline = System.currentTimeMillis() + 5000L;
+            while (processed.size() < 2 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10L);
+            }
+            
+            assertThat(processed, containsInAnyOrder("a99", "b0"));
+            
+            // once taken, the same key queues anew
+            service.submit("a", "a100");
+            while (processed.size() < 3 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10L);
+            }
+            assertThat(processed, containsInAnyOrder("a99", "b0", "a100"));
+        } finally {
+            service.stop();
+        }
+    }
+    
+    @Test
+    public void mergeNeverLosesTasks() throws Exception {
+        final AtomicLong sum = new AtomicLong();
+        final AtomicLong runs = new AtomicLong();
+        final TestCoalescingProcessorService<Long> service
+            = new TestCoalescingProcessorService<>((context, task) -> {
+                runs.incrementAndGet();
+                sum.addAndGet(task);
+            });
+        service.setMinPoolSize(2);
+        service.setMaxPoolSize(2);
+        service.setMerge(Long::sum);
+        
+        service.start();
+        try {
+            final int threads = 4;
+            final int perThread = 10000;
+            final List<Thread> submitters = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                final Thread thread = new Thread(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        service.submit("key" + (i % 8), 1L);
+                    }
+                });
+                submitters.add(thread);
+                thread.start();
+            }
+            for (Thread thread : submitters) {
+                thread.join();
+            }
+            
+            final long expected = (long)threads * perThread;
+            final long deadline = System.currentTimeMillis() + 5000L;
+            while (sum.get() < expected && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10L);
+            }
+            
+            // every submit is accounted for, in far fewer runs
+            assertThat(sum.get(), is(expected));
+            assertThat(runs.get() + service.getCoalescedCount(), is(expected));
+        } finally {
+            service.stop();
+        }
+    }
+    
+    @Test
+    public void neverMergesIntoTaskWaitingForSpace() throws Exception {
+        final TestCoalescingProcessorService<String> service
+            = new TestCoalescingProcessorService<>((context, task) -> {}, 1);
+        service.setRejectionPolicy(RejectionPolicy.BLOCK);
+        service.setSubmitTimeout(TimeDuration.millis(200));
+        
+        // not started, so the queue stays full
+        assertThat(service.submit("a", "a0"), is(SubmitResult.QUEUED));
+        
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final AtomicReference<SubmitResult> first = new AtomicReference<>();
+        final Thread submitter = new Thread(() -> {
+            blocked.countDown();
+            first.set(service.submit("b", "b0"));
+        });
+        submitter.start();
+        blocked.await();
+        Thread.sleep(50L);
+        
+        // would have been merged into b0, and lost once b0 timed out
+        assertThat(service.submit("b", "b1"), is(SubmitResult.TIMED_OUT));
+        
+        submitter.join(2000L);
+        assertThat(first.get(), is(SubmitResult.TIMED_OUT));
+        assertThat(service.getCoalescedCount(), is(0L));
+        assertThat(service.getQueueSize(), is(1));
+        
+        // a queued task is merged into as usual
+        assertThat(service.submit("a", "a1"), is(SubmitResult.COALESCED));
+    }
+    
+}
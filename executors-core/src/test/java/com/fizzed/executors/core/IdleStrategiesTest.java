@@ -0,0 +1,135 @@
+/*
+ * Copyright 2025 Fizzed, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fizzed.executors.core;
+
+import com.fizzed.crux.util.TimeDuration;
+import static com.fizzed.crux.util.TimeDuration.millis;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
+import org.junit.Test;
+
+public class IdleStrategiesTest {
+
+    static public class RecordingWorkerContext implements WorkerContext {
+        final List<String> idles = new ArrayList<>();
+        
+        @Override
+        public long getId() {
+            return 1L;
+        }
+
+        @Override
+        public String getName() {
+            return "test";
+        }
+
+        @Override
+        public WorkerState getState() {
+            return WorkerState.IDLE;
+        }
+
+        @Override
+        public boolean isStopRequested() {
+            return false;
+        }
+
+        @Override
+        public void idle(TimeDuration duration, String message) {
+            this.idles.add(duration != null ? message + " " + duration.asMillis() : message);
+        }
+
+        @Override
+        public void running(String message) {
+            // nothing
+        }
+    }
+    
+    @Test
+    public void backoff() throws Exception {
+        final IdleStrategy strategy = IdleStrategies.backoff(2, 1, millis(10), millis(50));
+        final RecordingWorkerContext context = new RecordingWorkerContext();
+        
+        for (int i = 1; i <= 8; i++) {
+            strategy.idle(context, i);
+        }
+        
+        assertThat(context.idles, contains(
+            "Idle (spin)", "Idle (spin)", "Idle (yield)",
+            "Idle (backoff) 10", "Idle (backoff) 20", "Idle (backoff) 40", "Idle (backoff) 50", "Idle (backoff) 50"));
+    }
+    
+    @Test
+    public void spinThenYield() throws Exception {
+        final IdleStrategy strategy = IdleStrategies.spinThenYield(1);
+        final RecordingWorkerContext context = new RecordingWorkerContext();
+        
+        strategy.idle(context, 1);
+        strategy.idle(context, 2);
+        strategy.idle(context, Integer.MAX_VALUE);
+        
+        assertThat(context.idles, contains("Idle (spin)", "Idle (yield)", "Idle (yield)"));
+    }
+    
+    @Test
+    public void pollingWorkerBacksOffThenResets() throws Exception {
+        final AtomicInteger polls = new AtomicInteger();
+        final AtomicInteger available = new AtomicInteger();
+        final AtomicInteger processed = new AtomicInteger();
+        
+        WorkerService<Worker> service = new WorkerService<Worker>("Test Service") {
+            @Override
+            protected Worker newWorker() {
+                return context -> {
+                    polls.incrementAndGet();
+                    if (available.get() > 0) {
+                        available.decrementAndGet();
+                        context.running();
+                        processed.incrementAndGet();
+                        context.reportWork(true);
+                    }
+                };
+            }
+        };
+        service.setIdleStrategy(IdleStrategies.backoff(millis(1), millis(100)));
+        
+        service.start();
+        try {
+            // nothing to do, so it backs off (1+2+4+...+64 then 100s)
+            millis(1000L).sleep();
+            assertThat(polls.get(), lessThan(25));
+            
+            // found work is polled for again right away
+            available.set(50);
+            final long start = System.currentTimeMillis();
+            while (processed.get() < 50 && System.currentTimeMillis() - start < 2000L) {
+                Thread.sleep(1L);
+            }
+            assertThat(processed.get(), is(50));
+            // at most one 100ms backoff, not 50 of them
+            assertThat(System.currentTimeMillis() - start, lessThan(1000L));
+            assertThat(polls.get(), greaterThan(50));
+        } finally {
+            service.stop();
+        }
+    }
+    
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2025 Fizzed, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fizzed.executors.core;
+
+import com.fizzed.executors.impl.TaskJournal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class JournaledProcessorServiceTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+    
+    static public class StringSerializer implements TaskSerializer<String> {
+        @Override
+        public byte[] serialize(String task) {
+            return task.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public String deserialize(byte[] bytes) {
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+    
+    static public class TestJournaledProcessorService extends JournaledProcessorService<String,Processor<String>> {
+
+        final List<String> executed = new CopyOnWriteArrayList<>();
+        volatile CountDownLatch gate = new CountDownLatch(0);
+        volatile CountDownLatch done = new CountDownLatch(0);
+        
+        public TestJournaledProcessorService(TaskJournal journal) {
+            super("Test Journaled Processor Service", journal, new StringSerializer());
+        }
+        
+        @Override
+        protected Processor<String> newJournaledProcessor() {
+            return (context, task) -> {
+                this.gate.await();
+                this.executed.add(task);
+                this.done.countDown();
+            };
+        }
+        
+    }
+    
+    @Test
+    public void processedTasksAcknowledged() throws Exception {
+        final Path dir = this.temporaryFolder.newFolder().toPath();
+        
+        try (TaskJournal journal = new TaskJournal(dir, 4096)) {
+            TestJournaledProcessorService service = new TestJournaledProcessorService(journal);
+            service.done = new CountDownLatch(20);
+            
+            service.start();
+            try {
+                for (int i = 0; i < 20; i++) {
+                    assertThat(service.submitDurable("task-" + i), is(SubmitResult.QUEUED));
+                }
+                assertThat(service.done.await(5L, TimeUnit.SECONDS), is(true));
+            } finally {
+                service.stop();
+            }
+            
+            assertThat(journal.getUnacknowledged(), is(0));
+        }
+        
+        try (TaskJournal journal = new TaskJournal(dir, 4096)) {
+            assertThat(journal.getRecovered().size(), is(0));
+        }
+    }
+    
+    @Test
+    public void unprocessedTasksReplayed() throws Exception {
+        final Path dir = this.temporaryFolder.newFolder().toPath();
+        
+        try (TaskJournal journal = new TaskJournal(dir, 4096)) {
+            TestJournaledProcessorService service = new TestJournaledProcessorService(journal);
+            // never started, as if the process went away with these queued
+            service.submitDurable("a");
+            service.submitDurable("b");
+            service.submitDurable("c");
+        }
+        
+        try (TaskJournal journal = new TaskJournal(dir, 4096)) {
+            TestJournaledProcessorService service = new TestJournaledProcessorService(journal);
+            service.setMinPoolSize(2);
+            service.done = new CountDownLatch(3);
+            
+            service.start();
+            try {
+                assertThat(service.done.await(5L, TimeUnit.SECONDS), is(true));
+                assertThat(service.executed, containsInAnyOrder("a", "b", "c"));
+            } finally {
+                service.stop();
+            }
+            
+            assertThat(journal.getUnacknowledged(), is(0));
+        }
+    }
+    
+}
@@ -0,0 +1,305 @@
+/*
+ * Copyright 2025 Fizzed, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fizzed.executors.core;
+
+import static com.fizzed.crux.util.TimeDuration.millis;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.fail;
+import org.junit.Test;
+
+public class PartitionedProcessorServiceTest {
+
+    static public class Task {
+        final int key;
+        final int seq;
+        final CountDownLatch latch;
+        
+        public Task(int key, int seq, CountDownLatch latch) {
+            this.key = key;
+            this.seq = seq;
+            this.latch = latch;
+        }
+    }
+    
+    static public class TestProcessor implements Processor<Task> {
+        private final Map<Integer,List<Integer>> seen;
+
+        public TestProcessor(Map<Integer,List<Integer>> seen) {
+            this.seen = seen;
+        }
+        
+        @Override
+        public void execute(WorkerContext context, Task task) throws ExecuteStopException, InterruptedException {
+            // only ever touched by the one worker of the key's partition
+            this.seen.computeIfAbsent(task.key, k -> new ArrayList<>()).add(task.seq);
+            task.latch.countDown();
+        }
+    }
+    
+    static public class TestPartitionedProcessorService extends PartitionedProcessorService<Integer,Task,TestProcessor> {
+
+        final Map<Integer,List<Integer>> seen = new ConcurrentHashMap<>();
+        
+        public TestPartitionedProcessorService(int partitions) {
+            super("Test Partitioned Processor Service", partitions);
+        }
+        
+        public TestPartitionedProcessorService(int partitions, int queueCapacity) {
+            super("Test Partitioned Processor Service", partitions, queueCapacity);
+        }
+        
+        @Override
+        protected TestProcessor newProcessor() {
+            return new TestProcessor(this.seen);
+        }
+        
+    }
+    
+    @Test
+    public void tasksWithSameKeyRunInOrder() throws Exception {
+        TestPartitionedProcessorService service = new TestPartitionedProcessorService(4);
+        
+        assertThat(service.getMinPoolSize(), is(4));
+        
+        service.start();
+        try {
+            assertThat(service.getPoolSize(), is(4));
+            
+            final int keys = 50;
+            final int perKey = 200;
+            final CountDownLatch latch = new CountDownLatch(keys * perKey);
+            
+            // producers each own some keys, so each key is submitted in order
+            final List<Thread> producers = new ArrayList<>();
+            for (int p = 0; p < 5; p++) {
+                final int producer = p;
+                producers.add(new Thread(() -> {
+                    for (int seq = 0; seq < perKey; seq++) {
+                        for (int key = producer; key < keys; key += 5) {
+                            service.submit(key, new Task(key, seq, latch));
+                        }
+                    }
+                }));
+            }
+            producers.forEach(Thread::start);
+            
+            latch.await(10L, TimeUnit.SECONDS);
+            assertThat(latch.getCount(), is(0L));
+            
+            for (int key = 0; key < keys; key++) {
+                final List<Integer> seqs = service.seen.get(key);
+                assertThat(seqs.size(), is(perKey));
+                for (int seq = 0; seq < perKey; seq++) {
+                    assertThat(seqs.get(seq), is(seq));
+                }
+            }
+            assertThat(service.getQueueSize(), is(0));
+        } finally {
+            service.stop();
+        }
+    }
+    
+    @Test
+    public void differentPartitionsRunInParallel() throws Exception {
+        final CountDownLatch bothRunning = new CountDownLatch(2);
+        
+        PartitionedProcessorService<Integer,Task,Processor<Task>> service
+                = new PartitionedProcessorService<Integer,Task,Processor<Task>>("Test Partitioned Processor Service", 2) {
+            @Override
+            protected Processor<Task> newProcessor() {
+                return (context, task) -> {
+                    // would deadlock if both keys shared a worker
+                    bothRunning.countDown();
+                    bothRunning.await(5L, TimeUnit.SECONDS);
+                    task.latch.countDown();
+                };
+            }
+        };
+        
+        // find two keys on different partitions
+        final int key1 = 0;
+        int key2 = 1;
+        while (service.partitionFor(key2) == service.partitionFor(key1)) {
+            key2++;
+        }
+        assertThat(service.partitionFor(key1), is(not(service.partitionFor(key2))));
+        
+        service.start();
+        try {
+            final CountDownLatch latch = new CountDownLatch(2);
+            service.submit(key1, new Task(key1, 0, latch));
+            service.submit(key2, new Task(key2, 0, latch));
+            
+            latch.await(2L, TimeUnit.SECONDS);
+            
+            assertThat(bothRunning.getCount(), is(0L));
+            assertThat(latch.getCount(), is(0L));
+        } finally {
+            service.stop();
+        }
+    }
+    
+    @Test
+    public void poolSizeFixed() {
+        TestPartitionedProcessorService service = new TestPartitionedProcessorService(3);
+        
+        service.setMinPoolSize(3);
+        try {
+            service.setMinPoolSize(4);
+            fail();
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+        try {
+            service.setMaxPoolSize(10);
+            fail();
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+        try {
+            service.setRejectionPolicy(RejectionPolicy.CALLER_RUNS);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+    
+    @Test
+    public void partitionQueueFullRejects() throws Exception {
+        // not started, so nothing is taken off the queues
+        TestPartitionedProcessorService service = new TestPartitionedProcessorService(2, 1);
+        final CountDownLatch latch = new CountDownLatch(1);
+        
+        assertThat(service.submit(7, new Task(7, 0, latch)), is(SubmitResult.QUEUED));
+        assertThat(service.getQueueSize(service.partitionFor(7)), is(1));
+        
+        try {
+            service.submit(7, new Task(7, 1, latch));
+            fail();
+        } catch (RejectedExecutionException e) {
+            // expected
+        }
+        
+        service.setRejectionPolicy(RejectionPolicy.DROP_OLDEST);
+        assertThat(service.submit(7, new Task(7, 2, latch)), is(SubmitResult.QUEUED_DROPPED));
+        assertThat(service.getQueueSize(), is(1));
+    }
+    
+    @Test
+    public void delayedSubmitKeepsPartition() throws Exception {
+        TestPartitionedProcessorService service = new TestPartitionedProcessorService(4);
+        
+        service.start();
+        try {
+            final CountDownLatch latch = new CountDownLatch(3);
+            
+            assertThat(service.submit(5, new Task(5, 1, latch), millis(50)), is(SubmitResult.SCHEDULED));
+            assertThat(service.submit(5, new Task(5, 0, latch)), is(SubmitResult.QUEUED));
+            assertThat(service.submitAt(9, new Task(9, 0, latch), Instant.now().plusMillis(50L)), is(SubmitResult.SCHEDULED));
+            assertThat(service.getDelayedSize(), is(2));
+            
+            latch.await(2L, TimeUnit.SECONDS);
+            assertThat(latch.getCount(), is(0L));
+            assertThat(service.seen.get(5), contains(0, 1));
+            assertThat(service.seen.get(9), contains(0));
+            assertThat(service.getDelayedSize(), is(0));
+        } finally {
+            service.stop();
+        }
+    }
+    
+    @Test
+    public void drainReturnsLeftoversInPartitionOrder() throws Exception {
+        // not started, so everything is left over
+        TestPartitionedProcessorService service = new TestPartitionedProcessorService(2);
+        final CountDownLatch latch = new CountDownLatch(0);
+        
+        for (int seq = 0; seq < 3; seq++) {
+            service.submit(1, new Task(1, seq, latch));
+            service.submit(2, new Task(2, seq, latch));
+        }
+        
+        final List<Task> leftovers = service.drain(millis(100));
+        assertThat(leftovers.size(), is(6));
+        assertThat(service.getQueueSize(), is(0));
+        
+        // still in order per key
+        for (int key = 1; key <= 2; key++) {
+            final int k = key;
+            final List<Integer> seqs = leftovers.stream()
+                .filter(t -> t.key == k)
+                .map(t -> t.seq)
+                .collect(Collectors.toList());
+            assertThat(seqs, contains(0, 1, 2));
+        }
+        
+        try {
+            service.submit(1, new Task(1, 3, latch));
+            fail();
+        } catch (RejectedExecutionException e) {
+            // expected, draining
+        }
+    }
+    
+    @Test
+    public void interceptorsAndTaskMetrics() throws Exception {
+        TestPartitionedProcessorService service = new TestPartitionedProcessorService(2);
+        final AtomicInteger after = new AtomicInteger();
+        
+        service.addInterceptor(new TaskInterceptor<Task>() {
+            @Override
+            public void afterTask(WorkerContext context, Task task, long elapsedNanos, Throwable throwable) {
+                after.incrementAndGet();
+            }
+        });
+        
+        service.start();
+        try {
+            final CountDownLatch latch = new CountDownLatch(10);
+            for (int i = 0; i < 10; i++) {
+                service.submit(i, new Task(i, 0, latch));
+            }
+            latch.await(2L, TimeUnit.SECONDS);
+            assertThat(latch.getCount(), is(0L));
+            
+            // the latch counts down before the worker records the task
+            final long deadline = System.currentTimeMillis() + 2000L;
+            while ((after.get() < 10 || service.getTaskMetrics().getProcessing().getCount() < 10L) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5L);
+            }
+            
+            assertThat(after.get(), is(10));
+            assertThat(service.getTaskMetrics().getProcessing().getCount(), is(10L));
+            assertThat(service.getTaskMetrics().isWaitRecorded(), is(false));
+        } finally {
+            service.stop();
+        }
+    }
+    
+}
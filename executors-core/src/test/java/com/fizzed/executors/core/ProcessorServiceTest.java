@@ -1,11 +1,25 @@
 package com.fizzed.executors.core;
 
 import static com.fizzed.crux.util.TimeDuration.millis;
+import java.lang.management.ManagementFactory;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
 import org.junit.Test;
 import static org.mockito.Mockito.spy;
 
@@ -23,7 +37,11 @@ public class ProcessorServiceTest {
     static public class TestProcessorService extends ProcessorService<CountDownLatch,TestProcessor> {
 
         public TestProcessorService() {
-            super("Test Processor Service");
+            this(TaskQueues.linked());
+        }
+        
+        public TestProcessorService(BlockingQueue<CountDownLatch> taskQueue) {
+            super("Test Processor Service", taskQueue);
             this.setInitialDelayStagger(0.0d);
         }
 
@@ -34,6 +52,36 @@ public class ProcessorServiceTest {
         
     }
     
+    static public class TestBatchProcessor implements BatchProcessor<CountDownLatch> {
+        private final List<Integer> batchSizes;
+
+        public TestBatchProcessor(List<Integer> batchSizes) {
+            this.batchSizes = batchSizes;
+        }
+        
+        @Override
+        public void execute(WorkerContext context, List<CountDownLatch> tasks) throws ExecuteStopException, InterruptedException {
+            this.batchSizes.add(tasks.size());
+            tasks.forEach(CountDownLatch::countDown);
+        }
+    }
+    
+    static public class TestBatchProcessorService extends ProcessorService<CountDownLatch,TestBatchProcessor> {
+        private final List<Integer> batchSizes;
+        
+        public TestBatchProcessorService() {
+            super("Test Batch Processor Service");
+            this.setInitialDelayStagger(0.0d);
+            this.batchSizes = new CopyOnWriteArrayList<>();
+        }
+
+        @Override
+        protected TestBatchProcessor newProcessor() {
+            return new TestBatchProcessor(this.batchSizes);
+        }
+        
+    }
+    
     @Test
     public void startStopStartStop() throws Exception {
         TestProcessorService service = new TestProcessorService();
@@ -59,4 +107,685 @@ public class ProcessorServiceTest {
         assertThat(service.getRunnables().get(0).getMessage(), is("Idle"));
     }
     
-}
\ No newline at end of file
+    @Test
+    public void ringTaskQueue() throws Exception {
+        TestProcessorService service = new TestProcessorService(TaskQueues.ring(16, WaitStrategy.PARK));
+        service.setMinPoolSize(2);
+        
+        service.start();
+        try {
+            final CountDownLatch latch = new CountDownLatch(4);
+            for (int i = 0; i < 4; i++) {
+                service.submit(latch);
+            }
+
+            latch.await(2L, TimeUnit.SECONDS);
+
+            assertThat(latch.getCount(), is(0L));
+        } finally {
+            service.stop();
+        }
+        
+        // workers parked on the ring must still stop promptly
+        assertThat(service.getState(), is(ServiceState.STOPPED));
+    }
+    
+    @Test
+    public void batchProcessor() throws Exception {
+        TestBatchProcessorService service = new TestBatchProcessorService();
+        service.setBatchSize(4);
+        
+        // queue up tasks before any worker is running
+        final CountDownLatch latch = new CountDownLatch(10);
+        for (int i = 0; i < 10; i++) {
+            service.submit(latch);
+        }
+        
+        service.start();
+        try {
+            latch.await(2L, TimeUnit.SECONDS);
+
+            assertThat(latch.getCount(), is(0L));
+            assertThat(service.batchSizes, contains(4, 4, 2));
+        } finally {
+            service.stop();
+        }
+    }
+    
+    @Test
+    public void metrics() throws Exception {
+        TestProcessorService service = new TestProcessorService();
+        service.setMinPoolSize(2);
+        service.setCpuTimeMetrics(true);
+        
+        assertThat(service.getMetrics().getExecutions(), is(0L));
+        
+        service.start();
+        try {
+            final CountDownLatch latch = new CountDownLatch(20);
+            for (int i = 0; i < 20; i++) {
+                service.submit(latch);
+            }
+            latch.await(2L, TimeUnit.SECONDS);
+            assertThat(latch.getCount(), is(0L));
+            
+            // the last execution only completes once its worker goes back to idle
+            final long deadline = System.currentTimeMillis() + 2000L;
+            while (service.getMetrics().getExecutions() < 20L && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5L);
+            }
+            
+            WorkerMetrics metrics = service.getMetrics();
+            assertThat(metrics.getExecutions(), is(20L));
+            assertThat(metrics.getUnhandledThrowables(), is(0L));
+            assertThat(metrics.getRunningNanos(), greaterThan(0L));
+            assertThat(metrics.getIdleNanos(), greaterThan(0L));
+            assertThat(metrics.getExecuteLatency().getCount(), is(20L));
+            
+            // latches aren't timestamped, so only processing time is recorded
+            final TaskMetrics taskMetrics = service.getTaskMetrics();
+            assertThat(taskMetrics.isWaitRecorded(), is(false));
+            assertThat(taskMetrics.getQueueWait().getCount(), is(0L));
+            assertThat(taskMetrics.getProcessing().getCount(), is(20L));
+        } finally {
+            service.stop();
+        }
+        
+        // metrics survive a restart
+        service.start();
+        try {
+            assertThat(service.getMetrics().getExecutions(), is(20L));
+        } finally {
+            service.stop();
+        }
+    }
+    
+    @Test
+    public void steadyStateAllocatesNothing() throws Exception {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        final com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+        assumeTrue(threadMXBean.isThreadAllocatedMemorySupported());
+        threadMXBean.setThreadAllocatedMemoryEnabled(true);
+        
+        // a plain processor (not a mockito spy, which allocates on every call) and
+        // a preallocated queue, so anything allocated is the framework's fault
+        final AtomicLong workerThreadId = new AtomicLong(-1L);
+        ProcessorService<CountDownLatch,TestProcessor> service
+                = new ProcessorService<CountDownLatch,TestProcessor>("Test Processor Service", TaskQueues.ring(1024, WaitStrategy.PARK)) {
+            @Override
+            protected TestProcessor newProcessor() {
+                return new TestProcessor() {
+                    @Override
+                    public void execute(WorkerContext context, CountDownLatch task) throws ExecuteStopException, InterruptedException {
+                        workerThreadId.set(Thread.currentThread().getId());
+                        task.countDown();
+                    }
+                };
+            }
+        };
+        service.setRejectionPolicy(RejectionPolicy.BLOCK);
+        
+        service.start();
+        try {
+            // warm up (class loading, jit, etc.)
+            this.submitAndAwait(service, 50_000);
+            this.awaitIdle(service);
+            
+            final long before = threadMXBean.getThreadAllocatedBytes(workerThreadId.get());
+            this.submitAndAwait(service, 100_000);
+            this.awaitIdle(service);
+            final long allocated = threadMXBean.getThreadAllocatedBytes(workerThreadId.get()) - before;
+            
+            // even a single object per task would be 1.6MB+
+            assertThat("bytes allocated by worker for 100k tasks", allocated, lessThan(64L * 1024L));
+        } finally {
+            service.stop();
+        }
+    }
+    
+    private void submitAndAwait(ProcessorService<CountDownLatch,?> service, int count) throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(count);
+        for (int i = 0; i < count; i++) {
+            service.submit(latch);
+        }
+        latch.await(10L, TimeUnit.SECONDS);
+        assertThat(latch.getCount(), is(0L));
+    }
+    
+    private void awaitIdle(ProcessorService<CountDownLatch,?> service) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 2000L;
+        while (service.getRunnables().get(0).getState() != WorkerState.IDLE && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1L);
+        }
+    }
+    
+    @Test
+    public void delayedSubmit() throws Exception {
+        TestProcessorService service = new TestProcessorService();
+        
+        service.start();
+        try {
+            final CountDownLatch latch = new CountDownLatch(2);
+            
+            assertThat(service.submit(latch, millis(200)), is(SubmitResult.SCHEDULED));
+            assertThat(service.submitAt(latch, Instant.now().plusMillis(200L)), is(SubmitResult.SCHEDULED));
+            assertThat(service.getDelayedSize(), is(2));
+            assertThat(service.getQueueSize(), is(0));
+            
+            // not due yet
+            latch.await(100L, TimeUnit.MILLISECONDS);
+            assertThat(latch.getCount(), is(2L));
+            
+            latch.await(2L, TimeUnit.SECONDS);
+            assertThat(latch.getCount(), is(0L));
+            assertThat(service.getDelayedSize(), is(0));
+            
+            // no delay is a regular submit
+            assertThat(service.submit(new CountDownLatch(1), null), is(SubmitResult.QUEUED));
+        } finally {
+            service.stop();
+        }
+    }
+    
+    @Test
+    public void delayedTaskNeverBlocksTimer() throws Exception {
+        final List<CountDownLatch> rejected = new CopyOnWriteArrayList<>();
+        TestProcessorService service = new TestProcessorService(TaskQueues.bounded(1)) {
+            @Override
+            protected void onDelayedRejected(CountDownLatch task, RejectedExecutionException e) {
+                rejected.add(task);
+            }
+        };
+        // would block the timer thread forever if applied once due
+        service.setRejectionPolicy(RejectionPolicy.BLOCK);
+        
+        // not started, so the queue stays full
+        assertThat(service.submit(new CountDownLatch(1)), is(SubmitResult.QUEUED));
+        
+        final CountDownLatch first = new CountDownLatch(1);
+        final CountDownLatch second = new CountDownLatch(1);
+        assertThat(service.submit(first, millis(20)), is(SubmitResult.SCHEDULED));
+        assertThat(service.submit(second, millis(40)), is(SubmitResult.SCHEDULED));
+        
+        final long deadline = System.currentTimeMillis() + 2000L;
+        while (rejected.size() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5L);
+        }
+        
+        assertThat(rejected, contains(first, second));
+        assertThat(service.getDelayedSize(), is(0));
+        assertThat(service.getQueueSize(), is(1));
+    }
+    
+    @Test
+    public void batchProcessorLingerCountsPermits() throws Exception {
+        TestBatchProcessorService service = new TestBatchProcessorService();
+        service.setBatchSize(100);
+        service.setBatchLinger(millis(300L));
+        // a full bucket of 20, then 10 per sec
+        service.setRateLimiter(RateLimiters.tokenBucket(10.0d, 20));
+        
+        service.start();
+        try {
+            millis(250L).sleep();
+            
+            // 1 taken, then 19 more join it while it lingers
+            final CountDownLatch first = new CountDownLatch(20);
+            service.submit(first);
+            millis(50L).sleep();
+            for (int i = 1; i < 20; i++) {
+                service.submit(first);
+            }
+            assertThat(first.await(2L, TimeUnit.SECONDS), is(true));
+            assertThat(service.batchSizes, contains(20));
+            
+            // the bucket is empty now, so the next 5 (lingering 300ms, during which 3
+            // permits come back) wait ~200ms more for permits
+            final long start = System.nanoTime();
+            final CountDownLatch second = new CountDownLatch(5);
+            for (int i = 0; i < 5; i++) {
+                service.submit(second);
+            }
+            assertThat(second.await(3L, TimeUnit.SECONDS), is(true));
+            
+            final long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            assertThat(elapsedMillis, greaterThan(420L));
+        } finally {
+            service.stop();
+        }
+    }
+    
+    @Test
+    public void batchProcessorLinger() throws Exception {
+        TestBatchProcessorService service = new TestBatchProcessorService();
+        service.setBatchSize(5);
+        service.setBatchLinger(millis(1000L));
+        
+        service.start();
+        try {
+            millis(250L).sleep();
+            
+            final CountDownLatch latch = new CountDownLatch(3);
+            service.submit(latch);
+            millis(100L).sleep();
+            service.submit(latch);
+            service.submit(latch);
+            
+            latch.await(3L, TimeUnit.SECONDS);
+
+            // partial batch should have waited for the later tasks
+            assertThat(latch.getCount(), is(0L));
+            assertThat(service.batchSizes, contains(3));
+        } finally {
+            service.stop();
+        }
+    }
+    
+    @Test
+    public void drainReturnsLeftovers() throws Exception {
+        // a processor that always finishes its task (never checks for a stop)
+        ProcessorService<CountDownLatch,Processor<CountDownLatch>> service
+                = new ProcessorService<CountDownLatch,Processor<CountDownLatch>>("Test Drain Service") {
+            @Override
+            protected Processor<CountDownLatch> newProcessor() {
+                return (context, task) -> {
+                    Thread.sleep(100L);
+                    task.countDown();
+                };
+            }
+        };
+        service.setInitialDelayStagger(0.0d);
+        service.setMinPoolSize(2);
+        
+        service.start();
+        
+        final CountDownLatch latch = new CountDownLatch(20);
+        for (int i = 0; i < 20; i++) {
+            service.submit(latch);
+        }
+        
+        // each task takes 100ms, so 2 workers won't get through them all
+        final List<CountDownLatch> leftover = service.drain(millis(250));
+        
+        assertThat(service.getState(), is(ServiceState.STOPPED));
+        assertThat(leftover.size(), greaterThan(0));
+        // nothing lost: every task either ran or was handed back
+        assertThat(latch.getCount(), is((long)leftover.size()));
+        assertThat(service.getQueueSize(), is(0));
+        
+        try {
+            service.submit(latch);
+            fail();
+        } catch (RejectedExecutionException e) {
+            // expected while drained
+        }
+        
+        // accepting again once restarted, and a long enough drain empties the queue
+        service.start();
+        leftover.forEach(service::submit);
+        
+        assertThat(service.drain(millis(5000)), hasSize(0));
+        assertThat(latch.getCount(), is(0L));
+    }
+    
+    @Test
+    public void taskTakenDuringStopKeepsItsPlace() throws Exception {
+        final List<Integer> processed = new CopyOnWriteArrayList<>();
+        final ProcessorService<Integer,Processor<Integer>> service
+                = new ProcessorService<Integer,Processor<Integer>>("Test Taken Service", TaskQueues.bounded(4)) {
+            @Override
+            protected Processor<Integer> newProcessor() {
+                return (context, task) -> processed.add(task);
+            }
+        };
+        service.setInitialDelayStagger(0.0d);
+        service.setMinPoolSize(1);
+        service.setMaxPoolSize(1);
+        // the first task takes the only permit, the next sits taken waiting for another
+        service.setRateLimiter(RateLimiters.tokenBucket(0.1d, 1));
+        
+        service.start();
+        try {
+            service.submit(0);
+            service.submit(1);
+            final long deadline = System.currentTimeMillis() + 5000L;
+            while ((processed.isEmpty() || service.getQueueSize() > 0) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10L);
+            }
+            assertThat(processed, contains(0));
+            
+            // fill the queue right up behind the taken task
+            for (int i = 2; i < 6; i++) {
+                service.submit(i);
+            }
+        } finally {
+            service.stop();
+        }
+        
+        // handed back, not lost to the full queue, and still ahead of the later tasks
+        assertThat(service.getQueueSize(), is(5));
+        assertThat(service.drain(null), contains(1, 2, 3, 4, 5));
+    }
+    
+    @Test
+    public void queueFullRejects() throws Exception {
+        // never started, so nothing drains the queue
+        TestProcessorService service = new TestProcessorService(TaskQueues.bounded(2));
+        
+        assertThat(service.submit(new CountDownLatch(1)), is(SubmitResult.QUEUED));
+        assertThat(service.submit(new CountDownLatch(1)), is(SubmitResult.QUEUED));
+        assertThat(service.getQueueRemainingCapacity(), is(0));
+        
+        try {
+            service.submit(new CountDownLatch(1));
+            fail();
+        } catch (RejectedExecutionException e) {
+            // expected
+        }
+        
+        assertThat(service.getQueueSize(), is(2));
+    }
+    
+    @Test
+    public void queueFullBlocksThenTimesOut() throws Exception {
+        TestProcessorService service = new TestProcessorService(TaskQueues.bounded(1));
+        service.setRejectionPolicy(RejectionPolicy.BLOCK);
+        service.setSubmitTimeout(millis(50L));
+        
+        assertThat(service.submit(new CountDownLatch(1)), is(SubmitResult.QUEUED));
+        assertThat(service.submit(new CountDownLatch(1)), is(SubmitResult.TIMED_OUT));
+        assertThat(service.getQueueSize(), is(1));
+    }
+    
+    @Test
+    public void queueFullCallerRuns() throws Exception {
+        TestProcessorService service = new TestProcessorService(TaskQueues.bounded(1));
+        service.setRejectionPolicy(RejectionPolicy.CALLER_RUNS);
+        
+        final CountDownLatch latch1 = new CountDownLatch(1);
+        final CountDownLatch latch2 = new CountDownLatch(1);
+        
+        assertThat(service.submit(latch1), is(SubmitResult.QUEUED));
+        assertThat(service.submit(latch2), is(SubmitResult.CALLER_RAN));
+        assertThat(latch1.getCount(), is(1L));
+        assertThat(latch2.getCount(), is(0L));
+    }
+    
+    @Test
+    public void callerRunsReusesProcessor() throws Exception {
+        final AtomicInteger created = new AtomicInteger();
+        final ProcessorService<CountDownLatch,Processor<CountDownLatch>> service
+                = new ProcessorService<CountDownLatch,Processor<CountDownLatch>>("Test Caller Service", TaskQueues.bounded(1)) {
+            @Override
+            protected Processor<CountDownLatch> newProcessor() {
+                created.incrementAndGet();
+                return (context, task) -> task.countDown();
+            }
+        };
+        service.setRejectionPolicy(RejectionPolicy.CALLER_RUNS);
+        
+        final CountDownLatch latch = new CountDownLatch(11);
+        assertThat(service.submit(latch), is(SubmitResult.QUEUED));
+        for (int i = 0; i < 10; i++) {
+            assertThat(service.submit(latch), is(SubmitResult.CALLER_RAN));
+        }
+        
+        assertThat(latch.getCount(), is(1L));
+        assertThat(created.get(), is(1));
+    }
+    
+    @Test
+    public void callerRunsRespectsRateLimit() throws Exception {
+        final ProcessorService<CountDownLatch,Processor<CountDownLatch>> service
+                = new ProcessorService<CountDownLatch,Processor<CountDownLatch>>("Test Caller Limited Service", TaskQueues.bounded(1)) {
+            @Override
+            protected Processor<CountDownLatch> newProcessor() {
+                return (context, task) -> task.countDown();
+            }
+        };
+        service.setRejectionPolicy(RejectionPolicy.CALLER_RUNS);
+        // a burst of 1, then one every 50ms
+        service.setRateLimiter(RateLimiters.tokenBucket(20.0d, 1));
+        
+        final CountDownLatch latch = new CountDownLatch(5);
+        assertThat(service.submit(latch), is(SubmitResult.QUEUED));
+        
+        // not started, so the rest run on us, but no faster than the cap
+        final long start = System.nanoTime();
+        for (int i = 0; i < 4; i++) {
+            assertThat(service.submit(latch), is(SubmitResult.CALLER_RAN));
+        }
+        final long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        
+        assertThat(latch.getCount(), is(1L));
+        assertThat(elapsedMillis, greaterThan(120L));
+    }
+    
+    @Test
+    public void queueFullDropsOldest() throws Exception {
+        final List<CountDownLatch> dropped = new CopyOnWriteArrayList<>();
+        TestProcessorService service = new TestProcessorService(TaskQueues.bounded(2)) {
+            @Override
+            protected void onDropped(CountDownLatch task) {
+                dropped.add(task);
+            }
+        };
+        service.setRejectionPolicy(RejectionPolicy.DROP_OLDEST);
+        
+        final CountDownLatch latch1 = new CountDownLatch(1);
+        
+        assertThat(service.submit(latch1), is(SubmitResult.QUEUED));
+        assertThat(service.submit(new CountDownLatch(1)), is(SubmitResult.QUEUED));
+        assertThat(service.submit(new CountDownLatch(1)), is(SubmitResult.QUEUED_DROPPED));
+        assertThat(service.getQueueSize(), is(2));
+        assertThat(dropped, contains(latch1));
+    }
+    
+    @Test
+    public void elasticPoolGrowsAndShrinks() throws Exception {
+        TestProcessorService service = new TestProcessorService();
+        service.setMinPoolSize(1);
+        service.setMaxPoolSize(4);
+        service.setAutoscaleInterval(millis(50L));
+        service.setKeepAlive(millis(200L));
+        
+        service.start();
+        try {
+            assertThat(service.getPoolSize(), is(1));
+            
+            // each task takes 100ms, so one worker falls behind quickly
+            final CountDownLatch latch = new CountDownLatch(40);
+            for (int i = 0; i < 40; i++) {
+                service.submit(latch);
+            }
+            
+            millis(1000L).sleep();
+            
+            assertThat(service.getPoolSize(), greaterThan(1));
+            
+            latch.await(10L, TimeUnit.SECONDS);
+            assertThat(latch.getCount(), is(0L));
+            
+            // idle workers above the min are retired
+            final long deadline = System.currentTimeMillis() + 5000L;
+            while (service.getPoolSize() > 1 && System.currentTimeMillis() < deadline) {
+                millis(50L).sleep();
+            }
+            
+            assertThat(service.getPoolSize(), is(1));
+        } finally {
+            service.stop();
+        }
+    }
+    
+    @Test
+    public void scalesFromZero() throws Exception {
+        TestProcessorService service = new TestProcessorService();
+        service.setMinPoolSize(0);
+        service.setMaxPoolSize(2);
+        service.setAutoscaleInterval(millis(50L));
+        service.setKeepAlive(millis(200L));
+        
+        service.start();
+        try {
+            assertThat(service.getPoolSize(), is(0));
+            
+            for (int round = 0; round < 2; round++) {
+                // the first task spins up a worker right away
+                final CountDownLatch latch = new CountDownLatch(1);
+                service.submit(latch);
+                assertThat(service.getPoolSize(), is(1));
+                
+                assertThat(latch.await(2L, TimeUnit.SECONDS), is(true));
+                
+                // and once idle for the keep alive, back down to nothing
+                final long deadline = System.currentTimeMillis() + 5000L;
+                while (service.getPoolSize() > 0 && System.currentTimeMillis() < deadline) {
+                    millis(50L).sleep();
+                }
+                
+                assertThat(service.getPoolSize(), is(0));
+            }
+        } finally {
+            service.stop();
+        }
+    }
+    
+    @Test
+    public void interceptors() throws Exception {
+        final CountDownLatch poison = new CountDownLatch(99);
+        ProcessorService<CountDownLatch,Processor<CountDownLatch>> service
+                = new ProcessorService<CountDownLatch,Processor<CountDownLatch>>("Test Interceptor Service") {
+            @Override
+            protected Processor<CountDownLatch> newProcessor() {
+                return (context, task) -> {
+                    if (task == poison) {
+                        throw new IllegalStateException("poison");
+                    }
+                    task.countDown();
+                };
+            }
+        };
+        service.setInitialDelayStagger(0.0d);
+        service.setUnhandledThrowableDelay(millis(10L));
+        
+        final List<String> events = new CopyOnWriteArrayList<>();
+        final AtomicLong elapsed = new AtomicLong();
+        service.addInterceptor(new TaskInterceptor<CountDownLatch>() {
+            @Override
+            public void onTaskDequeued(WorkerContext context, CountDownLatch task) {
+                events.add("dequeued");
+            }
+            @Override
+            public void beforeTask(WorkerContext context, CountDownLatch task) {
+                events.add("before");
+            }
+            @Override
+            public void afterTask(WorkerContext context, CountDownLatch task, long elapsedNanos, Throwable throwable) {
+                events.add(throwable != null ? "after " + throwable.getMessage() : "after");
+                elapsed.addAndGet(elapsedNanos);
+            }
+            @Override
+            public void onThrowable(WorkerContext context, Throwable throwable) {
+                events.add("throwable " + throwable.getMessage());
+            }
+        });
+        
+        service.start();
+        try {
+            final CountDownLatch latch = new CountDownLatch(1);
+            service.submit(poison);
+            service.submit(latch);
+            
+            assertThat(latch.await(2L, TimeUnit.SECONDS), is(true));
+            millis(50L).sleep();
+            
+            assertThat(events, contains(
+                "dequeued", "before", "after poison", "throwable poison",
+                "dequeued", "before", "after"));
+            assertThat(elapsed.get(), greaterThan(0L));
+        } finally {
+            service.stop();
+        }
+    }
+    
+    @Test
+    public void rateLimited() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(60);
+        final ProcessorService<CountDownLatch,Processor<CountDownLatch>> service
+                = new ProcessorService<CountDownLatch,Processor<CountDownLatch>>("Rate Limited Service") {
+            @Override
+            protected Processor<CountDownLatch> newProcessor() {
+                return (context, task) -> task.countDown();
+            }
+        };
+        service.setInitialDelayStagger(0.0d);
+        service.setMinPoolSize(4);
+        service.setMaxPoolSize(4);
+        // a burst of 10, then 50 per sec: the remaining 50 take a second
+        service.setRateLimiter(RateLimiters.tokenBucket(50.0d, 10));
+        
+        service.start();
+        try {
+            final long start = System.nanoTime();
+            for (int i = 0; i < 60; i++) {
+                service.submit(latch);
+            }
+            
+            assertThat(latch.await(5L, TimeUnit.SECONDS), is(true));
+            
+            final long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            assertThat(elapsedMillis, greaterThan(800L));
+        } finally {
+            service.stop();
+        }
+    }
+    
+    @Test
+    public void sharedBulkhead() throws Exception {
+        final Bulkhead bulkhead = new Bulkhead("db", 2);
+        final AtomicInteger concurrent = new AtomicInteger();
+        final AtomicInteger maxConcurrent = new AtomicInteger();
+        final CountDownLatch latch = new CountDownLatch(40);
+        
+        final List<ProcessorService<CountDownLatch,Processor<CountDownLatch>>> services = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            final ProcessorService<CountDownLatch,Processor<CountDownLatch>> service
+                    = new ProcessorService<CountDownLatch,Processor<CountDownLatch>>("Bulkhead Service " + i) {
+                @Override
+                protected Processor<CountDownLatch> newProcessor() {
+                    return (context, task) -> {
+                        final int now = concurrent.incrementAndGet();
+                        maxConcurrent.accumulateAndGet(now, Math::max);
+                        Thread.sleep(5L);
+                        concurrent.decrementAndGet();
+                        task.countDown();
+                    };
+                }
+            };
+            service.setInitialDelayStagger(0.0d);
+            service.setMinPoolSize(4);
+            service.setMaxPoolSize(4);
+            service.setBulkhead(bulkhead);
+            services.add(service);
+        }
+        
+        services.forEach(Service::start);
+        try {
+            for (int i = 0; i < 40; i++) {
+                services.get(i % 2).submit(latch);
+            }
+            
+            assertThat(latch.await(5L, TimeUnit.SECONDS), is(true));
+            
+            // 8 workers, but never more than 2 running at once
+            assertThat(maxConcurrent.get(), is(2));
+        } finally {
+            services.forEach(Service::stop);
+        }
+        
+        // every permit handed back
+        assertThat(bulkhead.getAvailablePermits(), is(2));
+    }
+    
+}
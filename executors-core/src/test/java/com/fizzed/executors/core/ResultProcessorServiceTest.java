@@ -0,0 +1,242 @@
+/*
+ * Copyright 2025 Fizzed, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fizzed.executors.core;
+
+import static com.fizzed.crux.util.TimeDuration.millis;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.junit.Assert.fail;
+import org.junit.Test;
+
+public class ResultProcessorServiceTest {
+
+    static public class TestResultProcessorService extends ResultProcessorService<Integer,String,ResultProcessor<Integer,String>> {
+
+        final List<Integer> executed = new CopyOnWriteArrayList<>();
+        volatile CountDownLatch gate = new CountDownLatch(0);
+        
+        public TestResultProcessorService(int queueCapacity) {
+            super("Test Result Processor Service", queueCapacity);
+        }
+        
+        @Override
+        protected ResultProcessor<Integer,String> newResultProcessor() {
+            return (context, task) -> {
+                this.gate.await();
+                this.executed.add(task);
+                if (task < 0) {
+                    throw new IOException("negative " + task);
+                }
+                return "result-" + task;
+            };
+        }
+        
+    }
+    
+    @Test
+    public void completesWithResultOrException() throws Exception {
+        TestResultProcessorService service = new TestResultProcessorService(100);
+        
+        service.start();
+        try {
+            final CompletableFuture<String> a = service.submitAsync(1);
+            final CompletableFuture<String> b = service.submitAsync(-2);
+            final CompletableFuture<Integer> c = service.submitAsync(3).thenApply(String::length);
+            
+            assertThat(a.get(2L, TimeUnit.SECONDS), is("result-1"));
+            assertThat(c.get(2L, TimeUnit.SECONDS), is(8));
+            try {
+                b.get(2L, TimeUnit.SECONDS);
+                fail();
+            } catch (ExecutionException e) {
+                assertThat(e.getCause(), instanceOf(IOException.class));
+            }
+            
+            // a failed task is not an unhandled throwable for the worker
+            assertThat(service.submitAsync(4).get(2L, TimeUnit.SECONDS), is("result-4"));
+            assertThat(service.getMetrics().getUnhandledThrowables(), is(0L));
+        } finally {
+            service.stop();
+        }
+    }
+    
+    @Test
+    public void cancelledWhileQueuedIsSkipped() throws Exception {
+        TestResultProcessorService service = new TestResultProcessorService(100);
+        service.gate = new CountDownLatch(1);
+        
+        service.start();
+        try {
+            // first one holds up the worker, so the rest stay queued
+            final CompletableFuture<String> a = service.submitAsync(1);
+            final CompletableFuture<String> b = service.submitAsync(2);
+            final CompletableFuture<String> c = service.submitAsync(3);
+            
+            assertThat(b.cancel(false), is(true));
+            service.gate.countDown();
+            
+            assertThat(a.get(2L, TimeUnit.SECONDS), is("result-1"));
+            assertThat(c.get(2L, TimeUnit.SECONDS), is("result-3"));
+            assertThat(b.isCancelled(), is(true));
+            assertThat(service.executed, contains(1, 3));
+        } finally {
+            service.stop();
+        }
+    }
+    
+    @Test
+    public void rejectedFuturesComplete() throws Exception {
+        // not started, so nothing is taken off the queue
+        TestResultProcessorService service = new TestResultProcessorService(1);
+        
+        service.setRejectionPolicy(RejectionPolicy.DROP_OLDEST);
+        final CompletableFuture<String> a = service.submitAsync(1);
+        final CompletableFuture<String> b = service.submitAsync(2);
+        assertThat(a.isCompletedExceptionally(), is(true));
+        assertThat(b.isDone(), is(false));
+        
+        service.setRejectionPolicy(RejectionPolicy.BLOCK);
+        service.setSubmitTimeout(millis(10));
+        final CompletableFuture<String> c = service.submitAsync(3);
+        try {
+            c.get(1L, TimeUnit.SECONDS);
+            fail();
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(RejectedExecutionException.class));
+        }
+    }
+    
+    @Test
+    public void leftoverFuturesCompleteOnStop() throws Exception {
+        TestResultProcessorService service = new TestResultProcessorService(100);
+        service.setMinPoolSize(1);
+        service.setMaxPoolSize(1);
+        service.setDrainTimeout(millis(50));
+        service.gate = new CountDownLatch(1);
+        
+        service.start();
+        
+        final CompletableFuture<String> a = service.submitAsync(1);
+        final CompletableFuture<String> b = service.submitAsync(2);
+        final CompletableFuture<String> c = service.submitAsync(3);
+        
+        // the worker is stuck on the first task for longer than the drain
+        new Thread(() -> {
+            try {
+                Thread.sleep(200L);
+            } catch (InterruptedException e) {
+                // ignore
+            }
+            service.gate.countDown();
+        }).start();
+        
+        service.stop();
+        
+        assertThat(a.get(1L, TimeUnit.SECONDS), is("result-1"));
+        for (CompletableFuture<String> leftover : new CompletableFuture[] { b, c }) {
+            try {
+                leftover.get(1L, TimeUnit.SECONDS);
+                fail();
+            } catch (ExecutionException e) {
+                assertThat(e.getCause(), instanceOf(RejectedExecutionException.class));
+            }
+        }
+    }
+    
+    @Test
+    public void taskMetrics() throws Exception {
+        TestResultProcessorService service = new TestResultProcessorService(100);
+        service.gate = new CountDownLatch(1);
+        
+        service.start();
+        try {
+            final CompletableFuture<String> a = service.submitAsync(1);
+            final CompletableFuture<String> b = service.submitAsync(2);
+            final CompletableFuture<String> c = service.submitAsync(3);
+            
+            Thread.sleep(100L);
+            assertThat(service.getTaskMetrics().getQueueSize(), is(2));
+            service.gate.countDown();
+            
+            CompletableFuture.allOf(a, b, c).get(2L, TimeUnit.SECONDS);
+            
+            // the futures complete before the worker records the total
+            final long deadline = System.currentTimeMillis() + 2000L;
+            while (service.getTaskMetrics().getTotal().getCount() < 3L && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5L);
+            }
+            
+            final TaskMetrics metrics = service.getTaskMetrics();
+            assertThat(metrics.getQueueSize(), is(0));
+            assertThat(metrics.isWaitRecorded(), is(true));
+            assertThat(metrics.getQueueWait().getCount(), is(3L));
+            assertThat(metrics.getTotal().getCount(), is(3L));
+            assertThat(metrics.getProcessing().getCount(), is(3L));
+            // the 2 held up behind the first waited in the queue
+            assertThat(metrics.getQueueWait().getMax(), greaterThan(TimeUnit.MILLISECONDS.toNanos(90L)));
+            assertThat(metrics.getTotal().getMax(), greaterThanOrEqualTo(metrics.getQueueWait().getMax()));
+        } finally {
+            service.stop();
+        }
+    }
+    
+    @Test
+    public void scalesUpOnQueueWait() throws Exception {
+        TestResultProcessorService service = new TestResultProcessorService(100);
+        service.setMinPoolSize(1);
+        service.setMaxPoolSize(4);
+        service.setAutoscaleInterval(millis(50L));
+        // a handful of tasks never counts as a backlog
+        service.setScaleUpBacklog(100);
+        service.gate = new CountDownLatch(1);
+        
+        service.start();
+        try {
+            final CompletableFuture<String> a = service.submitAsync(1);
+            final CompletableFuture<String> b = service.submitAsync(2);
+            final CompletableFuture<String> c = service.submitAsync(3);
+            
+            Thread.sleep(300L);
+            assertThat(service.getPoolSize(), is(1));
+            
+            // but the 2 stuck behind the first have waited too long
+            service.setScaleUpQueueWait(millis(100L));
+            final long deadline = System.currentTimeMillis() + 2000L;
+            while (service.getPoolSize() < 2 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10L);
+            }
+            assertThat(service.getPoolSize(), greaterThan(1));
+            
+            service.gate.countDown();
+            CompletableFuture.allOf(a, b, c).get(2L, TimeUnit.SECONDS);
+        } finally {
+            service.stop();
+        }
+    }
+    
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2025 Fizzed, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fizzed.executors.core;
+
+import static com.fizzed.crux.util.TimeDuration.millis;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+import org.junit.Test;
+
+public class SchedulesTest {
+
+    static private final ZoneId UTC = ZoneId.of("UTC");
+    
+    static private long utc(String dateTime) {
+        return ZonedDateTime.parse(dateTime + "Z[UTC]").toInstant().toEpochMilli();
+    }
+    
+    @Test
+    public void fixedDelay() {
+        final Schedule schedule = Schedules.fixedDelay(millis(100));
+        
+        assertThat(schedule.nextDue(-1L, 1000L), is(1000L));
+        assertThat(schedule.nextDue(1000L, 1050L), is(1150L));
+    }
+    
+    @Test
+    public void fixedRateDoesNotDrift() {
+        final Schedule schedule = Schedules.fixedRate(millis(100), MissedRuns.SKIP);
+        
+        assertThat(schedule.nextDue(-1L, 1000L), is(1000L));
+        // took 30ms, still due at the next period
+        assertThat(schedule.nextDue(1000L, 1030L), is(1100L));
+        assertThat(schedule.nextDue(1100L, 1199L), is(1200L));
+    }
+    
+    @Test
+    public void fixedRateMissedRuns() {
+        // a run took 350ms, so runs due at 1100, 1200 and 1300 were missed
+        final Schedule skip = Schedules.fixedRate(millis(100), MissedRuns.SKIP);
+        assertThat(skip.nextDue(1000L, 1350L), is(1400L));
+        
+        final Schedule coalesce = Schedules.fixedRate(millis(100), MissedRuns.COALESCE);
+        assertThat(coalesce.nextDue(1000L, 1350L), is(1300L));
+        // and back in phase afterwards
+        assertThat(coalesce.nextDue(1300L, 1360L), is(1400L));
+    }
+    
+    @Test
+    public void cronEveryMinute() {
+        final Schedule schedule = Schedules.cron("* * * * *", UTC, MissedRuns.SKIP);
+        
+        assertThat(schedule.nextDue(-1L, utc("2025-03-01T10:15:20")), is(utc("2025-03-01T10:16:00")));
+        assertThat(schedule.nextDue(utc("2025-03-01T10:16:00"), utc("2025-03-01T10:16:05")), is(utc("2025-03-01T10:17:00")));
+    }
+    
+    @Test
+    public void cronFields() {
+        // every 15 minutes during business hours on weekdays
+        Schedule schedule = Schedules.cron("*/15 9-17 * * MON-FRI", UTC, MissedRuns.SKIP);
+        // 2025-03-01 is a saturday
+        assertThat(schedule.nextDue(-1L, utc("2025-03-01T10:15:20")), is(utc("2025-03-03T09:00:00")));
+        assertThat(schedule.nextDue(-1L, utc("2025-03-03T09:00:00")), is(utc("2025-03-03T09:15:00")));
+        assertThat(schedule.nextDue(-1L, utc("2025-03-03T17:45:00")), is(utc("2025-03-04T09:00:00")));
+        
+        // with seconds, lists, and day of month or day of week
+        schedule = Schedules.cron("30 0 12 1,15 * 0", UTC, MissedRuns.SKIP);
+        assertThat(schedule.nextDue(-1L, utc("2025-03-01T12:00:30")), is(utc("2025-03-02T12:00:30")));
+        assertThat(schedule.nextDue(-1L, utc("2025-03-10T00:00:00")), is(utc("2025-03-15T12:00:30")));
+        
+        // sunday as 7, month names and leap years
+        schedule = Schedules.cron("0 0 29 feb *", UTC, MissedRuns.SKIP);
+        assertThat(schedule.nextDue(-1L, utc("2025-03-01T00:00:00")), is(utc("2028-02-29T00:00:00")));
+        schedule = Schedules.cron("0 6 * * 7", UTC, MissedRuns.SKIP);
+        assertThat(schedule.nextDue(-1L, utc("2025-03-01T00:00:00")), is(utc("2025-03-02T06:00:00")));
+    }
+    
+    @Test
+    public void cronMissedRuns() {
+        final long lastDue = utc("2025-03-01T10:00:00");
+        final long now = utc("2025-03-01T10:03:30");
+        
+        assertThat(Schedules.cron("* * * * *", UTC, MissedRuns.SKIP).nextDue(lastDue, now), is(utc("2025-03-01T10:04:00")));
+        assertThat(Schedules.cron("* * * * *", UTC, MissedRuns.COALESCE).nextDue(lastDue, now), is(now));
+    }
+    
+    @Test
+    public void cronInvalid() {
+        for (String expression : new String[] { "* * * *", "60 * * * *", "* * * * * * *", "5-1 * * * *", "* * * foo *", "0 0 30 2 *" }) {
+            try {
+                Schedules.cron(expression);
+                fail("expected '" + expression + "' to be invalid");
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+    }
+    
+}
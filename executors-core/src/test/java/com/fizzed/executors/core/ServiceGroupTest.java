@@ -0,0 +1,214 @@
+/*
+ * Copyright 2025 Fizzed, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fizzed.executors.core;
+
+import static com.fizzed.crux.util.TimeDuration.millis;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.fail;
+import org.junit.Test;
+
+public class ServiceGroupTest {
+
+    static public class TestService implements Service {
+        
+        private final String name;
+        private final long delayMillis;
+        private final List<String> events;
+        private final AtomicReference<ServiceState> state;
+        volatile boolean failStart;
+
+        public TestService(String name, long delayMillis, List<String> events) {
+            this.name = name;
+            this.delayMillis = delayMillis;
+            this.events = events;
+            this.state = new AtomicReference<>(ServiceState.STOPPED);
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+        
+        @Override
+        public ServiceState getState() {
+            return this.state.get();
+        }
+
+        @Override
+        public void start() {
+            this.sleep();
+            if (this.failStart) {
+                throw new IllegalStateException("boom");
+            }
+            this.events.add("start " + this.name);
+            this.state.set(ServiceState.STARTED);
+        }
+
+        @Override
+        public void stop() {
+            this.sleep();
+            this.events.add("stop " + this.name);
+            this.state.set(ServiceState.STOPPED);
+        }
+
+        @Override
+        public void shutdown() {
+            this.stop();
+        }
+        
+        private void sleep() {
+            try {
+                Thread.sleep(this.delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+    
+    @Test
+    public void parallelWithDependencies() throws Exception {
+        final List<String> events = new CopyOnWriteArrayList<>();
+        final TestService db = new TestService("db", 100L, events);
+        final TestService a = new TestService("a", 200L, events);
+        final TestService b = new TestService("b", 200L, events);
+        final TestService c = new TestService("c", 200L, events);
+        
+        final ServiceGroup group = new ServiceGroup("test")
+            .add(db)
+            .add(a, db)
+            .add(b, db)
+            .add(c, db);
+        
+        long started = System.currentTimeMillis();
+        group.start();
+        long elapsed = System.currentTimeMillis() - started;
+        
+        assertThat(group.getState(), is(ServiceState.STARTED));
+        assertThat(events.get(0), is("start db"));
+        assertThat(events.size(), is(4));
+        // db, then a/b/c at the same time (rather than 700ms one after another)
+        assertThat(elapsed, lessThan(600L));
+        assertThat(group.getStartTimes().keySet(), contains(db, a, b, c));
+        assertThat(group.getStartTimes().get(a).asMillis(), greaterThan(150L));
+        
+        events.clear();
+        started = System.currentTimeMillis();
+        group.stop();
+        elapsed = System.currentTimeMillis() - started;
+        
+        assertThat(group.getState(), is(ServiceState.STOPPED));
+        assertThat(events.get(3), is("stop db"));
+        assertThat(elapsed, lessThan(600L));
+        assertThat(db.getState(), is(ServiceState.STOPPED));
+    }
+    
+    @Test
+    public void stopHasOneDeadline() throws Exception {
+        final List<String> events = new CopyOnWriteArrayList<>();
+        final TestService fast = new TestService("fast", 10L, events);
+        final TestService slow = new TestService("slow", 2000L, events);
+        
+        final ServiceGroup group = new ServiceGroup("test")
+            .add(fast)
+            .add(slow);
+        
+        // started on its own, which the group skips
+        slow.state.set(ServiceState.STARTED);
+        group.start();
+        assertThat(events, contains("start fast"));
+        
+        group.setShutdownTimeout(millis(300));
+        final long started = System.currentTimeMillis();
+        group.stop();
+        final long elapsed = System.currentTimeMillis() - started;
+        
+        assertThat(group.getState(), is(ServiceState.STOPPED));
+        assertThat(elapsed, lessThan(1500L));
+        assertThat(group.getStopTimes().keySet(), contains(fast));
+    }
+    
+    @Test
+    public void reusesThreads() throws Exception {
+        final List<String> events = new CopyOnWriteArrayList<>();
+        final TestService a = new TestService("a", 1L, events);
+        final TestService b = new TestService("b", 1L, events);
+        
+        final ServiceGroup group = new ServiceGroup("reuse")
+            .add(a)
+            .add(b);
+        
+        final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        final long startedThreads = threadMXBean.getTotalStartedThreadCount();
+        
+        for (int i = 0; i < 20; i++) {
+            group.start();
+            if (i % 2 == 0) {
+                group.stop();
+            } else {
+                group.shutdown();
+                final long deadline = System.currentTimeMillis() + 5000L;
+                while (!group.isStopped() && System.currentTimeMillis() < deadline) {
+                    Thread.sleep(5L);
+                }
+            }
+            assertThat(group.getState(), is(ServiceState.STOPPED));
+        }
+        
+        // rather than new threads for every start, stop and shutdown
+        assertThat(threadMXBean.getTotalStartedThreadCount() - startedThreads, lessThan(10L));
+    }
+    
+    @Test
+    public void failedStartStopsWhatStarted() throws Exception {
+        final List<String> events = new CopyOnWriteArrayList<>();
+        final TestService db = new TestService("db", 10L, events);
+        final TestService a = new TestService("a", 10L, events);
+        final TestService b = new TestService("b", 10L, events);
+        b.failStart = true;
+        
+        final ServiceGroup group = new ServiceGroup("test")
+            .add(db)
+            .add(a, db)
+            .add(b, a);
+        
+        try {
+            group.start();
+            fail();
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        
+        assertThat(group.getState(), is(ServiceState.STOPPED));
+        assertThat(events, contains("start db", "start a", "stop a", "stop db"));
+        
+        try {
+            new ServiceGroup("test").add(a, db);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // dependencies must be added first
+        }
+    }
+    
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2025 Fizzed, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fizzed.executors.core;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import org.junit.Test;
+
+public class WorkStealingProcessorServiceTest {
+
+    // a range of numbers to sum, split in half until small
+    static public class Range {
+        final long from;
+        final long to;
+
+        public Range(long from, long to) {
+            this.from = from;
+            this.to = to;
+        }
+    }
+    
+    static public class SumProcessorService extends WorkStealingProcessorService<Range,Processor<Range>> {
+
+        final AtomicLong sum = new AtomicLong();
+        final AtomicLong summed = new AtomicLong();
+        final Set<String> workers = ConcurrentHashMap.newKeySet();
+        volatile CountDownLatch done;
+        volatile long total;
+        
+        public SumProcessorService() {
+            super("Test Work Stealing Service");
+        }
+        
+        @Override
+        protected Processor<Range> newProcessor() {
+            return (context, range) -> {
+                this.workers.add(context.getName());
+                if (range.to - range.from > 100L) {
+                    // fan out onto our own deque
+                    final long mid = (range.from + range.to) / 2L;
+                    @SuppressWarnings("unchecked")
+                    final WorkStealingContext<Range> stealingContext = (WorkStealingContext<Range>)context;
+                    stealingContext.submit(new Range(range.from, mid));
+                    stealingContext.submit(new Range(mid, range.to));
+                    return;
+                }
+                long s = 0L;
+                for (long v = range.from; v < range.to; v++) {
+                    s += v;
+                }
+                // a bit of work per leaf, so the others have a chance to steal
+                Thread.sleep(0L, 50_000);
+                this.sum.addAndGet(s);
+                if (this.summed.addAndGet(range.to - range.from) == this.total) {
+                    this.done.countDown();
+                }
+            };
+        }
+        
+    }
+    
+    @Test
+    public void fanOutIsStolen() throws Exception {
+        SumProcessorService service = new SumProcessorService();
+        service.setMinPoolSize(4);
+        
+        final long n = 200_000L;
+        service.total = n;
+        service.done = new CountDownLatch(1);
+        
+        service.start();
+        try {
+            service.submit(new Range(0L, n));
+            
+            service.done.await(10L, TimeUnit.SECONDS);
+            
+            assertThat(service.done.getCount(), is(0L));
+            assertThat(service.sum.get(), is(n * (n - 1L) / 2L));
+            // a single submitted task ended up spread over the pool
+            assertThat(service.workers.size(), greaterThan(1));
+            assertThat(service.getQueueSize(), is(0));
+        } finally {
+            service.stop();
+        }
+    }
+    
+    @Test
+    public void tasksSubmittedBeforeStart() throws Exception {
+        SumProcessorService service = new SumProcessorService();
+        service.setMinPoolSize(2);
+        
+        // submitted before start
+        final long n = 1000L;
+        service.total = n;
+        service.done = new CountDownLatch(1);
+        for (long v = 0; v < n; v += 10L) {
+            service.submit(new Range(v, v + 10L));
+        }
+        assertThat(service.getQueueSize(), is(100));
+        
+        service.start();
+        try {
+            service.done.await(10L, TimeUnit.SECONDS);
+            assertThat(service.sum.get(), is(n * (n - 1L) / 2L));
+        } finally {
+            service.stop();
+        }
+    }
+    
+    @Test
+    public void idleWorkersBlockUntilSubmit() throws Exception {
+        SumProcessorService service = new SumProcessorService();
+        service.setMinPoolSize(2);
+        service.setMaxPoolSize(2);
+        service.setInitialDelayStagger(0.0d);
+        
+        service.start();
+        try {
+            // long past the backoff, so every worker should be blocked (not timed parking)
+            Thread.sleep(200L);
+            int blocked = 0;
+            for (Thread thread : Thread.getAllStackTraces().keySet()) {
+                if (thread.getName().startsWith("Test Work Stealing Service-")) {
+                    assertThat(thread.getName() + " state", thread.getState(), is(Thread.State.WAITING));
+                    blocked++;
+                }
+            }
+            assertThat(blocked, is(2));
+            
+            // and a submit wakes one right up
+            service.total = 10L;
+            service.done = new CountDownLatch(1);
+            service.submit(new Range(0L, 10L));
+            
+            assertThat(service.done.await(1L, TimeUnit.SECONDS), is(true));
+            assertThat(service.sum.get(), is(45L));
+        } finally {
+            service.stop();
+        }
+    }
+    
+}
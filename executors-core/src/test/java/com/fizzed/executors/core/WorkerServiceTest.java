@@ -1,9 +1,18 @@
 package com.fizzed.executors.core;
 
 import static com.fizzed.crux.util.TimeDuration.millis;
+import com.fizzed.executors.internal.VirtualThreads;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assume.assumeTrue;
 import org.junit.Test;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.atLeast;
@@ -78,4 +87,68 @@ public class WorkerServiceTest {
         
     }
     
-}
\ No newline at end of file
+    @Test
+    public void virtualThreads() throws Exception {
+        assumeTrue(VirtualThreads.isSupported());
+        
+        final AtomicReference<Thread> threadRef = new AtomicReference<>();
+        final CountDownLatch latch = new CountDownLatch(1);
+        
+        WorkerService<Worker> service = new WorkerService<Worker>("Virtual Service") {
+            @Override
+            protected Worker newWorker() {
+                return (context) -> {
+                    threadRef.set(Thread.currentThread());
+                    latch.countDown();
+                    context.idle(millis(60000L));
+                };
+            }
+        };
+        service.setVirtualThreads(true);
+        
+        service.start();
+        
+        latch.await(5L, TimeUnit.SECONDS);
+        
+        assertThat((Boolean)Thread.class.getMethod("isVirtual").invoke(threadRef.get()), is(true));
+        assertThat(threadRef.get().getName(), is("Virtual Service-1"));
+        
+        // idle sleep must still be interrupted by a stop
+        final long start = System.currentTimeMillis();
+        service.stop();
+        
+        assertThat(service.getState(), is(ServiceState.STOPPED));
+        assertThat(System.currentTimeMillis() - start < 5000L, is(true));
+    }
+    
+    @Test
+    public void fixedRateSchedule() throws Exception {
+        final List<Long> runs = new CopyOnWriteArrayList<>();
+        
+        WorkerService<Worker> service = new WorkerService<Worker>("Test Service") {
+            @Override
+            protected Worker newWorker() {
+                return context -> {
+                    runs.add(System.currentTimeMillis());
+                    context.running();
+                    // half the period, which a fixed delay would add on every run
+                    Thread.sleep(100L);
+                };
+            }
+        };
+        service.setSchedule(Schedules.fixedRate(millis(200), MissedRuns.SKIP));
+        
+        service.start();
+        try {
+            millis(1100L).sleep();
+        } finally {
+            service.stop();
+        }
+        
+        // runs at 0, 200, 400, 600, 800, 1000 (a fixed delay would only get 4)
+        assertThat(runs.size(), greaterThanOrEqualTo(5));
+        final long elapsed = runs.get(runs.size() - 1) - runs.get(0);
+        assertThat(elapsed / (runs.size() - 1), lessThan(250L));
+    }
+    
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2025 Fizzed, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fizzed.executors.impl;
+
+import com.fizzed.executors.core.LatencySnapshot;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import org.junit.Test;
+
+public class LatencyRecorderTest {
+
+    @Test
+    public void bucketIndexRoundTrip() {
+        assertThat(LatencyRecorder.bucketIndex(0L), is(0));
+        assertThat(LatencyRecorder.bucketIndex(31L), is(31));
+        assertThat(LatencyRecorder.bucketIndex(LatencyRecorder.MAX_VALUE), is(LatencyRecorder.BUCKET_COUNT - 1));
+
+        for (long value = 1L; value < LatencyRecorder.MAX_VALUE; value = value * 3L / 2L + 1L) {
+            final long highest = LatencyRecorder.bucketHighestValue(LatencyRecorder.bucketIndex(value));
+            // value is in its bucket and the bucket is within ~3% of it
+            assertThat(highest, greaterThanOrEqualTo(value));
+            assertThat((double)(highest - value), lessThanOrEqualTo(value / 32.0d));
+            assertThat(LatencyRecorder.bucketIndex(highest), is(LatencyRecorder.bucketIndex(value)));
+        }
+    }
+
+    @Test
+    public void percentiles() {
+        final LatencyRecorder recorder = new LatencyRecorder();
+
+        for (long i = 1L; i <= 1000L; i++) {
+            recorder.record(i * 1000L);
+        }
+
+        final LatencySnapshot snapshot = recorder.snapshot();
+
+        assertThat(snapshot.getCount(), is(1000L));
+        assertThat(snapshot.getMin(), is(1000L));
+        assertThat(snapshot.getMax(), is(1000000L));
+        assertThat(snapshot.getMean(), is(500500.0d));
+        assertThat(snapshot.getPercentile(50.0d), greaterThanOrEqualTo(500000L));
+        assertThat(snapshot.getPercentile(50.0d), lessThanOrEqualTo(500000L + 500000L / 32L));
+        assertThat(snapshot.getPercentile(99.0d), greaterThanOrEqualTo(990000L));
+        assertThat(snapshot.getPercentile(99.0d), lessThanOrEqualTo(990000L + 990000L / 32L));
+        assertThat(snapshot.getPercentile(100.0d), is(1000000L));
+    }
+
+    @Test
+    public void merge() {
+        final LatencyRecorder a = new LatencyRecorder();
+        final LatencyRecorder b = new LatencyRecorder();
+        a.record(10L);
+        b.record(20L);
+        b.record(30L);
+
+        final LatencySnapshot merged = a.snapshot().merge(b.snapshot()).merge(LatencySnapshot.EMPTY);
+
+        assertThat(merged.getCount(), is(3L));
+        assertThat(merged.getMin(), is(10L));
+        assertThat(merged.getMax(), is(30L));
+        assertThat(LatencySnapshot.EMPTY.merge(merged).getCount(), is(3L));
+        assertThat(new LatencyRecorder().snapshot().getPercentile(99.0d), is(0L));
+    }
+
+}
@@ -0,0 +1,283 @@
+/*
+ * Copyright 2025 Fizzed, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fizzed.executors.impl;
+
+import com.fizzed.executors.core.WaitStrategy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.Assert.fail;
+import org.junit.Test;
+
+public class MpmcRingQueueTest {
+
+    @Test
+    public void capacityRoundedToPowerOfTwo() {
+        assertThat(new MpmcRingQueue<>(2).capacity(), is(2));
+        assertThat(new MpmcRingQueue<>(3).capacity(), is(4));
+        assertThat(new MpmcRingQueue<>(1000).capacity(), is(1024));
+        assertThat(new MpmcRingQueue<>(1024).capacity(), is(1024));
+    }
+
+    @Test
+    public void offerPollFifoAndFull() {
+        MpmcRingQueue<Integer> queue = new MpmcRingQueue<>(4);
+
+        assertThat(queue.poll(), is(nullValue()));
+        assertThat(queue.peek(), is(nullValue()));
+        assertThat(queue.isEmpty(), is(true));
+
+        // wrap around the ring a few times
+        for (int lap = 0; lap < 3; lap++) {
+            assertThat(queue.offer(1), is(true));
+            assertThat(queue.offer(2), is(true));
+            assertThat(queue.offer(3), is(true));
+            assertThat(queue.offer(4), is(true));
+            assertThat(queue.offer(5), is(false));
+            assertThat(queue.size(), is(4));
+            assertThat(queue, contains(1, 2, 3, 4));
+            assertThat(queue.peek(), is(1));
+
+            assertThat(queue.poll(), is(1));
+            assertThat(queue.poll(), is(2));
+            assertThat(queue.poll(), is(3));
+            assertThat(queue.poll(), is(4));
+            assertThat(queue.poll(), is(nullValue()));
+            assertThat(queue.size(), is(0));
+        }
+    }
+
+    @Test
+    public void removeUnsupported() {
+        MpmcRingQueue<Integer> queue = new MpmcRingQueue<>(4);
+        queue.offer(1);
+        
+        try {
+            queue.remove(1);
+            fail();
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+        try {
+            // rejected up front, not only once something matches
+            queue.removeIf(i -> false);
+            fail();
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+        assertThat(queue, contains(1));
+    }
+    
+    @Test
+    public void manyProducersAndConsumers() throws Exception {
+        final BlockingQueue<Long> queue = new WaitingBlockingQueue<>(new MpmcRingQueue<>(64), WaitStrategy.YIELD);
+        final int producers = 4;
+        final int consumers = 4;
+        final long perProducer = 50_000L;
+        final AtomicLong sum = new AtomicLong();
+        final AtomicLong count = new AtomicLong();
+
+        final List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < producers; i++) {
+            threads.add(new Thread(() -> {
+                try {
+                    for (long v = 1; v <= perProducer; v++) {
+                        queue.put(v);
+                    }
+                } catch (InterruptedException e) {
+                    // done
+                }
+            }));
+        }
+        for (int i = 0; i < consumers; i++) {
+            threads.add(new Thread(() -> {
+                try {
+                    for (;;) {
+                        final long v = queue.take();
+                        sum.addAndGet(v);
+                        count.incrementAndGet();
+                    }
+                } catch (InterruptedException e) {
+                    // done
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+
+        // wait for producers, then for the consumers to empty the queue
+        for (int i = 0; i < producers; i++) {
+            threads.get(i).join(TimeUnit.SECONDS.toMillis(30L));
+        }
+        final long deadline = System.currentTimeMillis() + 30_000L;
+        while (count.get() < producers * perProducer && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10L);
+        }
+        for (int i = producers; i < threads.size(); i++) {
+            threads.get(i).interrupt();
+            threads.get(i).join();
+        }
+
+        assertThat(count.get(), is(producers * perProducer));
+        assertThat(sum.get(), is(producers * (perProducer * (perProducer + 1L) / 2L)));
+        assertThat(queue.isEmpty(), is(true));
+    }
+
+    @Test
+    public void takeInterruptible() throws Exception {
+        for (WaitStrategy waitStrategy : WaitStrategy.values()) {
+            final BlockingQueue<Integer> queue = new WaitingBlockingQueue<>(new MpmcRingQueue<>(8), waitStrategy);
+            final AtomicReference<Throwable> thrown = new AtomicReference<>();
+
+            final Thread thread = new Thread(() -> {
+                try {
+                    queue.take();
+                } catch (Throwable t) {
+                    thrown.set(t);
+                }
+            });
+            thread.start();
+
+            Thread.sleep(50L);
+            thread.interrupt();
+            thread.join(5000L);
+
+            assertThat(thread.isAlive(), is(false));
+            assertThat(thrown.get(), instanceOf(InterruptedException.class));
+        }
+    }
+
+    @Test
+    public void parkBlocksUntilWoken() throws Exception {
+        final BlockingQueue<Integer> queue = new WaitingBlockingQueue<>(new MpmcRingQueue<>(2), WaitStrategy.PARK);
+        final AtomicReference<Integer> taken = new AtomicReference<>();
+
+        final Thread taker = new Thread(() -> {
+            try {
+                taken.set(queue.take());
+            } catch (InterruptedException e) {
+                // done
+            }
+        });
+        taker.start();
+
+        // backed off to its cap by now, so parked without a timeout
+        Thread.sleep(100L);
+        assertThat(taker.getState(), is(Thread.State.WAITING));
+
+        queue.offer(1);
+        taker.join(1000L);
+        assertThat(taker.isAlive(), is(false));
+        assertThat(taken.get(), is(1));
+
+        // and the same for a put waiting for space
+        queue.offer(2);
+        queue.offer(3);
+        final Thread putter = new Thread(() -> {
+            try {
+                queue.put(4);
+            } catch (InterruptedException e) {
+                // done
+            }
+        });
+        putter.start();
+
+        Thread.sleep(100L);
+        assertThat(putter.getState(), is(Thread.State.WAITING));
+
+        assertThat(queue.poll(), is(2));
+        putter.join(1000L);
+        assertThat(putter.isAlive(), is(false));
+        assertThat(queue.poll(), is(3));
+        assertThat(queue.poll(), is(4));
+    }
+
+    @Test
+    public void parkManyProducersAndConsumers() throws Exception {
+        final BlockingQueue<Long> queue = new WaitingBlockingQueue<>(new MpmcRingQueue<>(4), WaitStrategy.PARK);
+        final int producers = 4;
+        final int consumers = 4;
+        final long perProducer = 20_000L;
+        final AtomicLong count = new AtomicLong();
+
+        final List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < producers; i++) {
+            threads.add(new Thread(() -> {
+                try {
+                    for (long v = 1; v <= perProducer; v++) {
+                        queue.put(v);
+                    }
+                } catch (InterruptedException e) {
+                    // done
+                }
+            }));
+        }
+        for (int i = 0; i < consumers; i++) {
+            threads.add(new Thread(() -> {
+                try {
+                    for (;;) {
+                        queue.take();
+                        count.incrementAndGet();
+                    }
+                } catch (InterruptedException e) {
+                    // done
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+
+        // a lost wakeup would leave a producer (or the count) stuck
+        for (int i = 0; i < producers; i++) {
+            threads.get(i).join(TimeUnit.SECONDS.toMillis(30L));
+            assertThat(threads.get(i).isAlive(), is(false));
+        }
+        final long deadline = System.currentTimeMillis() + 30_000L;
+        while (count.get() < producers * perProducer && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10L);
+        }
+        for (int i = producers; i < threads.size(); i++) {
+            threads.get(i).interrupt();
+            threads.get(i).join();
+        }
+
+        assertThat(count.get(), is(producers * perProducer));
+    }
+
+    @Test
+    public void timedPollAndOffer() throws Exception {
+        final BlockingQueue<Integer> queue = new WaitingBlockingQueue<>(new MpmcRingQueue<>(2), WaitStrategy.PARK);
+
+        assertThat(queue.poll(10L, TimeUnit.MILLISECONDS), is(nullValue()));
+        assertThat(queue.remainingCapacity(), is(2));
+
+        assertThat(queue.offer(1, 10L, TimeUnit.MILLISECONDS), is(true));
+        assertThat(queue.offer(2, 10L, TimeUnit.MILLISECONDS), is(true));
+        assertThat(queue.offer(3, 10L, TimeUnit.MILLISECONDS), is(false));
+        assertThat(queue.remainingCapacity(), is(0));
+
+        List<Integer> drained = new ArrayList<>();
+        assertThat(queue.drainTo(drained), is(2));
+        assertThat(drained, contains(1, 2));
+    }
+
+}
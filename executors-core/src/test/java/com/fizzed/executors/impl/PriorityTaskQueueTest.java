@@ -0,0 +1,227 @@
+/*
+ * Copyright 2025 Fizzed, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fizzed.executors.impl;
+
+import com.fizzed.crux.util.TimeDuration;
+import com.fizzed.executors.core.RejectionPolicy;
+import com.fizzed.executors.core.SubmitResult;
+import com.fizzed.executors.core.TaskQueues;
+import com.fizzed.executors.core.WaitStrategy;
+import com.fizzed.executors.internal.RejectionHelper;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import org.junit.Test;
+
+public class PriorityTaskQueueTest {
+
+    static public class Job {
+        final String name;
+        final int priority;
+        final long deadline;
+        final boolean urgent;
+
+        public Job(String name, int priority, long deadline, boolean urgent) {
+            this.name = name;
+            this.priority = priority;
+            this.deadline = deadline;
+            this.urgent = urgent;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+    
+    static private Job job(String name, int priority) {
+        return new Job(name, priority, 0L, false);
+    }
+    
+    static private List<String> drain(BlockingQueue<Job> queue) {
+        final List<String> names = new ArrayList<>();
+        Job job;
+        while ((job = queue.poll()) != null) {
+            names.add(job.name);
+        }
+        return names;
+    }
+    
+    @Test
+    public void strictPriorityThenFifo() {
+        final BlockingQueue<Job> queue = TaskQueues.priority(j -> j.priority, null, null);
+        
+        queue.offer(job("a", 1));
+        queue.offer(job("b", 5));
+        queue.offer(job("c", 1));
+        queue.offer(job("d", 5));
+        queue.offer(job("e", -3));
+        
+        assertThat(queue.size(), is(5));
+        assertThat(queue.peek().name, is("b"));
+        assertThat(drain(queue), contains("b", "d", "a", "c", "e"));
+        assertThat(queue.poll(), is(nullValue()));
+        assertThat(queue.isEmpty(), is(true));
+    }
+    
+    @Test
+    public void agingPreventsStarvation() throws Exception {
+        final BlockingQueue<Job> queue = TaskQueues.priority(j -> j.priority, TimeDuration.millis(20), null);
+        
+        queue.offer(job("low", 0));
+        Thread.sleep(100L);
+        // waited for 5+ levels worth, so low goes ahead of a newer 4, but not a much higher one
+        queue.offer(job("high4", 4));
+        queue.offer(job("high100", 100));
+        
+        assertThat(drain(queue), contains("high100", "low", "high4"));
+    }
+    
+    @Test
+    public void earliestDeadlineFirst() {
+        final long now = System.currentTimeMillis();
+        final BlockingQueue<Job> queue = TaskQueues.deadline(j -> j.deadline, null);
+        
+        queue.offer(new Job("later", 0, now + 5000L, false));
+        queue.offer(new Job("soon", 0, now + 10L, false));
+        queue.offer(new Job("overdue", 0, now - 10L, false));
+        queue.offer(new Job("soon2", 0, now + 10L, false));
+        
+        assertThat(drain(queue), contains("overdue", "soon", "soon2", "later"));
+    }
+    
+    @Test
+    public void fastLaneSkipsAhead() {
+        final BlockingQueue<Job> queue = TaskQueues.priority(j -> j.priority, null, j -> j.urgent);
+        
+        for (int i = 0; i < 1000; i++) {
+            queue.offer(job("bulk" + i, 10));
+        }
+        queue.offer(new Job("urgent1", 0, 0L, true));
+        queue.offer(new Job("urgent2", 0, 0L, true));
+        
+        assertThat(queue.size(), is(1002));
+        assertThat(queue.iterator().next().name, is("urgent1"));
+        assertThat(queue.poll().name, is("urgent1"));
+        assertThat(queue.poll().name, is("urgent2"));
+        assertThat(queue.poll().name, is("bulk0"));
+    }
+    
+    @Test
+    public void capacity() throws Exception {
+        final BlockingQueue<Job> queue = TaskQueues.priority(2, j -> j.priority, null, j -> j.urgent, WaitStrategy.PARK);
+        
+        assertThat(queue.offer(job("a", 1)), is(true));
+        assertThat(queue.offer(new Job("b", 0, 0L, true)), is(true));
+        assertThat(queue.offer(job("c", 1)), is(false));
+        assertThat(queue.offer(job("c", 1), 10L, TimeUnit.MILLISECONDS), is(false));
+        assertThat(queue.remainingCapacity(), is(0));
+        
+        assertThat(queue.take().name, is("b"));
+        assertThat(queue.remainingCapacity(), is(1));
+        assertThat(queue.offer(job("c", 1)), is(true));
+    }
+    
+    @Test
+    public void remove() {
+        final BlockingQueue<Job> queue = TaskQueues.priority(j -> j.priority, null, j -> j.urgent);
+        final Job a = job("a", 1);
+        final Job b = job("b", 5);
+        final Job u = new Job("u", 0, 0L, true);
+        queue.offer(a);
+        queue.offer(b);
+        queue.offer(u);
+        queue.offer(job("c", 3));
+        
+        assertThat(queue.remove(b), is(true));
+        assertThat(queue.remove(b), is(false));
+        assertThat(queue.remove(u), is(true));
+        assertThat(queue.size(), is(2));
+        
+        queue.removeIf(j -> j.name.equals("c"));
+        assertThat(queue.size(), is(1));
+        assertThat(drain(queue), contains("a"));
+    }
+    
+    @Test
+    public void dropOldestDropsLastRanked() {
+        final BlockingQueue<Job> queue = TaskQueues.priority(3, j -> j.priority, null, j -> j.urgent, WaitStrategy.PARK);
+        queue.offer(job("mid", 5));
+        queue.offer(job("low", 1));
+        queue.offer(new Job("urgent", 0, 0L, true));
+        
+        final List<String> dropped = new ArrayList<>();
+        final SubmitResult result = RejectionHelper.rejected("test", queue, job("high", 9),
+            RejectionPolicy.DROP_OLDEST, null, j -> dropped.add(j.name), null);
+        
+        // not the head (the most urgent task)
+        assertThat(result, is(SubmitResult.QUEUED_DROPPED));
+        assertThat(dropped, contains("low"));
+        assertThat(drain(queue), contains("urgent", "high", "mid"));
+    }
+    
+    @Test
+    public void manyProducersAndConsumers() throws Exception {
+        final BlockingQueue<Long> queue = TaskQueues.priority(v -> (int)(v % 7), TimeDuration.millis(1), v -> v % 101 == 0);
+        final int producers = 4;
+        final int consumers = 4;
+        final long perProducer = 20_000L;
+        final AtomicLong sum = new AtomicLong();
+        final AtomicLong count = new AtomicLong();
+        
+        final List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < producers; i++) {
+            threads.add(new Thread(() -> {
+                for (long v = 1; v <= perProducer; v++) {
+                    queue.offer(v);
+                }
+            }));
+        }
+        for (int i = 0; i < consumers; i++) {
+            threads.add(new Thread(() -> {
+                try {
+                    for (;;) {
+                        sum.addAndGet(queue.take());
+                        count.incrementAndGet();
+                    }
+                } catch (InterruptedException e) {
+                    // done
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        
+        final long deadline = System.currentTimeMillis() + 30_000L;
+        while (count.get() < producers * perProducer && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10L);
+        }
+        for (Thread thread : threads) {
+            thread.interrupt();
+            thread.join();
+        }
+        
+        assertThat(count.get(), is(producers * perProducer));
+        assertThat(sum.get(), is(producers * (perProducer * (perProducer + 1L) / 2L)));
+        assertThat(queue.isEmpty(), is(true));
+    }
+    
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2025 Fizzed, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fizzed.executors.impl;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.junit.Assert.fail;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TaskJournalTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+    
+    static private byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+    
+    static private List<String> recovered(TaskJournal journal) {
+        return journal.getRecovered().stream()
+            .map(e -> new String(e.getPayload(), StandardCharsets.UTF_8))
+            .collect(Collectors.toList());
+    }
+    
+    static private List<Path> segmentFiles(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.sorted().collect(Collectors.toList());
+        }
+    }
+    
+    @Test
+    public void recoversUnacknowledged() throws Exception {
+        final Path dir = this.temporaryFolder.newFolder().toPath();
+        
+        try (TaskJournal journal = new TaskJournal(dir, 4096)) {
+            assertThat(journal.getRecovered(), is(empty()));
+            
+            final long a = journal.append(bytes("a"));
+            final long b = journal.append(bytes("b"));
+            final long c = journal.append(bytes("c"));
+            journal.awaitSynced(c);
+            journal.acknowledge(b);
+            
+            assertThat(b, greaterThan(a));
+            assertThat(journal.getUnacknowledged(), is(2));
+        }
+        
+        try (TaskJournal journal = new TaskJournal(dir, 4096)) {
+            assertThat(recovered(journal), contains("a", "c"));
+            
+            // ids keep going up across opens
+            final long d = journal.append(bytes("d"));
+            assertThat(d, greaterThan(journal.getRecovered().get(1).getId()));
+            journal.acknowledge(journal.getRecovered().get(0).getId());
+        }
+        
+        try (TaskJournal journal = new TaskJournal(dir, 4096)) {
+            assertThat(recovered(journal), contains("c", "d"));
+        }
+    }
+    
+    @Test
+    public void tornRecordIgnored() throws Exception {
+        final Path dir = this.temporaryFolder.newFolder().toPath();
+        
+        try (TaskJournal journal = new TaskJournal(dir, 4096)) {
+            journal.append(bytes("first"));
+            journal.append(bytes("second"));
+        }
+        
+        // corrupt the payload of the second record (as if torn by a crash)
+        final Path segment = segmentFiles(dir).get(0);
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            final int secondPayload = (17 + 5) + 17;
+            file.seek(secondPayload);
+            file.write('x');
+        }
+        
+        try (TaskJournal journal = new TaskJournal(dir, 4096)) {
+            assertThat(recovered(journal), contains("first"));
+            journal.append(bytes("third"));
+        }
+        
+        // the bad segment is never appended to again
+        try (TaskJournal journal = new TaskJournal(dir, 4096)) {
+            assertThat(recovered(journal), contains("first", "third"));
+        }
+    }
+    
+    @Test
+    public void acknowledgedSegmentsDeleted() throws Exception {
+        final Path dir = this.temporaryFolder.newFolder().toPath();
+        
+        try (TaskJournal journal = new TaskJournal(dir, 256)) {
+            final List<Long> ids = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                ids.add(journal.append(bytes("task-" + i)));
+            }
+            
+            assertThat(journal.getSegmentCount(), greaterThan(3));
+            
+            // out of order, so segments are only deleted oldest first
+            for (int i = ids.size() - 1; i >= 0; i--) {
+                journal.acknowledge(ids.get(i));
+            }
+            
+            assertThat(journal.getUnacknowledged(), is(0));
+            assertThat(journal.getSegmentCount(), is(1));
+            assertThat(segmentFiles(dir).size(), is(1));
+        }
+        
+        try (TaskJournal journal = new TaskJournal(dir, 256)) {
+            assertThat(journal.getRecovered(), is(empty()));
+            assertThat(segmentFiles(dir).size(), is(1));
+        }
+    }
+    
+    @Test
+    public void segmentTooSmallForAck() throws Exception {
+        final Path dir = this.temporaryFolder.newFolder().toPath();
+        
+        try {
+            new TaskJournal(dir, 24).close();
+            fail("expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        
+        try (TaskJournal journal = new TaskJournal(dir, 25)) {
+            final long id = journal.append(new byte[0]);
+            journal.acknowledge(id);
+            assertThat(journal.getUnacknowledged(), is(0));
+        }
+    }
+    
+}
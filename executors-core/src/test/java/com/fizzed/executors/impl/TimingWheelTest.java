@@ -0,0 +1,131 @@
+/*
+ * Copyright 2025 Fizzed, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fizzed.executors.impl;
+
+import com.fizzed.crux.util.TimeDuration;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThan;
+import org.junit.Test;
+
+public class TimingWheelTest {
+
+    static public class Due {
+        final long dueNanos;
+        final CountDownLatch latch;
+
+        public Due(long dueNanos, CountDownLatch latch) {
+            this.dueNanos = dueNanos;
+            this.latch = latch;
+        }
+    }
+    
+    @Test
+    public void firesOnceDue() throws Exception {
+        final AtomicLong firedAt = new AtomicLong();
+        final CountDownLatch latch = new CountDownLatch(1);
+        final TimingWheel<String> wheel = new TimingWheel<>("test-timer", TimeDuration.millis(1), task -> {
+            firedAt.set(System.nanoTime());
+            latch.countDown();
+        });
+        
+        final long start = System.nanoTime();
+        wheel.schedule("a", 50L, TimeUnit.MILLISECONDS);
+        assertThat(wheel.getPending(), is(1));
+        
+        latch.await(5L, TimeUnit.SECONDS);
+        
+        assertThat(latch.getCount(), is(0L));
+        assertThat(wheel.getPending(), is(0));
+        assertThat(firedAt.get() - start, greaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(50L)));
+        assertThat(firedAt.get() - start, lessThan(TimeUnit.MILLISECONDS.toNanos(1000L)));
+    }
+    
+    @Test
+    public void manyTimersAcrossLevels() throws Exception {
+        final int count = 100_000;
+        final CountDownLatch latch = new CountDownLatch(count);
+        final AtomicLong early = new AtomicLong();
+        
+        // a tiny tick so delays of up to 1s cascade down through 3 levels
+        final TimingWheel<Due> wheel = new TimingWheel<>("test-timer", TimeDuration.nanos(10_000L), due -> {
+            if (System.nanoTime() < due.dueNanos) {
+                early.incrementAndGet();
+            }
+            due.latch.countDown();
+        });
+        
+        final Random random = new Random(1L);
+        for (int i = 0; i < count; i++) {
+            final long delayNanos = (long)random.nextInt(1_000_000) * 1000L;
+            wheel.schedule(new Due(System.nanoTime() + delayNanos, latch), delayNanos, TimeUnit.NANOSECONDS);
+        }
+        
+        latch.await(10L, TimeUnit.SECONDS);
+        
+        assertThat(latch.getCount(), is(0L));
+        assertThat(early.get(), is(0L));
+        assertThat(wheel.getPending(), is(0));
+    }
+    
+    @Test
+    public void sparseTimersFireOnTime() throws Exception {
+        // a few timers far apart, so the wheel sleeps over many empty ticks and
+        // cascade boundaries (level 2 comes around every 65536 ticks, ~655ms)
+        final long[] delaysMillis = { 5L, 200L, 700L, 1500L };
+        final CountDownLatch latch = new CountDownLatch(delaysMillis.length);
+        final AtomicLong early = new AtomicLong();
+        final AtomicLong maxLateNanos = new AtomicLong();
+        
+        final TimingWheel<Due> wheel = new TimingWheel<>("test-timer", TimeDuration.nanos(10_000L), due -> {
+            final long lateNanos = System.nanoTime() - due.dueNanos;
+            if (lateNanos < 0L) {
+                early.incrementAndGet();
+            }
+            maxLateNanos.accumulateAndGet(lateNanos, Math::max);
+            due.latch.countDown();
+        });
+        
+        for (long delayMillis : delaysMillis) {
+            final long delayNanos = TimeUnit.MILLISECONDS.toNanos(delayMillis);
+            wheel.schedule(new Due(System.nanoTime() + delayNanos, latch), delayNanos, TimeUnit.NANOSECONDS);
+        }
+        
+        latch.await(5L, TimeUnit.SECONDS);
+        
+        assertThat(latch.getCount(), is(0L));
+        assertThat(early.get(), is(0L));
+        assertThat(maxLateNanos.get(), lessThan(TimeUnit.MILLISECONDS.toNanos(250L)));
+    }
+    
+    @Test
+    public void zeroDelayFiresRightAway() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(2);
+        final TimingWheel<String> wheel = new TimingWheel<>("test-timer", TimeDuration.millis(1), task -> latch.countDown());
+        
+        wheel.schedule("a", 0L, TimeUnit.MILLISECONDS);
+        wheel.schedule("b", -5L, TimeUnit.MILLISECONDS);
+        
+        latch.await(1L, TimeUnit.SECONDS);
+        assertThat(latch.getCount(), is(0L));
+    }
+    
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2025 Fizzed, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fizzed.executors.impl;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import org.junit.Test;
+
+public class TokenBucketRateLimiterTest {
+
+    @Test
+    public void burstThenSteadyRate() throws Exception {
+        // 1 permit per second, so nothing refills during the test
+        final TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1.0d, 5);
+        
+        for (int i = 0; i < 5; i++) {
+            assertThat(limiter.tryAcquire(1), is(0L));
+        }
+        
+        // empty: about a second until the next one
+        final long waitNanos = limiter.tryAcquire(1);
+        assertThat(waitNanos, greaterThan(TimeUnit.MILLISECONDS.toNanos(500L)));
+        assertThat(waitNanos, lessThanOrEqualTo(TimeUnit.SECONDS.toNanos(1L)));
+        
+        // more than the burst can never be had, other than all at once from full
+        final TokenBucketRateLimiter big = new TokenBucketRateLimiter(1.0d, 2);
+        assertThat(big.tryAcquire(3), is(0L));
+        assertThat(big.tryAcquire(1), greaterThan(0L));
+    }
+    
+    @Test
+    public void concurrentAcquiresNeverExceedBurst() throws Exception {
+        final TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1.0d, 100);
+        final AtomicInteger acquired = new AtomicInteger();
+        final int threads = 8;
+        final CountDownLatch done = new CountDownLatch(threads);
+        
+        for (int t = 0; t < threads; t++) {
+            new Thread(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    if (limiter.tryAcquire(1) == 0L) {
+                        acquired.incrementAndGet();
+                    }
+                }
+                done.countDown();
+            }).start();
+        }
+        
+        assertThat(done.await(5L, TimeUnit.SECONDS), is(true));
+        
+        // the burst plus at most a permit or two refilled while running
+        assertThat(acquired.get(), greaterThan(99));
+        assertThat(acquired.get(), lessThanOrEqualTo(102));
+    }
+    
+}
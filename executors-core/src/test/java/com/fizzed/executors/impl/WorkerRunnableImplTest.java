@@ -16,10 +16,17 @@
 package com.fizzed.executors.impl;
 
 import static com.fizzed.crux.util.TimeDuration.millis;
+import static com.fizzed.crux.util.TimeDuration.seconds;
 import com.fizzed.executors.core.ExecuteStopException;
 import com.fizzed.executors.core.Worker;
 import com.fizzed.executors.core.WorkerContext;
 import com.fizzed.executors.core.WorkerState;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 import org.junit.Test;
@@ -120,4 +127,127 @@ public class WorkerRunnableImplTest {
         verify(runnable, times(2)).idle(eq(millis(10L)), eq("Execute delay"));
     }
     
-}
\ No newline at end of file
+    @Test
+    public void contextHasIdAndName() throws Exception {
+        final AtomicReference<String> seen = new AtomicReference<>();
+        Worker worker = (context) -> {
+            seen.set(context.getId() + ":" + context.getName());
+            throw new ExecuteStopException("Test stop");
+        };
+        
+        WorkerRunnableImpl runnable = new WorkerRunnableImpl(7, "test-7", worker);
+        runnable.run();
+        
+        assertThat(seen.get(), is("7:test-7"));
+    }
+    
+    @Test
+    public void stopAlwaysInterruptsIdle() throws Exception {
+        // worker flips between running and a long idle as fast as it can, a stop
+        // landing anywhere in that cycle must never leave it asleep
+        for (int i = 0; i < 200; i++) {
+            Worker worker = (context) -> {
+                context.running();
+                context.idle();
+            };
+
+            WorkerRunnableImpl runnable = new WorkerRunnableImpl(1, "test-1", worker);
+            runnable.setExecuteDelay(seconds(30L));
+
+            Thread thread = new Thread(runnable);
+            thread.start();
+
+            Thread.sleep(i % 3);
+            runnable.stop();
+
+            thread.join(5000L);
+
+            assertThat(thread.isAlive(), is(false));
+            assertThat(runnable.getState(), is(WorkerState.STOPPED));
+            assertThat(runnable.isStopRequested(), is(true));
+        }
+    }
+    
+    @Test
+    public void stopNeverInterruptsNextWorkerOnPoolThread() throws Exception {
+        // a single pool thread shared by workers stopped and added back one
+        // after another, as a service's pool does when it stops or scales down
+        final ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            for (int i = 0; i < 300; i++) {
+                Worker worker = (context) -> {
+                    context.running();
+                    context.idle();
+                };
+
+                // no delays, so a stop that catches it IDLE usually races it exiting
+                WorkerRunnableImpl stopped = new WorkerRunnableImpl(1, "test-1", worker);
+                pool.submit(stopped);
+
+                while (stopped.getState() == WorkerState.INITIAL) {
+                    Thread.yield();
+                }
+                stopped.stop();
+
+                // its sibling is next on the same thread, and must not see the interrupt
+                WorkerRunnableImpl sibling = new WorkerRunnableImpl(2, "test-2", worker);
+                sibling.setInitialDelay(seconds(30L));
+                final Future<?> siblingRun = pool.submit(sibling);
+                
+                final long deadline = System.currentTimeMillis() + 5000L;
+                while (sibling.getState() != WorkerState.IDLE && System.currentTimeMillis() < deadline) {
+                    Thread.sleep(1L);
+                }
+                Thread.sleep(1L);
+                
+                assertThat(stopped.getState(), is(WorkerState.STOPPED));
+                assertThat(sibling.getState(), is(WorkerState.IDLE));
+                
+                sibling.stop();
+                siblingRun.get(5L, TimeUnit.SECONDS);
+                assertThat(sibling.getState(), is(WorkerState.STOPPED));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+    
+    @Test
+    public void stopIfIdleNeverStopsRunningWorker() throws Exception {
+        final CountDownLatch running = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(1);
+        
+        final Worker worker = context -> {
+            context.running();
+            running.countDown();
+            done.await();
+            context.idle(seconds(5));
+        };
+        
+        final WorkerRunnableImpl<Worker> runnable = new WorkerRunnableImpl<>(1, "test-1", worker);
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final Future<?> future = executor.submit(runnable);
+            
+            assertThat(running.await(2L, TimeUnit.SECONDS), is(true));
+            assertThat(runnable.stopIfIdle(0L), is(false));
+            assertThat(runnable.isStopRequested(), is(false));
+            
+            done.countDown();
+            final long deadline = System.currentTimeMillis() + 2000L;
+            while (runnable.getState() != WorkerState.IDLE && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5L);
+            }
+            
+            assertThat(runnable.stopIfIdle(TimeUnit.SECONDS.toNanos(10L)), is(false));
+            assertThat(runnable.stopIfIdle(0L), is(true));
+            assertThat(runnable.stopIfIdle(0L), is(false));
+            
+            future.get(2L, TimeUnit.SECONDS);
+            assertThat(runnable.getState(), is(WorkerState.STOPPED));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+}
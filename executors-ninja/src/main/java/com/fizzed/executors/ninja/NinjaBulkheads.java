@@ -0,0 +1,35 @@
+package com.fizzed.executors.ninja;
+
+import com.fizzed.executors.core.Bulkhead;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import ninja.utils.NinjaProperties;
+
+/**
+ * The bulkheads shared by name across the ninja services of an injector, e.g.
+ * services configured with "bulkhead = reporting_db" all share the permits of
+ * "bulkheads.reporting_db.permits".
+ */
+@Singleton
+public class NinjaBulkheads {
+    
+    private final NinjaProperties ninjaProperties;
+    private final ConcurrentMap<String,Bulkhead> bulkheads;
+
+    @Inject
+    public NinjaBulkheads(
+            NinjaProperties ninjaProperties) {
+        
+        this.ninjaProperties = ninjaProperties;
+        this.bulkheads = new ConcurrentHashMap<>();
+    }
+    
+    public Bulkhead get(String name) {
+        return this.bulkheads.computeIfAbsent(name, k -> {
+            return new Bulkhead(k, this.ninjaProperties.getIntegerOrDie("bulkheads." + k + ".permits"));
+        });
+    }
+    
+}
@@ -1,8 +1,15 @@
 package com.fizzed.executors.ninja;
 
+import com.fizzed.crux.util.TimeDuration;
+import com.fizzed.executors.core.AbstractProcessorService;
 import com.fizzed.executors.core.Processor;
 import com.fizzed.executors.core.ProcessorService;
+import com.fizzed.executors.core.RejectionPolicy;
+import com.fizzed.executors.core.TaskQueues;
+import static com.fizzed.executors.ninja.NinjaPropertiesHelper.getTimeDuration;
 import com.google.inject.Injector;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
 import ninja.lifecycle.Dispose;
 import ninja.lifecycle.Start;
 import ninja.utils.NinjaProperties;
@@ -21,14 +28,28 @@ abstract public class NinjaProcessorService<T,P extends Processor<T>> extends Pr
             String configurationPrefix,
             Class<P> defaultProcessorType) {
         
-        super(name);
+        this(name, ninjaProperties, injector, configurationPrefix, defaultProcessorType,
+            NinjaProcessorService.<T>newTaskQueue(configurationPrefix, ninjaProperties));
+    }
+    
+    public NinjaProcessorService(
+            String name,
+            NinjaProperties ninjaProperties,
+            Injector injector,
+            String configurationPrefix,
+            Class<P> defaultProcessorType,
+            BlockingQueue<T> taskQueue) {
+        
+        super(name, taskQueue);
         this.ninjaProperties = ninjaProperties;
         this.injector = injector;
         this.configurationPrefix = configurationPrefix;
         this.defaultProcessorType = defaultProcessorType;
         
         // delegate most of configuration to helper method
-        NinjaWorkerService.configure(this.configurationPrefix, this.ninjaProperties, this);
+        NinjaWorkerService.configure(this.configurationPrefix, this.ninjaProperties,
+            this.injector.getInstance(NinjaBulkheads.class), this);
+        NinjaProcessorService.configure(this.configurationPrefix, this.ninjaProperties, this);
     }
     
     @Override
@@ -38,6 +59,10 @@ abstract public class NinjaProcessorService<T,P extends Processor<T>> extends Pr
 
     @Override @Start(order = 91)        // annotation triggers binds to ninja event
     public void start() {
+        // already started by a NinjaServiceGroup?
+        if (this.isStarted()) {
+            return;
+        }
         super.start();
     }
     
@@ -46,4 +71,47 @@ abstract public class NinjaProcessorService<T,P extends Processor<T>> extends Pr
         super.stop();
     }
     
+    static public <T,P extends Processor<T>> void configure(
+            String configPrefix,
+            NinjaProperties ninjaProperties,
+            AbstractProcessorService<T,P> service) {
+        
+        Integer batchSize = ninjaProperties.getInteger(configPrefix + ".batch_size");
+        if (batchSize != null) {
+            service.setBatchSize(batchSize);
+        }
+        
+        TimeDuration batchLinger = getTimeDuration(ninjaProperties, configPrefix + ".batch_linger", TimeUnit.MILLISECONDS);
+        if (batchLinger != null) {
+            service.setBatchLinger(batchLinger);
+        }
+        
+        String rejectionPolicy = ninjaProperties.get(configPrefix + ".rejection_policy");
+        if (rejectionPolicy != null) {
+            service.setRejectionPolicy(RejectionPolicy.valueOf(rejectionPolicy.trim().toUpperCase()));
+        }
+        
+        TimeDuration submitTimeout = getTimeDuration(ninjaProperties, configPrefix + ".submit_timeout", TimeUnit.MILLISECONDS);
+        if (submitTimeout != null) {
+            service.setSubmitTimeout(submitTimeout);
+        }
+        
+        TimeDuration drainTimeout = getTimeDuration(ninjaProperties, configPrefix + ".drain_timeout", TimeUnit.MILLISECONDS);
+        if (drainTimeout != null) {
+            service.setDrainTimeout(drainTimeout);
+        }
+    }
+    
+    static public <T> BlockingQueue<T> newTaskQueue(
+            String configPrefix,
+            NinjaProperties ninjaProperties) {
+        
+        Integer queueCapacity = ninjaProperties.getInteger(configPrefix + ".queue_capacity");
+        if (queueCapacity != null) {
+            return TaskQueues.bounded(queueCapacity);
+        }
+        
+        return TaskQueues.linked();
+    }
+    
 }
\ No newline at end of file
@@ -0,0 +1,69 @@
+package com.fizzed.executors.ninja;
+
+import com.fizzed.executors.core.ResultProcessor;
+import com.fizzed.executors.core.ResultProcessorService;
+import com.fizzed.executors.core.TaskFuture;
+import com.google.inject.Injector;
+import java.util.concurrent.BlockingQueue;
+import ninja.lifecycle.Dispose;
+import ninja.lifecycle.Start;
+import ninja.utils.NinjaProperties;
+
+abstract public class NinjaResultProcessorService<T,R,P extends ResultProcessor<T,R>> extends ResultProcessorService<T,R,P> {
+
+    protected final NinjaProperties ninjaProperties;
+    protected final Injector injector;
+    protected final String configurationPrefix;
+    protected final Class<P> defaultProcessorType;
+    
+    public NinjaResultProcessorService(
+            String name,
+            NinjaProperties ninjaProperties,
+            Injector injector,
+            String configurationPrefix,
+            Class<P> defaultProcessorType) {
+        
+        this(name, ninjaProperties, injector, configurationPrefix, defaultProcessorType,
+            NinjaProcessorService.<TaskFuture<T,R>>newTaskQueue(configurationPrefix, ninjaProperties));
+    }
+    
+    public NinjaResultProcessorService(
+            String name,
+            NinjaProperties ninjaProperties,
+            Injector injector,
+            String configurationPrefix,
+            Class<P> defaultProcessorType,
+            BlockingQueue<TaskFuture<T,R>> taskQueue) {
+        
+        super(name, taskQueue);
+        this.ninjaProperties = ninjaProperties;
+        this.injector = injector;
+        this.configurationPrefix = configurationPrefix;
+        this.defaultProcessorType = defaultProcessorType;
+        
+        // delegate most of configuration to helper method
+        NinjaWorkerService.configure(this.configurationPrefix, this.ninjaProperties,
+            this.injector.getInstance(NinjaBulkheads.class), this);
+        NinjaProcessorService.configure(this.configurationPrefix, this.ninjaProperties, this);
+    }
+    
+    @Override
+    public P newResultProcessor() {
+        return this.injector.getInstance(this.defaultProcessorType);
+    }
+
+    @Override @Start(order = 91)        // annotation triggers binds to ninja event
+    public void start() {
+        // already started by a NinjaServiceGroup?
+        if (this.isStarted()) {
+            return;
+        }
+        super.start();
+    }
+    
+    @Override @Dispose                  // annotation triggers binds to ninja event
+    public void stop() {
+        super.stop();
+    }
+    
+}
@@ -0,0 +1,46 @@
+package com.fizzed.executors.ninja;
+
+import com.fizzed.crux.util.TimeDuration;
+import com.fizzed.executors.core.ServiceGroup;
+import static com.fizzed.executors.ninja.NinjaPropertiesHelper.getTimeDuration;
+import java.util.concurrent.TimeUnit;
+import ninja.lifecycle.Dispose;
+import ninja.lifecycle.Start;
+import ninja.utils.NinjaProperties;
+
+/**
+ * A service group tied to the ninja lifecycle.  It starts before (and is
+ * disposed before) the ninja services themselves, so its members start and
+ * stop in parallel, and their own start/dispose then finds nothing to do.
+ */
+public class NinjaServiceGroup extends ServiceGroup {
+
+    protected final NinjaProperties ninjaProperties;
+    protected final String configurationPrefix;
+    
+    public NinjaServiceGroup(
+            String name,
+            NinjaProperties ninjaProperties,
+            String configurationPrefix) {
+        
+        super(name);
+        this.ninjaProperties = ninjaProperties;
+        this.configurationPrefix = configurationPrefix;
+        
+        TimeDuration shutdownTimeout = getTimeDuration(ninjaProperties, configurationPrefix + ".shutdown_timeout", TimeUnit.MILLISECONDS);
+        if (shutdownTimeout != null) {
+            this.setShutdownTimeout(shutdownTimeout);
+        }
+    }
+    
+    @Override @Start(order = 90)        // before the member services (91)
+    public void start() {
+        super.start();
+    }
+    
+    @Override @Dispose(order = 90)      // disposed in reverse, so before the member services (50)
+    public void stop() {
+        super.stop();
+    }
+    
+}
@@ -1,11 +1,16 @@
 package com.fizzed.executors.ninja;
 
 import com.fizzed.crux.util.TimeDuration;
+import com.fizzed.executors.core.IdleStrategies;
+import com.fizzed.executors.core.MissedRuns;
+import com.fizzed.executors.core.RateLimiters;
+import com.fizzed.executors.core.Schedules;
 import com.fizzed.executors.core.Worker;
 import com.fizzed.executors.core.WorkerService;
 import static com.fizzed.executors.ninja.NinjaPropertiesHelper.getDouble;
 import static com.fizzed.executors.ninja.NinjaPropertiesHelper.getTimeDuration;
 import com.google.inject.Injector;
+import java.time.ZoneId;
 import java.util.concurrent.TimeUnit;
 import ninja.lifecycle.Dispose;
 import ninja.lifecycle.Start;
@@ -32,7 +37,8 @@ abstract public class NinjaWorkerService<W extends Worker> extends WorkerService
         this.defaultWorkerType = defaultWorkerType;
         
         // delegate most of configuration to helper method
-        NinjaWorkerService.configure(this.configurationPrefix, this.ninjaProperties, this);
+        NinjaWorkerService.configure(this.configurationPrefix, this.ninjaProperties,
+            this.injector.getInstance(NinjaBulkheads.class), this);
     }
     
     @Override
@@ -42,6 +48,10 @@ abstract public class NinjaWorkerService<W extends Worker> extends WorkerService
 
     @Override @Start(order = 91)        // annotation triggers binds to ninja event
     public void start() {
+        // already started by a NinjaServiceGroup?
+        if (this.isStarted()) {
+            return;
+        }
         super.start();
     }
     
@@ -55,6 +65,19 @@ abstract public class NinjaWorkerService<W extends Worker> extends WorkerService
             NinjaProperties ninjaProperties,
             WorkerService<W> service) {
         
+        configure(configPrefix, ninjaProperties, null, service);
+    }
+    
+    /**
+     * @param bulkheads the bulkheads shared by the services of the injector
+     *      (may be null if no service is configured with a bulkhead)
+     */
+    static public <W extends Worker> void configure(
+            String configPrefix,
+            NinjaProperties ninjaProperties,
+            NinjaBulkheads bulkheads,
+            WorkerService<W> service) {
+        
         String name = ninjaProperties.get(configPrefix + ".name");
         if (name != null) {
             service.setName(name);
@@ -69,6 +92,21 @@ abstract public class NinjaWorkerService<W extends Worker> extends WorkerService
         if (minPoolSize != null) {
             service.setMinPoolSize(minPoolSize);
         }
+        
+        Integer maxWorkers = ninjaProperties.getInteger(configPrefix + ".max_workers");
+        if (maxWorkers != null) {
+            service.setMaxPoolSize(maxWorkers);
+        }
+        
+        TimeDuration keepAlive = getTimeDuration(ninjaProperties, configPrefix + ".keep_alive", TimeUnit.MILLISECONDS);
+        if (keepAlive != null) {
+            service.setKeepAlive(keepAlive);
+        }
+        
+        Integer scaleUpBacklog = ninjaProperties.getInteger(configPrefix + ".scale_up_backlog");
+        if (scaleUpBacklog != null) {
+            service.setScaleUpBacklog(scaleUpBacklog);
+        }
 
         TimeDuration initialDelay = getTimeDuration(ninjaProperties, configPrefix + ".initial_delay", TimeUnit.MILLISECONDS);
         if (initialDelay != null) {
@@ -85,6 +123,31 @@ abstract public class NinjaWorkerService<W extends Worker> extends WorkerService
             service.setExecuteDelay(executeDelay);
         }
 
+        // an idle backoff replaces the execute delay (for polling workers)
+        TimeDuration idleBackoffMin = getTimeDuration(ninjaProperties, configPrefix + ".idle_backoff_min", TimeUnit.MILLISECONDS);
+        TimeDuration idleBackoffMax = getTimeDuration(ninjaProperties, configPrefix + ".idle_backoff_max", TimeUnit.MILLISECONDS);
+        if (idleBackoffMin != null || idleBackoffMax != null) {
+            service.setIdleStrategy(IdleStrategies.backoff(
+                idleBackoffMin != null ? idleBackoffMin : TimeDuration.millis(1),
+                idleBackoffMax != null ? idleBackoffMax : TimeDuration.seconds(1)));
+        }
+        
+        // a fixed rate or cron schedule replaces the execute delay
+        String missedRunsValue = ninjaProperties.get(configPrefix + ".missed_runs");
+        MissedRuns missedRuns = missedRunsValue != null
+            ? MissedRuns.valueOf(missedRunsValue.trim().toUpperCase()) : MissedRuns.SKIP;
+        
+        TimeDuration fixedRate = getTimeDuration(ninjaProperties, configPrefix + ".fixed_rate", TimeUnit.MILLISECONDS);
+        if (fixedRate != null) {
+            service.setSchedule(Schedules.fixedRate(fixedRate, missedRuns));
+        }
+        
+        String cron = ninjaProperties.get(configPrefix + ".cron");
+        if (cron != null) {
+            String cronZone = ninjaProperties.get(configPrefix + ".cron_zone");
+            service.setSchedule(Schedules.cron(cron, cronZone != null ? ZoneId.of(cronZone) : ZoneId.systemDefault(), missedRuns));
+        }
+
         TimeDuration unhandledThrowableDelay = getTimeDuration(ninjaProperties, configPrefix + ".unhandled_throwable_delay", TimeUnit.MILLISECONDS);
         if (unhandledThrowableDelay != null) {
             service.setUnhandledThrowableDelay(unhandledThrowableDelay);
@@ -94,6 +157,32 @@ abstract public class NinjaWorkerService<W extends Worker> extends WorkerService
         if (shutdownTimeout != null) {
             service.setShutdownTimeout(shutdownTimeout);
         }
+        
+        Boolean virtualThreads = ninjaProperties.getBoolean(configPrefix + ".virtual_threads");
+        if (virtualThreads != null) {
+            service.setVirtualThreads(virtualThreads);
+        }
+        
+        Boolean cpuTimeMetrics = ninjaProperties.getBoolean(configPrefix + ".cpu_time_metrics");
+        if (cpuTimeMetrics != null) {
+            service.setCpuTimeMetrics(cpuTimeMetrics);
+        }
+        
+        // permits (tasks for a processor service) per second, bursts default to one second's worth
+        Double rateLimit = getDouble(ninjaProperties, configPrefix + ".rate_limit");
+        if (rateLimit != null) {
+            Integer rateLimitBurst = ninjaProperties.getInteger(configPrefix + ".rate_limit_burst");
+            service.setRateLimiter(RateLimiters.tokenBucket(rateLimit,
+                rateLimitBurst != null ? rateLimitBurst : (int)Math.max(1L, Math.round(rateLimit))));
+        }
+        
+        String bulkhead = ninjaProperties.get(configPrefix + ".bulkhead");
+        if (bulkhead != null) {
+            if (bulkheads == null) {
+                throw new IllegalArgumentException(configPrefix + ".bulkhead configured, but no bulkheads to share");
+            }
+            service.setBulkhead(bulkheads.get(bulkhead.trim()));
+        }
     }
 
 }
\ No newline at end of file